@@ -48,6 +48,13 @@ public @interface BaseRequest {
 
     String keyStore() default "";
 
+    /**
+     * Name of the executor registered by ForestConfiguration.registerCallbackExecutor, in which callbacks of async requests run.
+     * "sameThread" runs them directly in the IO thread of backend.
+     * @return
+     */
+    String callbackExecutor() default "";
+
 //    boolean[] logEnable() default {};
 
 }
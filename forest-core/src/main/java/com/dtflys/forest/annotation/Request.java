@@ -113,5 +113,12 @@ public @interface Request {
 
     String keyStore() default "";
 
+    /**
+     * Name of the executor registered by ForestConfiguration.registerCallbackExecutor, in which callbacks of async requests run.
+     * "sameThread" runs them directly in the IO thread of backend. Overrides the value of {@link BaseRequest}.
+     * @return
+     */
+    String callbackExecutor() default "";
+
     boolean logEnabled() default false;
 }
@@ -36,6 +36,16 @@ public abstract class AbstractHttpBackend implements HttpBackend {
         }
     }
 
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (initialized) {
+                this.connectionManager.close();
+                initialized = false;
+            }
+        }
+    }
+
     protected abstract HttpExecutor createHeadExecutor(ForestConnectionManager connectionManager, ForestRequest request, ResponseHandler responseHandler);
 
     protected abstract HttpExecutor createGetExecutor(ForestConnectionManager connectionManager, ForestRequest request, ResponseHandler responseHandler);
@@ -105,8 +115,12 @@ public abstract class AbstractHttpBackend implements HttpBackend {
 
     @Override
     public HttpExecutor createExecutor(ForestRequest request, ResponseHandler responseHandler) {
-        String key = request.getType().toUpperCase();
+        String key = request.getType();
         HttpExecutorCreator httpExecutorCreator = executorCreatorMap.get(key);
+        if (httpExecutorCreator == null) {
+            key = key.toUpperCase();
+            httpExecutorCreator = executorCreatorMap.get(key);
+        }
         if (httpExecutorCreator == null) {
             throw new ForestRuntimeException("Http request type \"" + key + "\" is not be supported.");
         }
@@ -2,14 +2,15 @@ package com.dtflys.forest.backend;
 
 
 import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.http.ForestFuture;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
-import com.dtflys.forest.http.ForestResponseFactory;
 import com.dtflys.forest.handler.ResponseHandler;
 import com.dtflys.forest.utils.ReflectUtil;
 
 import java.lang.reflect.Type;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 
 /**
@@ -54,9 +55,103 @@ public abstract class BackendResponseHandler<R> {
     }
 
 
-    public abstract void handleFuture(
-                     final Future<R> httpResponseFuture,
-                     ForestResponseFactory forestResponseFactory);
+    /**
+     * 将异步请求的Future交给方法的响应处理器
+     * @param future
+     */
+    public void handleFuture(ForestFuture<Object> future) {
+        responseHandler.handleFuture(future);
+    }
+
+    /**
+     * 处理异步请求的响应并完成Future，处理过程在回调执行器中执行；
+     * Future已被取消时直接丢弃响应，不执行回调
+     * @param future
+     * @param response
+     * @param statusCode
+     * @param msg
+     */
+    public void handleFutureResponse(final ForestFuture<Object> future, final ForestResponse response,
+                                     final int statusCode, final String msg) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                if (abandon(future, response)) {
+                    return;
+                }
+                try {
+                    // 与同步请求相同的处理过程，错误响应在处理后以异常完成
+                    future.complete(handleSync(response, statusCode, msg));
+                } catch (Throwable th) {
+                    future.completeExceptionally(th);
+                } finally {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * 处理异步请求的网络错误并以异常完成Future，处理过程在回调执行器中执行；
+     * Future已被取消时不执行回调
+     * @param future
+     * @param response
+     * @param ex
+     */
+    public void handleFutureFailure(final ForestFuture<Object> future, final ForestResponse response, final Exception ex) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                if (abandon(future, response)) {
+                    return;
+                }
+                try {
+                    handleError(response, ex);
+                } catch (Throwable th) {
+                    // 没有OnError回调时重新抛出的原异常直接交给Future，
+                    // OnError回调或拦截器抛出的其它异常附加到原异常上
+                    if (th != ex && th.getCause() != ex) {
+                        ex.addSuppressed(th);
+                    }
+                } finally {
+                    future.completeExceptionally(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Future已被取消时丢弃响应并释放连接
+     * @param future
+     * @param response
+     * @return Future已被取消时返回true
+     */
+    public boolean abandon(ForestFuture<Object> future, ForestResponse response) {
+        if (!future.isCancelled()) {
+            return false;
+        }
+        request.getConfiguration().recordAbandonedRequest();
+        if (response != null) {
+            response.close();
+        }
+        return true;
+    }
+
+    /**
+     * 在回调执行器中执行，请求没有指定执行器时使用全局配置的执行器，执行器拒绝时在当前线程执行
+     * @param task
+     */
+    protected void dispatch(Runnable task) {
+        Executor executor = request.getCallbackExecutor();
+        if (executor == null) {
+            executor = request.getConfiguration().getCallbackExecutor();
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
 
 
 
@@ -9,4 +9,9 @@ import com.dtflys.forest.config.ForestConfiguration;
 public interface ForestConnectionManager {
 
     void init(ForestConfiguration configuration);
+
+    /**
+     * 关闭连接管理器，释放其持有的连接池与线程资源
+     */
+    void close();
 }
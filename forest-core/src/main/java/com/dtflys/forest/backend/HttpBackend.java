@@ -17,6 +17,8 @@ public interface HttpBackend {
 
     void init(ForestConfiguration configuration);
 
+    void close();
+
     interface HttpExecutorCreator {
         HttpExecutor createExecutor(ForestConnectionManager connectionManager, ForestRequest request, ResponseHandler responseHandler);
     }
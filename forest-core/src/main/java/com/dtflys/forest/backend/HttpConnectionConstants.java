@@ -23,4 +23,13 @@ public class HttpConnectionConstants {
      */
     public final static int DEFAULT_READ_TIMEOUT = 10000;
 
+    /**
+     * maximum time in milliseconds a pooled connection may stay idle before it is evicted
+     */
+    public final static int DEFAULT_MAX_IDLE_TIME = 5000;
+    /**
+     * interval in milliseconds between two runs of the idle connection evictor
+     */
+    public final static int DEFAULT_EVICT_INTERVAL = 2000;
+
 }
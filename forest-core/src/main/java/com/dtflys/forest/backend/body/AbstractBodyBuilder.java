@@ -2,11 +2,16 @@ package com.dtflys.forest.backend.body;
 
 import com.dtflys.forest.backend.BodyBuilder;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.filter.FilteredBody;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.mapping.MappingTemplate;
-import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 /**
@@ -22,13 +27,13 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
     public void buildBody(T httpRequest, ForestRequest request) {
         String contentType = request.getContentType();
         if (StringUtils.isEmpty(contentType)) {
-            Object value = request.getHeaders().get("Content-Type");
+            Object value = request.getHeaderArray().get("Content-Type");
             if (value != null) {
                 String str = value.toString();
                 if (str.length() > 0) {
                     contentType = str;
                 }
-                request.getHeaders().remove("Content-Type");
+                request.getHeaderArray().remove("Content-Type");
             }
         }
 
@@ -52,22 +57,37 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
             mineType = TYPE_APPLICATION_X_WWW_FORM_URLENCODED;
         }
 
-        List<RequestNameValue> nameValueList = request.getDataNameValueList();
+        NameValueArray nameValueList = request.getDataArray();
         if (requestBody != null) {
             setStringBody(httpRequest, requestBody, charset, contentType);
             return;
         }
 
-        if (mineType.equals(TYPE_APPLICATION_X_WWW_FORM_URLENCODED)) {
+        if (nameValueList.size() == 1 && nameValueList.getValue(0) instanceof FilteredBody) {
+            // 过滤后的整个对象就是请求体，不论哪种类型都由过滤器直接写为字节，不产生中间字符串
+            final FilteredBody filteredBody = (FilteredBody) nameValueList.getValue(0);
+            setStreamingBody(httpRequest, new BodyWriter() {
+                @Override
+                public void writeTo(OutputStream out, String charset) throws IOException {
+                    filteredBody.writeTo(out, charset);
+                }
+            }, charset, contentType);
+        }
+        else if (mineType.equals(TYPE_APPLICATION_X_WWW_FORM_URLENCODED)) {
             setFormData(httpRequest, request, charset, contentType, nameValueList);
         }
         else if (mineType.equals(TYPE_APPLICATION_JSON)) {
-            ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
-            String text = null;
-            Map<String, Object> map = convertNameValueListToMap(request, nameValueList);
-            String json = jsonConverter.convertToJson(map);
-            text = json;
-            setStringBody(httpRequest, text, charset, contentType);
+            final ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
+            // 请求参数直接作为Map视图序列化，只有需要合并JSON参数或有同名参数时才复制
+            Map<String, Object> parameterMap = JsonParameterMap.wrap(jsonConverter, nameValueList);
+            final Map<String, Object> map = parameterMap != null ?
+                    parameterMap : convertNameValueListToMap(request, nameValueList);
+            setStreamingBody(httpRequest, new BodyWriter() {
+                @Override
+                public void writeTo(OutputStream out, String charset) throws IOException {
+                    jsonConverter.writeJson(map, out, charset);
+                }
+            }, charset, contentType);
         }
         else  {
             Map<String, Object> map = convertNameValueListToMap(request, nameValueList);
@@ -83,18 +103,39 @@ public abstract class AbstractBodyBuilder<T> implements BodyBuilder<T> {
 
     protected abstract void setStringBody(T httpReq, String text, String charset, String contentType);
 
-    protected abstract void setFormData(T httpReq, ForestRequest request, String charset, String contentType, List<RequestNameValue> nameValueList);
+    protected abstract void setByteBody(T httpReq, byte[] bytes, String charset, String contentType);
 
-    private Map<String, Object> convertNameValueListToMap(ForestRequest request, List<RequestNameValue> nameValueList) {
+    /**
+     * 由写入器直接写入请求体，默认写入字节数组后设置，后端可以覆盖为写入自己的缓冲区
+     * @param httpReq
+     * @param writer
+     * @param charset
+     * @param contentType
+     */
+    protected void setStreamingBody(T httpReq, BodyWriter writer, String charset, String contentType) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writer.writeTo(out, charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        setByteBody(httpReq, out.toByteArray(), charset, contentType);
+    }
+
+    protected abstract void setFormData(T httpReq, ForestRequest request, String charset, String contentType, NameValueArray nameValueList);
+
+    private Map<String, Object> convertNameValueListToMap(ForestRequest request, NameValueArray nameValueList) {
         ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
         Map<String, Object> map = new LinkedHashMap<String, Object>();
         for (int i = 0; i < nameValueList.size(); i++) {
-            RequestNameValue nameValue = nameValueList.get(i);
-            String name = nameValue.getName();
-            Object value = nameValue.getValue();
+            String name = nameValueList.getName(i);
+            Object value = nameValueList.getValue(i);
             if (value instanceof Date) {
                 value = MappingTemplate.getParameterValue(jsonConverter, value);
             }
+            else if (value instanceof FilteredBody) {
+                value = value.toString();
+            }
             if (value == null && StringUtils.isNotEmpty(name)) {
                 Map nameMap = jsonConverter.convertToJavaObject(name, Map.class);
                 if (nameMap != null && nameMap.size() > 0) {
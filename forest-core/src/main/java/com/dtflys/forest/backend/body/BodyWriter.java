@@ -0,0 +1,14 @@
+package com.dtflys.forest.backend.body;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 请求体写入器
+ * <p>将请求体按字符集直接写入后端提供的输出流，不产生中间字符串</p>
+ */
+public interface BodyWriter {
+
+    void writeTo(OutputStream out, String charset) throws IOException;
+
+}
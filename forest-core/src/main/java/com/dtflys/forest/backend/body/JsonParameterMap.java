@@ -0,0 +1,101 @@
+package com.dtflys.forest.backend.body;
+
+import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.filter.FilteredBody;
+import com.dtflys.forest.http.NameValueArray;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.utils.StringUtils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 请求参数的只读Map视图
+ * <p>按下标直接读取请求参数，序列化为JSON时不需要先复制到LinkedHashMap，
+ * 序列化结果与复制后的LinkedHashMap相同</p>
+ */
+public class JsonParameterMap extends AbstractMap<String, Object> {
+
+    private final ForestJsonConverter jsonConverter;
+
+    private final NameValueArray nameValueList;
+
+    private JsonParameterMap(ForestJsonConverter jsonConverter, NameValueArray nameValueList) {
+        this.jsonConverter = jsonConverter;
+        this.nameValueList = nameValueList;
+    }
+
+    /**
+     * 创建请求参数的Map视图，参数中有同名参数或需要解析合并的JSON参数时返回null
+     * @param jsonConverter
+     * @param nameValueList
+     * @return
+     */
+    public static JsonParameterMap wrap(ForestJsonConverter jsonConverter, NameValueArray nameValueList) {
+        int size = nameValueList.size();
+        for (int i = 0; i < size; i++) {
+            String name = nameValueList.getName(i);
+            if (nameValueList.getValue(i) == null && StringUtils.isNotEmpty(name)) {
+                return null;
+            }
+            if (nameValueList.indexOf(name) != i) {
+                return null;
+            }
+        }
+        return new JsonParameterMap(jsonConverter, nameValueList);
+    }
+
+    private Object getValue(int index) {
+        Object value = nameValueList.getValue(index);
+        if (value instanceof Date) {
+            return MappingTemplate.getParameterValue(jsonConverter, value);
+        }
+        if (value instanceof FilteredBody) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return nameValueList.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < nameValueList.size();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> entry = new SimpleImmutableEntry<String, Object>(
+                                nameValueList.getName(index), getValue(index));
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return nameValueList.size();
+            }
+        };
+    }
+}
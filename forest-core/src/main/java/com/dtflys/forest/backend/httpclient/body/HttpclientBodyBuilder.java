@@ -1,17 +1,23 @@
 package com.dtflys.forest.backend.httpclient.body;
 
 import com.dtflys.forest.backend.body.AbstractBodyBuilder;
+import com.dtflys.forest.backend.body.BodyWriter;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.mapping.MappingTemplate;
-import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicNameValuePair;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.*;
 
@@ -25,28 +31,45 @@ public class HttpclientBodyBuilder<T extends HttpEntityEnclosingRequestBase> ext
 
 
     protected void setStringBody(T httpReq, String text, String charset, String contentType) {
-            StringEntity entity = new StringEntity(text, charset);
-            if (StringUtils.isNotEmpty(charset)) {
-                if (!contentType.contains("charset=")) {
-                    contentType = contentType + "; charset=" + charset.toLowerCase();
-                } else {
-                    String[] strs = contentType.split("charset=");
-                    contentType = strs[0] + " charset=" + charset.toLowerCase();
-                }
-                entity.setContentEncoding(charset);
+        setEntity(httpReq, new StringEntity(text, charset), charset, contentType);
+    }
+
+    @Override
+    protected void setByteBody(T httpReq, byte[] bytes, String charset, String contentType) {
+        setEntity(httpReq, new ByteArrayEntity(bytes), charset, contentType);
+    }
+
+    @Override
+    protected void setStreamingBody(T httpReq, BodyWriter writer, String charset, String contentType) {
+        BodyOutputStream out = new BodyOutputStream();
+        try {
+            writer.writeTo(out, charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        setEntity(httpReq, out.toEntity(), charset, contentType);
+    }
+
+    private void setEntity(T httpReq, AbstractHttpEntity entity, String charset, String contentType) {
+        if (StringUtils.isNotEmpty(charset)) {
+            if (!contentType.contains("charset=")) {
+                contentType = contentType + "; charset=" + charset.toLowerCase();
+            } else {
+                String[] strs = contentType.split("charset=");
+                contentType = strs[0] + " charset=" + charset.toLowerCase();
             }
-            entity.setContentType(contentType);
-            httpReq.setEntity(entity);
+            entity.setContentEncoding(charset);
+        }
+        entity.setContentType(contentType);
+        httpReq.setEntity(entity);
     }
 
-    protected void setFormData(T httpReq, ForestRequest request, String charset, String contentType, List<RequestNameValue> nameValueList) {
+    protected void setFormData(T httpReq, ForestRequest request, String charset, String contentType, NameValueArray nameValueList) {
         List<NameValuePair> nameValuePairs = new ArrayList<NameValuePair>();
         ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
         for (int i = 0; i < nameValueList.size(); i++) {
-            RequestNameValue nameValue = nameValueList.get(i);
-            if (nameValue.isInQuery()) continue;
-            String name = nameValue.getName();
-            Object value = nameValue.getValue();
+            String name = nameValueList.getName(i);
+            Object value = nameValueList.getValue(i);
             NameValuePair nameValuePair = new BasicNameValuePair(name, MappingTemplate.getParameterValue(jsonConverter, value));
             nameValuePairs.add(nameValuePair);
         }
@@ -63,5 +86,14 @@ public class HttpclientBodyBuilder<T extends HttpEntityEnclosingRequestBase> ext
     }
 
 
+    /**
+     * 直接以内部缓冲区创建请求实体，写入后不再复制，请求体长度已知
+     */
+    private static class BodyOutputStream extends ByteArrayOutputStream {
+
+        ByteArrayEntity toEntity() {
+            return new ByteArrayEntity(buf, 0, count);
+        }
+    }
 
 }
@@ -24,8 +24,11 @@ public class ForestSSLConnectionFactory implements LayeredConnectionSocketFactor
 
     public static final X509HostnameVerifier BROWSER_COMPATIBLE_HOSTNAME_VERIFIER = new BrowserCompatHostnameVerifier();
 
-//    private final SSLSocketFactory socketfactory;
-    private final static ThreadLocal<ForestRequest> requestLocal = new ThreadLocal<>();
+    /**
+     * 在HttpContext中保存当前请求的属性名
+     */
+    public final static String FOREST_REQUEST_ATTRIBUTE = "forest.request";
+
     private final X509HostnameVerifier hostnameVerifier;
 
     public static org.apache.http.conn.ssl.SSLConnectionSocketFactory getSocketFactory() throws SSLInitializationException {
@@ -57,7 +60,6 @@ public class ForestSSLConnectionFactory implements LayeredConnectionSocketFactor
     }
 
     public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
-        System.out.println("current request: " + getCurrentRequest());
         Args.notNull(host, "HTTP host");
         Args.notNull(remoteAddress, "Remote address");
         Socket sock = socket != null?socket:this.createSocket(context);
@@ -88,45 +90,31 @@ public class ForestSSLConnectionFactory implements LayeredConnectionSocketFactor
     }
 
 
-    private ForestRequest getCurrentRequest() {
-        ForestRequest request = requestLocal.get();
-        System.out.println("getCurrentRequest[" + Thread.currentThread().getName() + "][" + requestLocal.hashCode() + "]: " + request);
-        return request;
-    }
-
-
-    public void setCurrentRequest(ForestRequest request) {
-        System.out.println("setCurrentRequest[" + Thread.currentThread().getName() + "][" + requestLocal.hashCode() + "]: " + request);
-        requestLocal.set(request);
-    }
-
-
-    public ForestRequest removeCurrentRequest() {
-        ForestRequest request = requestLocal.get();
-        requestLocal.remove();
+    private ForestRequest getRequest(HttpContext context) {
+        ForestRequest request = null;
+        if (context != null) {
+            request = (ForestRequest) context.getAttribute(FOREST_REQUEST_ATTRIBUTE);
+        }
+        if (request == null) {
+            throw new ForestRuntimeException("Forest request cannot be found in the HTTP context!");
+        }
         return request;
     }
 
 
-
     public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
-        ForestRequest request = getCurrentRequest();
-        if (request == null) {
-            throw new ForestRuntimeException("Current request is NULL!");
-        }
+        ForestRequest request = getRequest(context);
         SSLSocket sslsock = (SSLSocket) SSLUtils.getSSLSocketFactory(request)
                 .createSocket(socket, target, port, true);
-        if (request != null) {
-            SSLKeyStore keyStore = request.getKeyStore();
-            if (keyStore != null) {
-                String[] protocols = keyStore.getProtocols();
-                String[] cipherSuites = keyStore.getCipherSuites();
-                if (protocols != null) {
-                    sslsock.setEnabledProtocols(protocols);
-                }
-                if (cipherSuites != null) {
-                    sslsock.setEnabledCipherSuites(cipherSuites);
-                }
+        SSLKeyStore keyStore = request.getKeyStore();
+        if (keyStore != null) {
+            String[] protocols = keyStore.getProtocols();
+            String[] cipherSuites = keyStore.getCipherSuites();
+            if (protocols != null) {
+                sslsock.setEnabledProtocols(protocols);
+            }
+            if (cipherSuites != null) {
+                sslsock.setEnabledCipherSuites(cipherSuites);
             }
         }
         this.prepareSocket(sslsock);
@@ -6,12 +6,15 @@ import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.exceptions.ForestUnsupportException;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.retryer.DefaultRetryer;
+import com.dtflys.forest.ssl.SSLContextCache;
 import org.apache.http.Consts;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Lookup;
 import org.apache.http.config.Registry;
@@ -19,11 +22,10 @@ import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.auth.*;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
@@ -31,8 +33,15 @@ import org.apache.http.nio.reactor.ConnectingIOReactor;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpParams;
 
+import java.io.IOException;
 import java.nio.charset.CodingErrorAction;
 import java.security.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -40,11 +49,33 @@ import java.security.*;
  */
 public class HttpclientConnectionManager implements ForestConnectionManager {
     private HttpParams httpParams;
-    private static PoolingHttpClientConnectionManager tsConnectionManager;
+    private volatile PoolingHttpClientConnectionManager tsConnectionManager;
 
-    private static PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
 
-    private static Lookup<AuthSchemeProvider> authSchemeRegistry;
+    private boolean asyncSupported;
+
+    private Lookup<AuthSchemeProvider> authSchemeRegistry;
+
+    /**
+     * 共享的同步客户端，所有同步请求复用同一个客户端和连接池
+     */
+    private volatile CloseableHttpClient syncClient;
+
+    /**
+     * 按 (连接超时, 读取超时, 获取连接超时) 缓存的请求配置
+     */
+    private final ConcurrentMap<RequestConfigKey, RequestConfig> requestConfigCache = new ConcurrentHashMap<>();
+
+    /**
+     * 空闲连接回收线程
+     */
+    private ScheduledExecutorService connectionEvictor;
+
+    /**
+     * 共享的异步客户端，在第一次异步请求时启动，直到连接管理器关闭
+     */
+    private volatile CloseableHttpAsyncClient asyncClient;
 
     private final ForestSSLConnectionFactory sslConnectFactory = new ForestSSLConnectionFactory();
 
@@ -61,7 +92,9 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
     }
 
     @Override
-    public void init(ForestConfiguration configuration) {
+    public synchronized void init(ForestConfiguration configuration) {
+        // 重新初始化时先关闭之前的客户端、连接池和回收线程
+        close();
         try {
             httpParams = new BasicHttpParams();
             Integer maxConnections = configuration.getMaxConnections() != null ?
@@ -78,6 +111,11 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
             tsConnectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
             tsConnectionManager.setMaxTotal(maxConnections);
             tsConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
+            requestConfigCache.clear();
+            syncClient = HttpClients.custom()
+                    .setConnectionManager(tsConnectionManager)
+                    .setRetryHandler(new StaleConnectionRetryHandler())
+                    .build();
 
             /// init async connection manager
             boolean supportAsync = true;
@@ -86,74 +124,53 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
             } catch (ClassNotFoundException e) {
                 supportAsync = false;
             }
+            asyncSupported = supportAsync;
             if (supportAsync) {
                 ConnectingIOReactor ioReactor = new DefaultConnectingIOReactor();
-                if (asyncConnectionManager == null) {
-                    try {
-                        ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                                .setMalformedInputAction(CodingErrorAction.IGNORE)
-                                .setUnmappableInputAction(CodingErrorAction.IGNORE)
-                                .setCharset(Consts.UTF_8).build();
-
-                        authSchemeRegistry = RegistryBuilder
-                                .<AuthSchemeProvider>create()
-                                .register(AuthSchemes.BASIC, new BasicSchemeFactory())
-                                .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
-                                .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
-                                .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory())
-                                .register(AuthSchemes.KERBEROS, new KerberosSchemeFactory())
-                                .build();
-
-                        asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
-                        asyncConnectionManager.setMaxTotal(maxConnections);
-                        asyncConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
-                        asyncConnectionManager.setDefaultConnectionConfig(connectionConfig);
-                    } catch (Throwable t) {
-                    }
+                try {
+                    ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                            .setMalformedInputAction(CodingErrorAction.IGNORE)
+                            .setUnmappableInputAction(CodingErrorAction.IGNORE)
+                            .setCharset(Consts.UTF_8).build();
+
+                    authSchemeRegistry = RegistryBuilder
+                            .<AuthSchemeProvider>create()
+                            .register(AuthSchemes.BASIC, new BasicSchemeFactory())
+                            .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
+                            .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
+                            .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory())
+                            .register(AuthSchemes.KERBEROS, new KerberosSchemeFactory())
+                            .build();
+
+                    asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
+                    asyncConnectionManager.setMaxTotal(maxConnections);
+                    asyncConnectionManager.setDefaultMaxPerRoute(maxRouteConnections);
+                    asyncConnectionManager.setDefaultConnectionConfig(connectionConfig);
+                } catch (Throwable t) {
                 }
             }
+
+            connectionEvictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "forest-httpclient-connection-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            connectionEvictor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evictConnections();
+                }
+            }, HttpConnectionConstants.DEFAULT_EVICT_INTERVAL, HttpConnectionConstants.DEFAULT_EVICT_INTERVAL, TimeUnit.MILLISECONDS);
         } catch (Throwable th) {
             throw new ForestRuntimeException(th);
         }
     }
 
-    public HttpClient getHttpClient(ForestRequest request) {
-        sslConnectFactory.setCurrentRequest(request);
-        HttpClientBuilder builder = HttpClients.custom();
-        builder.setConnectionManager(tsConnectionManager);
-        /*if ("https".equals(request.getProtocol())) {
-            try {
-                SSLContext sslContext = getSSLContext(request);
-                SSLConnectionSocketFactory sslsf = getSSLConnectionSocketFactory(sslContext);
-                builder.setSSLSocketFactory(sslsf);
-            } catch (KeyManagementException e) {
-                throw new ForestRuntimeException(e);
-            } catch (NoSuchAlgorithmException e) {
-                throw new ForestRuntimeException(e);
-            }
-        } else {
-            builder.setConnectionManager(tsConnectionManager);
-        }*/
-
-        RequestConfig.Builder configBuilder = RequestConfig.custom();
-        // 设置连接超时
-        configBuilder.setConnectTimeout(request.getTimeout());
-        // 设置读取超时
-
-        Integer timeout = request.getTimeout();
-        if (timeout == null) {
-            timeout = request.getConfiguration().getTimeout();
-        }
-        configBuilder.setSocketTimeout(timeout);
-        // 设置从连接池获取连接实例的超时
-        configBuilder.setConnectionRequestTimeout(HttpConnectionConstants.DEFAULT_READ_TIMEOUT);
-        // 在提交请求之前 测试连接是否可用
-        configBuilder.setStaleConnectionCheckEnabled(true);
-        RequestConfig requestConfig = configBuilder.build();
-
-        return builder
-                .setDefaultRequestConfig(requestConfig)
-                .build();
+    public HttpClient getHttpClient() {
+        return syncClient;
     }
 
 
@@ -169,11 +186,6 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
 */
 
 
-    public void afterConnect() {
-        sslConnectFactory.removeCurrentRequest();
-    }
-
-
     /**
      * 自定义SSL证书
      * @param request
@@ -260,39 +272,180 @@ public class HttpclientConnectionManager implements ForestConnectionManager {
 
 
 
-    public CloseableHttpAsyncClient getHttpAsyncClient(ForestRequest request) {
-        if (asyncConnectionManager == null) {
+    public CloseableHttpAsyncClient getHttpAsyncClient() {
+        if (!asyncSupported) {
             throw new ForestUnsupportException("Async forest request is unsupported.");
         }
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncClient;
+                if (client == null) {
+                    if (asyncConnectionManager == null) {
+                        throw new ForestRuntimeException("HttpClient connection manager has been closed");
+                    }
+                    client = HttpAsyncClients.custom()
+                            .setConnectionManager(asyncConnectionManager)
+                            .setDefaultAuthSchemeRegistry(authSchemeRegistry)
+                            .build();
+                    client.start();
+                    asyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
 
-        HttpAsyncClientBuilder builder = HttpAsyncClients.custom();
-/*
+
+    /**
+     * 获取请求对应的请求配置，相同超时设置的请求共享同一个配置实例
+     * @param request
+     * @return
+     */
+    public RequestConfig getRequestConfig(ForestRequest request) {
+        int timeout = request.getTimeout();
+        // 非幂等的请求在失效连接上发出后不能安全地重试，发送前先检查连接
+        boolean staleConnectionCheck = !DefaultRetryer.isIdempotent(request.getType());
+        RequestConfigKey key = new RequestConfigKey(
+                timeout, timeout, HttpConnectionConstants.DEFAULT_READ_TIMEOUT, staleConnectionCheck);
+        RequestConfig requestConfig = requestConfigCache.get(key);
+        if (requestConfig == null) {
+            requestConfig = RequestConfig.custom()
+                    // 设置连接超时
+                    .setConnectTimeout(key.connectTimeout)
+                    // 设置读取超时
+                    .setSocketTimeout(key.socketTimeout)
+                    // 设置从连接池获取连接实例的超时
+                    .setConnectionRequestTimeout(key.connectionRequestTimeout)
+                    // 幂等的请求不在发送前检查连接，失效连接由后台回收线程清理，遇到失效连接时重试
+                    .setStaleConnectionCheckEnabled(key.staleConnectionCheck)
+                    .setCookieSpec(CookieSpecs.STANDARD)
+                    .build();
+            RequestConfig existed = requestConfigCache.putIfAbsent(key, requestConfig);
+            if (existed != null) {
+                requestConfig = existed;
+            }
+        }
+        return requestConfig;
+    }
+
+
+    /**
+     * 为请求创建上下文，请求的超时等配置通过上下文传递给共享的客户端
+     * @param request
+     * @return
+     */
+    public HttpClientContext createContext(ForestRequest request) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(getRequestConfig(request));
+        // SSL Socket工厂通过上下文获取请求的KeyStore，HTTP请求也可能被重定向到HTTPS，所以总是设置
+        context.setAttribute(ForestSSLConnectionFactory.FOREST_REQUEST_ATTRIBUTE, request);
         if ("https".equals(request.getProtocol())) {
-            try {
-                builder.setSSLContext(getSSLContext(request));
-            } catch (KeyManagementException e) {
-                throw new ForestRuntimeException(e);
-            } catch (NoSuchAlgorithmException e) {
-                throw new ForestRuntimeException(e);
+            // 以SSL缓存Key作为连接状态，使用相同KeyStore的请求才会复用连接池中的同一条连接
+            context.setUserToken(SSLContextCache.getCacheKey(request));
+        }
+        return context;
+    }
+
+
+    /**
+     * 定时关闭连接池中已过期以及空闲时间过长的连接，代替每次请求前的连接可用性检查
+     */
+    private void evictConnections() {
+        PoolingHttpClientConnectionManager syncManager = tsConnectionManager;
+        if (syncManager != null) {
+            syncManager.closeExpiredConnections();
+            syncManager.closeIdleConnections(HttpConnectionConstants.DEFAULT_MAX_IDLE_TIME, TimeUnit.MILLISECONDS);
+        }
+        PoolingNHttpClientConnectionManager asyncManager = asyncConnectionManager;
+        if (asyncManager != null) {
+            asyncManager.closeExpiredConnections();
+            asyncManager.closeIdleConnections(HttpConnectionConstants.DEFAULT_MAX_IDLE_TIME, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    @Override
+    public synchronized void close() {
+        if (connectionEvictor != null) {
+            connectionEvictor.shutdownNow();
+            connectionEvictor = null;
+        }
+        // 关闭客户端时同时关闭它的连接池，连接池不再复用，重新初始化时创建新的连接池；
+        // 先清空引用，关闭失败时也不会再使用这些客户端，每个资源都会被关闭，最后抛出第一个异常
+        CloseableHttpAsyncClient oldAsyncClient = asyncClient;
+        PoolingNHttpClientConnectionManager asyncManager = asyncConnectionManager;
+        CloseableHttpClient oldSyncClient = syncClient;
+        PoolingHttpClientConnectionManager syncManager = tsConnectionManager;
+        asyncClient = null;
+        asyncConnectionManager = null;
+        syncClient = null;
+        tsConnectionManager = null;
+        Exception error = null;
+        try {
+            if (oldAsyncClient != null) {
+                oldAsyncClient.close();
+            } else if (asyncManager != null) {
+                asyncManager.shutdown();
             }
+        } catch (Exception e) {
+            error = e;
         }
-*/
+        try {
+            if (oldSyncClient != null) {
+                oldSyncClient.close();
+            } else if (syncManager != null) {
+                syncManager.shutdown();
+            }
+        } catch (Exception e) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error != null) {
+            throw new ForestRuntimeException(error);
+        }
+    }
+
 
-        Integer timeout = request.getTimeout();
-        if (timeout == null) {
-            timeout = request.getConfiguration().getTimeout();
+    private static class RequestConfigKey {
+        private final int connectTimeout;
+        private final int socketTimeout;
+        private final int connectionRequestTimeout;
+        private final boolean staleConnectionCheck;
+
+        private RequestConfigKey(int connectTimeout, int socketTimeout, int connectionRequestTimeout, boolean staleConnectionCheck) {
+            this.connectTimeout = connectTimeout;
+            this.socketTimeout = socketTimeout;
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            this.staleConnectionCheck = staleConnectionCheck;
         }
 
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(timeout)
-                .setCookieSpec(CookieSpecs.STANDARD)
-                .setSocketTimeout(HttpConnectionConstants.DEFAULT_READ_TIMEOUT).build();
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestConfigKey)) {
+                return false;
+            }
+            RequestConfigKey that = (RequestConfigKey) o;
+            return connectTimeout == that.connectTimeout
+                    && socketTimeout == that.socketTimeout
+                    && connectionRequestTimeout == that.connectionRequestTimeout
+                    && staleConnectionCheck == that.staleConnectionCheck;
+        }
 
-        return builder
-                .setConnectionManager(asyncConnectionManager)
-                .setDefaultAuthSchemeRegistry(authSchemeRegistry)
-                .setDefaultRequestConfig(requestConfig)
-                .build();
+        @Override
+        public int hashCode() {
+            int result = connectTimeout;
+            result = 31 * result + socketTimeout;
+            result = 31 * result + connectionRequestTimeout;
+            result = 31 * result + (staleConnectionCheck ? 1 : 0);
+            return result;
+        }
     }
 
 }
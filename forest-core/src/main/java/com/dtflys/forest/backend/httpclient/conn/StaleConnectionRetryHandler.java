@@ -0,0 +1,43 @@
+package com.dtflys.forest.backend.httpclient.conn;
+
+import com.dtflys.forest.retryer.DefaultRetryer;
+import org.apache.http.HttpRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * 连接池中的连接不再在每次请求前做可用性检查，
+ * 若复用的连接已被服务端关闭（NoHttpResponseException），则打开连接检查后重试一次；
+ * 非幂等的请求已经完整发出时，服务端可能已经处理了请求，交给默认的重试规则判断
+ */
+class StaleConnectionRetryHandler extends DefaultHttpRequestRetryHandler {
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        if (exception instanceof NoHttpResponseException && executionCount <= 1) {
+            HttpClientContext clientContext = HttpClientContext.adapt(context);
+            if (!handleAsIdempotent(clientContext.getRequest()) && clientContext.isRequestSent()) {
+                return super.retryRequest(exception, executionCount, context);
+            }
+            RequestConfig requestConfig = clientContext.getRequestConfig();
+            clientContext.setRequestConfig(RequestConfig.copy(requestConfig)
+                    .setStaleConnectionCheckEnabled(true)
+                    .build());
+            return true;
+        }
+        return super.retryRequest(exception, executionCount, context);
+    }
+
+    /**
+     * 按请求方法判断是否幂等，与请求配置中是否在发送前检查连接的判断一致
+     */
+    @Override
+    protected boolean handleAsIdempotent(HttpRequest request) {
+        return DefaultRetryer.isIdempotent(request.getRequestLine().getMethod());
+    }
+}
@@ -7,24 +7,21 @@ import com.dtflys.forest.backend.httpclient.HttpclientRequestProvider;
 import com.dtflys.forest.backend.url.URLBuilder;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.http.ForestResponseFactory;
-import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.Header;
 import org.apache.http.client.methods.HttpRequestBase;
-import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.backend.httpclient.request.HttpclientRequestSender;
 import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFactory;
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
 import com.dtflys.forest.handler.ResponseHandler;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
-import com.dtflys.forest.mapping.MappingTemplate;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.List;
 
 /**
  * @author gongjun
@@ -73,16 +70,13 @@ public abstract class AbstractHttpclientExecutor<T extends  HttpRequestBase> ext
     }
 
     public void prepareHeaders() {
-        ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
-        List<RequestNameValue> headerList = request.getHeaderNameValueList();
-        if (headerList != null && !headerList.isEmpty()) {
-            for (RequestNameValue nameValue : headerList) {
-                String name = nameValue.getName();
-                if (name.equals("Content-Type")) {
-                    continue;
-                }
-                httpRequest.setHeader(name, MappingTemplate.getParameterValue(jsonConverter, nameValue.getValue()));
+        NameValueArray headers = request.getHeaderArray();
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.getName(i);
+            if ("Content-Type".equalsIgnoreCase(name)) {
+                continue;
             }
+            httpRequest.addHeader(name, String.valueOf(headers.getValue(i)));
         }
     }
 
@@ -145,28 +139,18 @@ public abstract class AbstractHttpclientExecutor<T extends  HttpRequestBase> ext
 
 
     public void execute(ResponseHandler responseHandler) {
-        execute(0, responseHandler);
-    }
-
-
-    public void execute(int retryCount, ResponseHandler responseHandler) {
         Date startDate = new Date();
         long startTime = startDate.getTime();
         try {
-            logRequest(retryCount, httpRequest);
+            logRequest(0, httpRequest);
+            // 重试由请求发送器按重试器的决定进行
             requestSender.sendRequest(request, httpclientResponseHandler, httpRequest);
         } catch (IOException e) {
-            if (retryCount >= request.getRetryCount()) {
-                httpRequest.abort();
-                ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
-                response = forestResponseFactory.createResponse(request, null);
-                logResponse(startTime, response);
-                responseHandler.handleSyncWitchException(request, response, e);
-//                throw new ForestRuntimeException(e);
-                return;
-            }
-            log.error(e.getMessage());
-            execute(retryCount + 1, responseHandler);
+            httpRequest.abort();
+            ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+            response = forestResponseFactory.createResponse(request, null);
+            logResponse(startTime, response);
+            responseHandler.handleSyncWitchException(request, response, e);
         } catch (ForestRuntimeException e) {
             httpRequest.abort();
             throw e;
@@ -4,6 +4,9 @@ import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.http.ForestRequest;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpUriRequest;
 
 
 /**
@@ -26,6 +29,24 @@ public abstract class AbstractHttpclientRequestSender implements HttpclientReque
         log.info("[Forest] " + content);
     }
 
+    protected void logRetry(int retryCount, HttpUriRequest httpRequest) {
+        if (!request.isLogEnable()) return;
+        logContent("Request: \n\t[Retry: " + retryCount + "] " + httpRequest.getRequestLine());
+    }
+
+    /**
+     * 请求体可以重复发送时才能重试
+     * @param httpRequest
+     * @return
+     */
+    protected static boolean isRepeatable(HttpUriRequest httpRequest) {
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+        return true;
+    }
+
 
 
 }
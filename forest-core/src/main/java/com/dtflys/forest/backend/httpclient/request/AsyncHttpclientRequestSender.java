@@ -3,16 +3,25 @@ package com.dtflys.forest.backend.httpclient.request;
 import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFactory;
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.http.ForestFuture;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 
 import java.io.IOException;
-import java.util.concurrent.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -20,6 +29,8 @@ import java.util.concurrent.*;
  */
 public class AsyncHttpclientRequestSender extends AbstractHttpclientRequestSender {
 
+    private static Log log = LogFactory.getLog(AsyncHttpclientRequestSender.class);
+
 
     public AsyncHttpclientRequestSender(HttpclientConnectionManager connectionManager, ForestRequest request) {
         super(connectionManager, request);
@@ -27,42 +38,104 @@ public class AsyncHttpclientRequestSender extends AbstractHttpclientRequestSende
 
     @Override
     public void sendRequest(final ForestRequest request, final HttpclientResponseHandler responseHandler, final HttpUriRequest httpRequest) throws IOException {
-        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient(request);
-        client.start();
+        final ForestFuture<Object> future = new ForestFuture<Object>(request);
+        sendRequest(request, responseHandler, httpRequest, 0, future);
+        responseHandler.handleFuture(future);
+    }
+
+    private void sendRequest(final ForestRequest request, final HttpclientResponseHandler responseHandler, final HttpUriRequest httpRequest,
+                             final int retryCount, final ForestFuture<Object> future) {
+        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient();
+        final HttpClientContext context = connectionManager.createContext(request);
         final ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+        if (retryCount > 0) {
+            logRetry(retryCount, httpRequest);
+        }
 
-        final Future<HttpResponse> future = client.execute(httpRequest, new FutureCallback<HttpResponse>() {
+        final Future<HttpResponse> httpFuture = client.execute(httpRequest, context, new FutureCallback<HttpResponse>() {
             public void completed(final HttpResponse httpResponse) {
-                ForestResponse response = forestResponseFactory.createResponse(request, httpResponse);
-                if (response.isSuccess()) {
-                    if (request.getOnSuccess() != null) {
-                        responseHandler.handleSuccess(response);
+                // 回调运行在共享的 I/O 线程上，回调中抛出的异常不能传播出去，否则会终止整个 I/O reactor
+                try {
+                    ForestResponse response = forestResponseFactory.createResponse(request, httpResponse);
+                    StatusLine statusLine = httpResponse.getStatusLine();
+                    if (!response.isSuccess() && !future.isCancelled()
+                            && scheduleRetry(request, responseHandler, httpRequest, retryCount, future, response,
+                                    new ForestNetworkException(statusLine.getReasonPhrase(), statusLine.getStatusCode(), response))) {
+                        response.close();
+                        return;
                     }
-                } else {
-                    responseHandler.handleError(response);
+                    responseHandler.handleFutureResponse(
+                            future, response, statusLine.getStatusCode(), statusLine.getReasonPhrase());
+                } catch (Throwable th) {
+                    log.error("[Forest] Failed to handle the response of async request", th);
+                    future.completeExceptionally(th);
                 }
             }
 
             public void failed(final Exception ex) {
-                ForestResponse response = forestResponseFactory.createResponse(request, null);
-                responseHandler.handleError(response, ex);
-                synchronized (client) {
-                    try {
-                        client.close();
-                    } catch (IOException e) {
+                try {
+                    if (!future.isCancelled()
+                            && scheduleRetry(request, responseHandler, httpRequest, retryCount, future, null, ex)) {
+                        return;
                     }
+                    ForestResponse response = forestResponseFactory.createResponse(request, null);
+                    responseHandler.handleFutureFailure(future, response, ex);
+                } catch (Throwable th) {
+                    log.error("[Forest] Failed to handle the failure of async request", th);
+                    future.completeExceptionally(ex);
                 }
             }
 
             public void cancelled() {
-                synchronized (client) {
-                    try {
-                        client.close();
-                    } catch (IOException e) {
-                    }
+                // 由httpclient取消（如连接池关闭）不计入调用方取消的请求数，isCancelled()同样返回true
+                future.completeExceptionally(new CancellationException("Request has been cancelled by HttpClient"));
+            }
+        });
+        // 取消Future时取消httpclient的请求，I/O reactor随后关闭连接，不再交给回调
+        future.setCanceller(new Runnable() {
+            @Override
+            public void run() {
+                httpFuture.cancel(true);
+                if (httpRequest instanceof HttpRequestBase) {
+                    ((HttpRequestBase) httpRequest).abort();
                 }
             }
         });
-        responseHandler.handleFuture(future, forestResponseFactory);
+    }
+
+    /**
+     * 按重试器给出的等待时间在共享的定时器中安排重试，等待期间不占用 I/O 线程
+     * @return 安排了重试时返回true
+     */
+    private boolean scheduleRetry(final ForestRequest request, final HttpclientResponseHandler responseHandler, final HttpUriRequest httpRequest,
+                                  final int retryCount, final ForestFuture<Object> future, ForestResponse response, Throwable cause) {
+        if (!isRepeatable(httpRequest)) {
+            return false;
+        }
+        long delay = request.nextRetryDelay(retryCount, response, cause);
+        if (delay < 0) {
+            return false;
+        }
+        final ScheduledFuture<?> scheduledRetry = request.getConfiguration().getRetryScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    sendRequest(request, responseHandler, httpRequest, retryCount + 1, future);
+                } catch (Throwable th) {
+                    future.completeExceptionally(th);
+                }
+            }
+        }, delay);
+        // 等待重试期间取消Future时，直接取消定时器中的重试
+        future.setCanceller(new Runnable() {
+            @Override
+            public void run() {
+                scheduledRetry.cancel(false);
+            }
+        });
+        return true;
     }
 }
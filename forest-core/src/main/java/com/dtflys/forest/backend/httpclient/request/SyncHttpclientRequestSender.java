@@ -3,11 +3,14 @@ package com.dtflys.forest.backend.httpclient.request;
 import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
 import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFactory;
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
+import com.dtflys.forest.exceptions.ForestNetworkException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
+import com.dtflys.forest.retryer.RetryScheduler;
 import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.cookie.*;
@@ -30,7 +33,7 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
     }
 
     protected HttpClient getHttpClient() {
-        HttpClient client = connectionManager.getHttpClient(request);
+        HttpClient client = connectionManager.getHttpClient();
         setupHttpClient(client);
         return client;
     }
@@ -59,7 +62,7 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
     public static void logResponse(ForestRequest request, ForestResponse response) {
         if (!request.isLogEnable()) return;
         logContent("Response: Status=" + response.getStatusCode());
-        if (response.isSuccess()) {
+        if (response.isSuccess() && response.isContentAvailable()) {
             logContent("Response: Content=" + response.getContent());
         }
     }
@@ -68,16 +71,42 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
     @Override
     public void sendRequest(ForestRequest request, HttpclientResponseHandler responseHandler, HttpUriRequest httpRequest)
             throws IOException {
+        sendRequest(request, responseHandler, httpRequest, 0);
+    }
+
+    private void sendRequest(ForestRequest request, HttpclientResponseHandler responseHandler, HttpUriRequest httpRequest, int retryCount)
+            throws IOException {
         HttpResponse httpResponse = null;
         ForestResponse response = null;
+        if (retryCount > 0) {
+            logRetry(retryCount, httpRequest);
+        }
         client = getHttpClient();
         try {
-            httpResponse = client.execute(httpRequest);
-            ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
-            response = forestResponseFactory.createResponse(request, httpResponse);
-            logResponse(request, response);
-        } finally {
-            connectionManager.afterConnect();
+            httpResponse = client.execute(httpRequest, connectionManager.createContext(request));
+        } catch (IOException e) {
+            long delay = isRepeatable(httpRequest) ? request.nextRetryDelay(retryCount, null, e) : -1;
+            if (delay < 0) {
+                throw e;
+            }
+            RetryScheduler.sleep(delay);
+            sendRequest(request, responseHandler, httpRequest, retryCount + 1);
+            return;
+        }
+        ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
+        response = forestResponseFactory.createResponse(request, httpResponse);
+        if (!response.isSuccess() && isRepeatable(httpRequest)) {
+            StatusLine statusLine = httpResponse.getStatusLine();
+            long delay = request.nextRetryDelay(retryCount, response,
+                    new ForestNetworkException(statusLine.getReasonPhrase(), statusLine.getStatusCode(), response));
+            if (delay >= 0) {
+                logResponse(request, response);
+                // 丢弃错误响应的响应体，连接归还连接池后再重试
+                response.close();
+                RetryScheduler.sleep(delay);
+                sendRequest(request, responseHandler, httpRequest, retryCount + 1);
+                return;
+            }
         }
         try {
 
@@ -89,6 +118,11 @@ public class SyncHttpclientRequestSender extends AbstractHttpclientRequestSender
             else {
                 throw new ForestRuntimeException(ex);
             }
+        } finally {
+            // 处理结束后再记录响应，只记录已经读取的内容，不为日志读取响应体
+            logResponse(request, response);
+            // 结果不需要的响应体直接丢弃，连接尽早归还连接池
+            response.close();
         }
     }
 
@@ -6,6 +6,7 @@ import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
@@ -13,6 +14,8 @@ import com.dtflys.forest.backend.httpclient.response.HttpclientForestResponseFac
 import com.dtflys.forest.backend.httpclient.response.HttpclientResponseHandler;
 
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
@@ -39,56 +42,61 @@ public class SyncHttpclientRequestSender2 extends AbstractHttpclientRequestSende
 
     @Override
     public void sendRequest(final ForestRequest request, final HttpclientResponseHandler responseHandler, final HttpUriRequest httpRequest) throws IOException {
-        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient(request);
-        client.start();
+        final CloseableHttpAsyncClient client = connectionManager.getHttpAsyncClient();
+        final HttpClientContext context = connectionManager.createContext(request);
         final AtomicReference<ForestResponse> forestResponseRef = new AtomicReference<>();
         final AtomicReference<Exception> exceptionRef = new AtomicReference<>();
         final ForestResponseFactory forestResponseFactory = new HttpclientForestResponseFactory();
-        try {
-            Future<HttpResponse> future = client.execute(httpRequest, new FutureCallback<HttpResponse>() {
-                public void completed(final HttpResponse httpResponse) {
-                    ForestResponse response = forestResponseFactory.createResponse(request, httpResponse);
-                    forestResponseRef.set(response);
-                }
+        // 回调完成时唤醒等待的线程；httpclient的Future在synchronized中等待，会占住虚拟线程的载体线程
+        final CompletableFuture<HttpResponse> done = new CompletableFuture<>();
+        Future<HttpResponse> future = client.execute(httpRequest, context, new FutureCallback<HttpResponse>() {
+            public void completed(final HttpResponse httpResponse) {
+                ForestResponse response = forestResponseFactory.createResponse(request, httpResponse);
+                forestResponseRef.set(response);
+                done.complete(httpResponse);
+            }
 
-                public void failed(final Exception ex) {
-                    ForestResponse response = forestResponseFactory.createResponse(request, null);
-                    forestResponseRef.set(response);
-                    exceptionRef.set(ex);
-                }
+            public void failed(final Exception ex) {
+                ForestResponse response = forestResponseFactory.createResponse(request, null);
+                forestResponseRef.set(response);
+                exceptionRef.set(ex);
+                done.complete(null);
+            }
 
-                public void cancelled() {
-                }
-            });
-            HttpResponse httpResponse = null;
+            public void cancelled() {
+                done.cancel(false);
+            }
+        });
+        HttpResponse httpResponse = null;
 
+        try {
+            httpResponse = done.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ForestRuntimeException(e);
+        } catch (ExecutionException | CancellationException e) {
+            throw new ForestRuntimeException(e);
+        }
+        ForestResponse response = forestResponseRef.get();
+        if (response.isSuccess()) {
+            logResponse(request, response);
             try {
-                httpResponse = future.get();
-            } catch (InterruptedException e) {
-            } catch (ExecutionException e) {
-            }
-            ForestResponse response = forestResponseRef.get();
-            if (response.isSuccess()) {
-                logResponse(request, response);
-                try {
-                    responseHandler.handleSync(httpResponse, response);
-                } catch (Exception ex) {
-                    if (ex instanceof ForestRuntimeException) {
-                        throw ex;
-                    } else {
-                        throw new ForestRuntimeException(ex);
-                    }
-                }
-            } else {
-                Exception ex = exceptionRef.get();
-                if (ex == null) {
-                    responseHandler.handleError(response);
+                responseHandler.handleSync(httpResponse, response);
+            } catch (Exception ex) {
+                if (ex instanceof ForestRuntimeException) {
+                    throw ex;
                 } else {
-                    responseHandler.handleError(response, ex);
+                    throw new ForestRuntimeException(ex);
                 }
             }
-        } finally {
-            client.close();
+        } else {
+            Exception ex = exceptionRef.get();
+            if (ex == null) {
+                responseHandler.handleError(response);
+            } else {
+                responseHandler.handleError(response, ex);
+            }
         }
 /*
         if (failed.get()) {
@@ -2,12 +2,15 @@ package com.dtflys.forest.backend.httpclient.response;
 
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.URLUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -24,12 +27,46 @@ public class HttpclientForestResponse extends ForestResponse {
         this.httpResponse = httpResponse;
         this.entity = httpResponse.getEntity();
         this.statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (entity != null) {
+            this.contentCharset = URLUtils.getCharset(request.getResponseEncode());
+            this.declaredCharset = getDeclaredCharset(entity);
+            if (isError()) {
+                // 错误响应会交给onError和异常，可能在连接释放后才被读取，立即读取
+                getContentBytes();
+            }
+        }
+    }
+
+    private static Charset getDeclaredCharset(HttpEntity entity) {
+        try {
+            ContentType contentType = ContentType.get(entity);
+            return contentType != null ? contentType.getCharset() : null;
+        } catch (RuntimeException e) {
+            // Content-Type格式错误或字符集不支持时视为没有声明
+            return null;
+        }
     }
 
     public HttpResponse getHttpResponse() {
         return httpResponse;
     }
 
+    @Override
+    protected byte[] readContentBytes() throws IOException {
+        return entity != null ? EntityUtils.toByteArray(entity) : null;
+    }
+
+    @Override
+    protected InputStream openContentStream() throws IOException {
+        return entity != null ? entity.getContent() : null;
+    }
+
+    @Override
+    protected void discardContent() throws IOException {
+        // 读完剩余内容而不是直接关闭，连接可以归还连接池
+        EntityUtils.consume(entity);
+    }
+
     @Override
     public boolean isReceivedResponseData() {
         return entity != null;
@@ -37,11 +74,11 @@ public class HttpclientForestResponse extends ForestResponse {
 
     @Override
     public byte[] getReceivedDataAsByteArray() throws IOException {
-        return EntityUtils.toByteArray(entity);
+        return getContentBytes();
     }
 
     @Override
     public InputStream getReceivedDataAsInputStream() throws IOException {
-        return entity.getContent();
+        return getContentStream();
     }
 }
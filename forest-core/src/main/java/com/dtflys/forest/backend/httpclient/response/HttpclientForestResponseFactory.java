@@ -1,18 +1,14 @@
 package com.dtflys.forest.backend.httpclient.response;
 
-import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.http.ForestResponseFactory;
-import org.apache.commons.io.IOUtils;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -20,24 +16,17 @@ import java.io.InputStream;
  */
 public class HttpclientForestResponseFactory implements ForestResponseFactory<HttpResponse> {
 
-    private String responseContent;
-
-    private volatile ForestResponse resultResponse;
-
-
-    private String getString(String encode, HttpEntity entity) throws IOException {
-        if (responseContent == null) {
-            InputStream inputStream = entity.getContent();
-            responseContent = IOUtils.toString(inputStream, encode);
-        }
-        return responseContent;
-    }
+    /**
+     * 同一个请求只创建一个响应对象，不使用synchronized，避免在虚拟线程中占住载体线程
+     */
+    private final AtomicReference<ForestResponse> resultResponse = new AtomicReference<>();
 
 
     @Override
-    public synchronized ForestResponse createResponse(ForestRequest request, HttpResponse httpResponse) {
-        if (resultResponse != null) {
-            return resultResponse;
+    public ForestResponse createResponse(ForestRequest request, HttpResponse httpResponse) {
+        ForestResponse existResponse = resultResponse.get();
+        if (existResponse != null) {
+            return existResponse;
         }
         if (httpResponse == null) {
             httpResponse = new BasicHttpResponse(
@@ -48,16 +37,9 @@ public class HttpclientForestResponseFactory implements ForestResponseFactory<Ht
 //        int statusCode = httpResponse.getStatusLine().getStatusCode();
 //        response.setStatusCode(statusCode);
 //        httpResponse.getAllHeaders();
-        HttpEntity entity = response.getHttpResponse().getEntity();
-        if (entity != null) {
-            try {
-                String responseText = getString(request.getResponseEncode(), entity);
-                response.setContent(responseText);
-            } catch (IOException e) {
-                throw new ForestRuntimeException(e);
-            }
+        if (!resultResponse.compareAndSet(null, response)) {
+            return resultResponse.get();
         }
-        this.resultResponse = response;
         return response;
     }
 
@@ -1,20 +1,23 @@
 package com.dtflys.forest.backend.okhttp3.body;
 
 import com.dtflys.forest.backend.body.AbstractBodyBuilder;
+import com.dtflys.forest.backend.body.BodyWriter;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.mapping.MappingTemplate;
-import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
 import okhttp3.FormBody;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.internal.Util;
+import okio.Buffer;
+import okio.BufferedSink;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.List;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -26,7 +29,27 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
     protected abstract void setBody(Request.Builder builder, RequestBody body);
     @Override
     protected void setStringBody(Request.Builder builder, String text, String charset, String contentType) {
-        MediaType mediaType = MediaType.parse(contentType);
+        byte[] bytes = text.getBytes(getCharset(charset));
+        setBody(builder, RequestBody.create(getMediaType(charset, contentType), bytes));
+    }
+
+    @Override
+    protected void setByteBody(Request.Builder builder, byte[] bytes, String charset, String contentType) {
+        setBody(builder, RequestBody.create(getMediaType(charset, contentType), bytes));
+    }
+
+    @Override
+    protected void setStreamingBody(Request.Builder builder, BodyWriter writer, String charset, String contentType) {
+        Buffer buffer = new Buffer();
+        try {
+            writer.writeTo(buffer.outputStream(), charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        setBody(builder, new BufferRequestBody(getMediaType(charset, contentType), buffer));
+    }
+
+    private Charset getCharset(String charset) {
         Charset cs = Util.UTF_8;
         if (StringUtils.isNotEmpty(charset)) {
             try {
@@ -35,6 +58,11 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
                 throw new ForestRuntimeException("[Forest] '" + charset + "' is not a valid charset", th);
             }
         }
+        return cs;
+    }
+
+    private MediaType getMediaType(String charset, String contentType) {
+        MediaType mediaType = MediaType.parse(contentType);
         if (contentType != null) {
             Charset mtcs = mediaType.charset();
             if (mtcs == null) {
@@ -43,21 +71,16 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
                 }
             }
         }
-        byte[] bytes = text.getBytes(cs);
-
-        RequestBody body = RequestBody.create(mediaType, bytes);
-        setBody(builder, body);
+        return mediaType;
     }
 
     @Override
-    protected void setFormData(Request.Builder builder, ForestRequest request, String charset, String contentType, List<RequestNameValue> nameValueList) {
+    protected void setFormData(Request.Builder builder, ForestRequest request, String charset, String contentType, NameValueArray nameValueList) {
         FormBody.Builder bodyBuilder = new FormBody.Builder();
         ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
         for (int i = 0; i < nameValueList.size(); i++) {
-            RequestNameValue nameValue = nameValueList.get(i);
-            if (nameValue.isInQuery()) continue;
-            String name = nameValue.getName();
-            Object value = nameValue.getValue();
+            String name = nameValueList.getName(i);
+            Object value = nameValueList.getValue(i);
             bodyBuilder.addEncoded(name, MappingTemplate.getParameterValue(jsonConverter, value));
         }
 
@@ -66,4 +89,36 @@ public abstract class AbstractOkHttp3BodyBuilder extends AbstractBodyBuilder<Req
     }
 
 
+    /**
+     * 以已写入的缓冲区作为请求体，长度已知，发送时共享缓冲区的分段而不复制字节，
+     * 可以被重复发送
+     */
+    private static class BufferRequestBody extends RequestBody {
+
+        private final MediaType mediaType;
+
+        private final Buffer buffer;
+
+        BufferRequestBody(MediaType mediaType, Buffer buffer) {
+            this.mediaType = mediaType;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.size();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            buffer.copyTo(sink.buffer(), 0, buffer.size());
+            sink.emitCompleteSegments();
+        }
+    }
+
 }
@@ -6,12 +6,16 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.ssl.*;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 import java.security.KeyStore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -25,6 +29,21 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
      */
     private ConnectionPool pool;
 
+    /**
+     * root client, owns the dispatcher and the connection pool shared by all requests
+     */
+    private volatile OkHttpClient rootClient;
+
+    /**
+     * executor of the root client's dispatcher, shut down on re-init and close
+     */
+    private ExecutorService dispatcherExecutor;
+
+    /**
+     * clients derived from the root client, keyed by timeout, protocol and SSL keystore
+     */
+    private final ConcurrentMap<ClientKey, OkHttpClient> clientCache = new ConcurrentHashMap<>();
+
     public OkHttp3ConnectionManager() {
     }
 
@@ -57,13 +76,34 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
         if (timeout == null) {
             timeout = request.getConfiguration().getTimeout();
         }
+        boolean https = "https".equals(request.getProtocol());
+        SSLKeyStore sslKeyStore = https ? request.getKeyStore() : null;
+        ClientKey key = new ClientKey(timeout, https, sslKeyStore == null ? null : sslKeyStore.getId());
+        OkHttpClient client = clientCache.get(key);
+        if (client != null) {
+            return client;
+        }
+        client = createClient(request, timeout, https);
+        OkHttpClient existClient = clientCache.putIfAbsent(key, client);
+        if (existClient != null) {
+            return existClient;
+        }
+        return client;
+    }
 
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .connectionPool(pool)
+    /**
+     * 从根客户端派生出新的客户端，派生的客户端与根客户端共享Dispatcher、线程池以及连接池
+     * @param request
+     * @param timeout
+     * @param https
+     * @return
+     */
+    private OkHttpClient createClient(ForestRequest request, int timeout, boolean https) {
+        OkHttpClient.Builder builder = getRootClient(request.getConfiguration()).newBuilder()
                 .connectTimeout(timeout, TimeUnit.MILLISECONDS)
                 .readTimeout(timeout, TimeUnit.MILLISECONDS);
 
-        if ("https".equals(request.getProtocol())) {
+        if (https) {
             SSLSocketFactory sslSocketFactory = SSLUtils.getSSLSocketFactory(request);
 
             builder
@@ -74,8 +114,90 @@ public class OkHttp3ConnectionManager implements ForestConnectionManager {
         return builder.build();
     }
 
+    private OkHttpClient getRootClient(ForestConfiguration configuration) {
+        if (rootClient == null) {
+            synchronized (this) {
+                if (rootClient == null) {
+                    init(configuration);
+                }
+            }
+        }
+        return rootClient;
+    }
+
     @Override
-    public void init(ForestConfiguration configuration) {
+    public synchronized void init(ForestConfiguration configuration) {
+        close();
         pool = new ConnectionPool();
+        ExecutorService executorService = configuration.getExecutorProvider().newBackendExecutor("forest-okhttp3");
+        Dispatcher dispatcher = executorService != null ? new Dispatcher(executorService) : new Dispatcher();
+        Integer maxConnections = configuration.getMaxConnections();
+        if (maxConnections != null && maxConnections > 0) {
+            dispatcher.setMaxRequests(maxConnections);
+        }
+        Integer maxRouteConnections = configuration.getMaxRouteConnections();
+        if (maxRouteConnections != null && maxRouteConnections > 0) {
+            dispatcher.setMaxRequestsPerHost(maxRouteConnections);
+        }
+        dispatcherExecutor = dispatcher.executorService();
+        rootClient = new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .dispatcher(dispatcher)
+                .build();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dispatcherExecutor != null) {
+            dispatcherExecutor.shutdown();
+            dispatcherExecutor = null;
+        }
+        if (rootClient != null) {
+            rootClient.connectionPool().evictAll();
+            rootClient = null;
+        }
+        clientCache.clear();
+    }
+
+
+    /**
+     * 派生客户端的缓存键
+     */
+    private static class ClientKey {
+
+        private final int timeout;
+
+        private final boolean https;
+
+        private final String keyStoreId;
+
+        ClientKey(int timeout, boolean https, String keyStoreId) {
+            this.timeout = timeout;
+            this.https = https;
+            this.keyStoreId = keyStoreId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey other = (ClientKey) o;
+            if (timeout != other.timeout || https != other.https) {
+                return false;
+            }
+            return keyStoreId == null ? other.keyStoreId == null : keyStoreId.equals(other.keyStoreId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = timeout;
+            result = 31 * result + (https ? 1 : 0);
+            result = 31 * result + (keyStoreId != null ? keyStoreId.hashCode() : 0);
+            return result;
+        }
     }
 }
@@ -3,19 +3,18 @@ package com.dtflys.forest.backend.okhttp3.executor;
 import com.dtflys.forest.backend.BodyBuilder;
 import com.dtflys.forest.backend.HttpExecutor;
 import com.dtflys.forest.backend.url.URLBuilder;
+import com.dtflys.forest.exceptions.ForestNetworkException;
+import com.dtflys.forest.http.ForestFuture;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
-import com.dtflys.forest.utils.RequestNameValue;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.utils.StringUtils;
 import okhttp3.*;
 import com.dtflys.forest.backend.okhttp3.conn.OkHttp3ConnectionManager;
 import com.dtflys.forest.backend.okhttp3.response.OkHttp3ForestResponseFactory;
-import com.dtflys.forest.backend.okhttp3.response.OkHttp3ResponseFuture;
 import com.dtflys.forest.backend.okhttp3.response.OkHttp3ResponseHandler;
-import com.dtflys.forest.converter.json.ForestJsonConverter;
-import com.dtflys.forest.exceptions.ForestNetworkException;
 import com.dtflys.forest.handler.ResponseHandler;
-import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.retryer.RetryScheduler;
 import okio.BufferedSink;
 import okio.Okio;
 import okio.Sink;
@@ -24,7 +23,7 @@ import org.apache.commons.logging.LogFactory;
 
 import java.io.*;
 import java.util.Date;
-import java.util.List;
+import java.util.concurrent.ScheduledFuture;
 
 
 /**
@@ -150,13 +149,10 @@ public abstract class AbstractOkHttp3Executor implements HttpExecutor {
     }
 
     protected void prepareHeaders(Request.Builder builder) {
-        ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
-        List<RequestNameValue> headerList = request.getHeaderNameValueList();
+        NameValueArray headers = request.getHeaderArray();
         String encode = request.getEncode();
-        if (headerList != null && !headerList.isEmpty()) {
-            for (RequestNameValue nameValue : headerList) {
-                builder.addHeader(nameValue.getName(), MappingTemplate.getParameterValue(jsonConverter, nameValue.getValue()));
-            }
+        for (int i = 0; i < headers.size(); i++) {
+            builder.addHeader(headers.getName(i), String.valueOf(headers.getValue(i)));
         }
         if (StringUtils.isNotEmpty(encode)) {
             builder.addHeader("Content-Encoding", encode);
@@ -172,6 +168,10 @@ public abstract class AbstractOkHttp3Executor implements HttpExecutor {
     }
 
     public void execute(final ResponseHandler responseHandler, int retryCount) {
+        execute(responseHandler, retryCount, null);
+    }
+
+    private void execute(final ResponseHandler responseHandler, final int retryCount, ForestFuture<Object> asyncFuture) {
         OkHttpClient okHttpClient = getClient(request);
         URLBuilder urlBuilder = getURLBuilder();
         String url = urlBuilder.buildUrl(request);
@@ -180,65 +180,119 @@ public abstract class AbstractOkHttp3Executor implements HttpExecutor {
         requestMethod(builder);
 
         final Request okRequest = builder.build();
-        Call call = okHttpClient.newCall(okRequest);
+        final Call call = okHttpClient.newCall(okRequest);
         final OkHttp3ForestResponseFactory factory = new OkHttp3ForestResponseFactory();
-        logRequest(0, okRequest);
+        logRequest(retryCount, okRequest);
         Date startDate = new Date();
-        long startTime = startDate.getTime();
+        final long startTime = startDate.getTime();
         if (request.isAsync()) {
-            final OkHttp3ResponseFuture future = new OkHttp3ResponseFuture();
+            // 重试时沿用第一次请求创建的Future
+            final ForestFuture<Object> future = asyncFuture != null ? asyncFuture : new ForestFuture<Object>(request);
+            // 取消Future时取消Call，OkHttp会关闭连接并以IOException结束回调
+            future.setCanceller(new Runnable() {
+                @Override
+                public void run() {
+                    call.cancel();
+                }
+            });
             call.enqueue(new Callback() {
                 @Override
                 public void onFailure(Call call, IOException e) {
-                    future.failed(e);
                     ForestResponse response = factory.createResponse(request, null);
                     logResponse(startTime, response);
-                    responseHandler.handleError(request, response, e);
+                    if (!future.isCancelled() && scheduleRetry(responseHandler, retryCount, future, null, e)) {
+                        return;
+                    }
+                    okHttp3ResponseHandler.handleFutureFailure(future, response, e);
                 }
 
                 @Override
                 public void onResponse(Call call, Response okResponse) throws IOException {
                     ForestResponse response = factory.createResponse(request, okResponse);
                     logResponse(startTime, response);
-                    Object result = null;
-                    if (response.isSuccess()) {
-                        if (request.getOnSuccess() != null) {
-                            result = okHttp3ResponseHandler.handleSuccess(response);
-                        }
-                        else {
-                            result = okHttp3ResponseHandler.handleSync(okResponse, response);
-                        }
-                        future.completed(result);
-                    } else {
-                        if (retryCount > request.getRetryCount()) {
-                            future.failed(new ForestNetworkException(okResponse.message(), okResponse.code(), response));
-                            okHttp3ResponseHandler.handleError(response);
-                            return;
-                        }
-                        execute(responseHandler, retryCount + 1);
+                    if (!response.isSuccess() && !future.isCancelled()
+                            && scheduleRetry(responseHandler, retryCount, future, response,
+                                    new ForestNetworkException(okResponse.message(), okResponse.code(), response))) {
+                        response.close();
+                        return;
                     }
+                    // 响应处理完成后关闭响应，连接尽早归还连接池
+                    okHttp3ResponseHandler.handleFutureResponse(future, response, okResponse.code(), okResponse.message());
                 }
             });
-            okHttp3ResponseHandler.handleFuture(future, factory);
+            if (asyncFuture == null) {
+                okHttp3ResponseHandler.handleFuture(future);
+            }
         }
         else {
             Response okResponse = null;
             try {
                 okResponse = call.execute();
             } catch (IOException e) {
-                if (retryCount >= request.getRetryCount()) {
-                    ForestResponse response = factory.createResponse(request, null);
-                    logResponse(startTime, response);
-                    responseHandler.handleError(request, response, e);
+                long delay = request.nextRetryDelay(retryCount, null, e);
+                if (delay >= 0) {
+                    RetryScheduler.sleep(delay);
+                    execute(responseHandler, retryCount + 1);
                     return;
                 }
-                execute(responseHandler, retryCount + 1);
+                ForestResponse response = factory.createResponse(request, null);
+                logResponse(startTime, response);
+                responseHandler.handleError(request, response, e);
+                return;
             }
             ForestResponse response = factory.createResponse(request, okResponse);
-            okHttp3ResponseHandler.handleSync(okResponse, response);
+            if (!response.isSuccess()) {
+                long delay = request.nextRetryDelay(retryCount, response,
+                        new ForestNetworkException(okResponse.message(), okResponse.code(), response));
+                if (delay >= 0) {
+                    response.close();
+                    RetryScheduler.sleep(delay);
+                    execute(responseHandler, retryCount + 1);
+                    return;
+                }
+            }
+            try {
+                okHttp3ResponseHandler.handleSync(okResponse, response);
+            } finally {
+                // 结果不需要的响应体直接丢弃，连接尽早归还连接池
+                response.close();
+            }
         }
     }
 
+    /**
+     * 按重试器给出的等待时间在共享的定时器中安排重试，等待期间不占用线程
+     * @return 安排了重试时返回true
+     */
+    private boolean scheduleRetry(final ResponseHandler responseHandler, final int retryCount,
+                                  final ForestFuture<Object> future, ForestResponse response, Throwable cause) {
+        long delay = request.nextRetryDelay(retryCount, response, cause);
+        if (delay < 0) {
+            return false;
+        }
+        final ScheduledFuture<?> scheduledRetry = request.getConfiguration().getRetryScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    execute(responseHandler, retryCount + 1, future);
+                } catch (Throwable th) {
+                    future.completeExceptionally(th);
+                }
+            }
+        }, delay);
+        // 等待重试期间取消Future时，直接取消定时器中的重试
+        future.setCanceller(new Runnable() {
+            @Override
+            public void run() {
+                scheduledRetry.cancel(false);
+            }
+        });
+        return true;
+    }
+
 
     @Override
     public void execute(final ResponseHandler responseHandler) {
@@ -1,10 +1,11 @@
 package com.dtflys.forest.backend.okhttp3.response;
 
-import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
+import okhttp3.MediaType;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okhttp3.internal.Util;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -26,10 +27,12 @@ public class OkHttp3ForestResponse extends ForestResponse {
             this.body = okResponse.body();
             this.statusCode = okResponse.code();
             if (body != null) {
-                try {
-                    this.content = body.string();
-                } catch (IOException e) {
-                    throw new ForestRuntimeException(e);
+                MediaType mediaType = body.contentType();
+                this.declaredCharset = mediaType != null ? mediaType.charset() : null;
+                this.contentCharset = declaredCharset != null ? declaredCharset : Util.UTF_8;
+                if (isError()) {
+                    // 错误响应会交给onError和异常，可能在连接释放后才被读取，立即读取
+                    getContentBytes();
                 }
             }
         } else {
@@ -38,6 +41,23 @@ public class OkHttp3ForestResponse extends ForestResponse {
         }
     }
 
+    @Override
+    protected byte[] readContentBytes() throws IOException {
+        return body != null ? body.bytes() : null;
+    }
+
+    @Override
+    protected InputStream openContentStream() throws IOException {
+        return body != null ? body.byteStream() : null;
+    }
+
+    @Override
+    protected void discardContent() throws IOException {
+        if (body != null) {
+            body.close();
+        }
+    }
+
     @Override
     public boolean isReceivedResponseData() {
         return body != null;
@@ -45,11 +65,11 @@ public class OkHttp3ForestResponse extends ForestResponse {
 
     @Override
     public byte[] getReceivedDataAsByteArray() throws Exception {
-        return body.bytes();
+        return getContentBytes();
     }
 
     @Override
     public InputStream getReceivedDataAsInputStream() throws Exception {
-        return body.byteStream();
+        return getContentStream();
     }
 }
@@ -2,13 +2,12 @@ package com.dtflys.forest.backend.url;
 
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.NameValueArray;
 import com.dtflys.forest.mapping.MappingTemplate;
-import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
+import com.dtflys.forest.utils.URLUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.util.List;
+import java.nio.charset.Charset;
 
 /**
  * 带查询参数的URL构造器
@@ -20,33 +19,26 @@ public class QueryableURLBuilder extends URLBuilder {
     @Override
     public String buildUrl(ForestRequest request) {
         String url = request.getUrl();
-        List<RequestNameValue> data = request.getDataNameValueList();
-        StringBuilder paramBuilder = new StringBuilder();
+        NameValueArray data = request.getDataArray();
+        if (data.isEmpty()) {
+            return url;
+        }
+        StringBuilder builder = new StringBuilder(url.length() + data.size() * 16);
+        builder.append(url).append('?');
         ForestJsonConverter jsonConverter = request.getConfiguration().getJsonConverter();
+        Charset charset = URLUtils.getCharset(request.getEncode());
         for (int i = 0; i < data.size(); i++) {
-            RequestNameValue nameValue = data.get(i);
-            paramBuilder.append(nameValue.getName());
-            String value = MappingTemplate.getParameterValue(jsonConverter, nameValue.getValue());
-            paramBuilder.append('=');
-            if (StringUtils.isNotEmpty(value)) {
-                String encodedValue = null;
-                try {
-                    encodedValue = URLEncoder.encode(value, request.getEncode());
-                } catch (UnsupportedEncodingException e) {
-                }
-                if (encodedValue != null) {
-                    paramBuilder.append(encodedValue);
-                }
+            if (i > 0) {
+                builder.append('&');
             }
-            if (i < data.size() - 1) {
-                paramBuilder.append('&');
+            builder.append(data.getName(i));
+            String value = MappingTemplate.getParameterValue(jsonConverter, data.getValue(i));
+            builder.append('=');
+            if (StringUtils.isNotEmpty(value)) {
+                URLUtils.appendEncoded(builder, value, charset);
             }
         }
-        String query = paramBuilder.toString();
-        if (StringUtils.isNotEmpty(query)) {
-            return url + "?" + query;
-        }
-        return url;
+        return builder.toString();
     }
 
 }
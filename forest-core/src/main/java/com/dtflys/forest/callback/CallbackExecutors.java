@@ -0,0 +1,52 @@
+package com.dtflys.forest.callback;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步请求回调执行器的工具类
+ * <p>异步请求的结果解码、拦截器以及OnSuccess/OnError回调都在回调执行器中执行，
+ * 默认使用由 {@link com.dtflys.forest.executor.ForestExecutorProvider} 创建的独立执行器，避免耗时的回调阻塞后端的IO线程；
+ * 处理很轻的回调可以使用 {@link #SAME_THREAD} 直接在IO线程中执行</p>
+ */
+public final class CallbackExecutors {
+
+    /**
+     * 同线程执行模式的执行器名称，可以在 {@code @Request} 和 {@code @BaseRequest} 的callbackExecutor属性中使用
+     */
+    public final static String SAME_THREAD_NAME = "sameThread";
+
+    /**
+     * 在当前线程（即后端的IO线程）中直接执行的执行器
+     */
+    public final static Executor SAME_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public String toString() {
+            return SAME_THREAD_NAME;
+        }
+    };
+
+    private CallbackExecutors() {
+    }
+
+    /**
+     * 获取执行器中等待执行的任务数，无法获取时返回-1
+     * @param executor
+     * @return
+     */
+    public static int getQueueSize(Executor executor) {
+        if (executor == SAME_THREAD) {
+            return 0;
+        }
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return -1;
+    }
+
+}
@@ -28,6 +28,11 @@ package com.dtflys.forest.config;
 import com.dtflys.forest.interceptor.DefaultInterceptorFactory;
 import com.dtflys.forest.interceptor.InterceptorFactory;
 import com.dtflys.forest.proxy.ProxyFactory;
+import com.dtflys.forest.retryer.DefaultRetryer;
+import com.dtflys.forest.retryer.RetryBudget;
+import com.dtflys.forest.retryer.RetryScheduler;
+import com.dtflys.forest.retryer.Retryer;
+import com.dtflys.forest.ssl.SSLContextCache;
 import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.ssl.SSLUtils;
 import com.dtflys.forest.utils.ForestDataType;
@@ -35,6 +40,10 @@ import com.dtflys.forest.utils.RequestNameValue;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import com.dtflys.forest.backend.HttpBackendSelector;
+import com.dtflys.forest.callback.CallbackExecutors;
+import com.dtflys.forest.executor.ForestExecutorProvider;
+import com.dtflys.forest.executor.PlatformExecutorProvider;
+import com.dtflys.forest.executor.VirtualThreadExecutorProvider;
 import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.converter.json.JSONConverterSelector;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
@@ -44,10 +53,17 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.filter.Filter;
 import com.dtflys.forest.filter.JSONFilter;
+import com.dtflys.forest.filter.SingletonFilter;
 import com.dtflys.forest.filter.XmlFilter;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * global configuration
@@ -89,11 +105,41 @@ public class ForestConfiguration implements Serializable {
      */
     private Integer retryCount;
 
+    /**
+     * 全局的重试器，决定失败的请求是否重试以及重试前的等待时间
+     */
+    private transient Retryer retryer = new DefaultRetryer();
+
+    /**
+     * 按路由计算的重试预算
+     */
+    private final transient RetryBudget retryBudget = new RetryBudget();
+
+    /**
+     * 安排异步请求重试的调度器
+     */
+    private final transient RetryScheduler retryScheduler = new RetryScheduler();
+
     /**
      * default SSL protocol
      */
     private String sslProtocol = SSLUtils.TLSv1_2;
 
+    /**
+     * size of the SSL session cache, use the JDK default when null
+     */
+    private Integer sslSessionCacheSize;
+
+    /**
+     * timeout in seconds of cached SSL sessions, use the JDK default when null
+     */
+    private Integer sslSessionTimeout;
+
+    /**
+     * SSL contexts shared by all requests with the same keystore, created on first use
+     */
+    private transient volatile SSLContextCache sslContextCache;
+
     /**
      * Enable log forest request info
      */
@@ -104,6 +150,26 @@ public class ForestConfiguration implements Serializable {
      */
     private boolean cacheEnabled = true;
 
+    /**
+     * 异步请求的响应处理（解码、拦截器、回调）所在的执行器，为null时使用默认的回调线程池
+     */
+    private transient volatile Executor callbackExecutor;
+
+    /**
+     * 默认的回调执行器，第一次使用时由executorProvider创建
+     */
+    private transient volatile ExecutorService defaultCallbackExecutor;
+
+    /**
+     * 回调执行器以及后端异步请求线程池的提供者
+     */
+    private transient volatile ForestExecutorProvider executorProvider = new PlatformExecutorProvider();
+
+    /**
+     * 按名称注册的回调执行器，供 {@code @Request} 和 {@code @BaseRequest} 的callbackExecutor属性引用
+     */
+    private final transient ConcurrentMap<String, Executor> callbackExecutors = new ConcurrentHashMap<>();
+
     private volatile HttpBackend backend;
 
     private String backendName;
@@ -124,10 +190,30 @@ public class ForestConfiguration implements Serializable {
 
     private Map<String, Class> filterRegisterMap = new HashMap<>();
 
+    /**
+     * 被 {@link SingletonFilter} 修饰的过滤器的共享实例
+     */
+    private final ConcurrentMap<String, Filter> singletonFilterMap = new ConcurrentHashMap<>();
+
     private Map<String, Object> variables = new HashMap<String, Object>();
 
+    /**
+     * 全局变量的版本号，每次修改全局变量时递增，用于使模板中已折叠的变量值失效
+     */
+    private final AtomicInteger variablesVersion = new AtomicInteger();
+
     private Map<String, SSLKeyStore> sslKeyStores = new HashMap<>();
 
+    /**
+     * 被调用方取消的异步请求数
+     */
+    private final AtomicLong cancelledRequests = new AtomicLong();
+
+    /**
+     * 取消后才收到响应或错误、被直接丢弃的异步请求数
+     */
+    private final AtomicLong abandonedRequests = new AtomicLong();
+
     private ForestConfiguration() {
     }
 
@@ -272,6 +358,161 @@ public class ForestConfiguration implements Serializable {
         return this;
     }
 
+    public Retryer getRetryer() {
+        return retryer;
+    }
+
+    public ForestConfiguration setRetryer(Retryer retryer) {
+        this.retryer = retryer;
+        return this;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public RetryScheduler getRetryScheduler() {
+        return retryScheduler;
+    }
+
+    /**
+     * 获取异步请求的回调执行器，没有设置时返回由 {@link ForestExecutorProvider} 创建的默认执行器
+     * @return
+     */
+    public Executor getCallbackExecutor() {
+        Executor executor = callbackExecutor;
+        if (executor != null) {
+            return executor;
+        }
+        ExecutorService defaultExecutor = defaultCallbackExecutor;
+        if (defaultExecutor == null) {
+            synchronized (this) {
+                defaultExecutor = defaultCallbackExecutor;
+                if (defaultExecutor == null) {
+                    defaultExecutor = executorProvider.newCallbackExecutor("forest-callback");
+                    defaultCallbackExecutor = defaultExecutor;
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * 设置异步请求的回调执行器，异步请求的结果解码、拦截器和回调都在其中执行
+     * @param callbackExecutor 为null时使用默认的回调执行器，
+     *                         为 {@link CallbackExecutors#SAME_THREAD} 时直接在后端的IO线程中执行
+     * @return
+     */
+    public ForestConfiguration setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        return this;
+    }
+
+    public ForestExecutorProvider getExecutorProvider() {
+        return executorProvider;
+    }
+
+    /**
+     * 设置回调执行器以及后端异步请求线程池的提供者，需要在发送第一个请求之前设置；
+     * 已创建的默认回调执行器会被关闭
+     * @param executorProvider
+     * @return
+     */
+    public ForestConfiguration setExecutorProvider(ForestExecutorProvider executorProvider) {
+        if (executorProvider == null) {
+            throw new ForestRuntimeException("Executor provider can not be null");
+        }
+        ExecutorService oldExecutor;
+        synchronized (this) {
+            this.executorProvider = executorProvider;
+            oldExecutor = defaultCallbackExecutor;
+            defaultCallbackExecutor = null;
+        }
+        if (oldExecutor != null) {
+            oldExecutor.shutdown();
+        }
+        return this;
+    }
+
+    /**
+     * 关闭Forest所用的资源：后端的连接池、默认的回调执行器以及重试定时器；
+     * 通过 {@link #setCallbackExecutor(Executor)} 设置的执行器由使用者自己管理，不会被关闭。
+     * 关闭后再次发送请求时会重新创建这些资源
+     */
+    public void close() {
+        HttpBackend oldBackend;
+        ExecutorService oldExecutor;
+        synchronized (this) {
+            oldBackend = backend;
+            backend = null;
+            oldExecutor = defaultCallbackExecutor;
+            defaultCallbackExecutor = null;
+        }
+        if (oldBackend != null) {
+            oldBackend.close();
+        }
+        if (oldExecutor != null) {
+            oldExecutor.shutdown();
+        }
+        retryScheduler.shutdown();
+    }
+
+    /**
+     * 是否在虚拟线程中执行异步请求及其回调，运行环境不支持虚拟线程时为false
+     * @return
+     */
+    public boolean isVirtualThreadEnabled() {
+        return executorProvider instanceof VirtualThreadExecutorProvider && VirtualThreadExecutorProvider.isSupported();
+    }
+
+    /**
+     * 开启或关闭虚拟线程模式，需要Java 21及以上的运行环境，不支持时退化为平台线程
+     * @param virtualThreadEnabled
+     * @return
+     */
+    public ForestConfiguration setVirtualThreadEnabled(boolean virtualThreadEnabled) {
+        if (virtualThreadEnabled == executorProvider instanceof VirtualThreadExecutorProvider) {
+            return this;
+        }
+        return setExecutorProvider(virtualThreadEnabled ?
+                new VirtualThreadExecutorProvider() : new PlatformExecutorProvider());
+    }
+
+    /**
+     * 按名称注册回调执行器
+     * @param name
+     * @param executor
+     * @return
+     */
+    public ForestConfiguration registerCallbackExecutor(String name, Executor executor) {
+        callbackExecutors.put(name, executor);
+        return this;
+    }
+
+    /**
+     * 按名称获取回调执行器，名称为 {@link CallbackExecutors#SAME_THREAD_NAME} 时返回同线程执行器
+     * @param name
+     * @return
+     */
+    public Executor getCallbackExecutor(String name) {
+        if (CallbackExecutors.SAME_THREAD_NAME.equals(name)) {
+            return CallbackExecutors.SAME_THREAD;
+        }
+        Executor executor = callbackExecutors.get(name);
+        if (executor == null) {
+            throw new ForestRuntimeException("Callback executor \"" + name + "\" is not registered");
+        }
+        return executor;
+    }
+
+    /**
+     * 获取全局回调执行器中等待执行的任务数，无法获取时返回-1
+     * @return
+     */
+    public int getCallbackQueueSize() {
+        return CallbackExecutors.getQueueSize(getCallbackExecutor());
+    }
+
     public String getSslProtocol() {
         return sslProtocol;
     }
@@ -280,6 +521,62 @@ public class ForestConfiguration implements Serializable {
         this.sslProtocol = sslProtocol;
     }
 
+    public Integer getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    public ForestConfiguration setSslSessionCacheSize(Integer sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+        return this;
+    }
+
+    public Integer getSslSessionTimeout() {
+        return sslSessionTimeout;
+    }
+
+    public ForestConfiguration setSslSessionTimeout(Integer sslSessionTimeout) {
+        this.sslSessionTimeout = sslSessionTimeout;
+        return this;
+    }
+
+    /**
+     * 获取被调用方取消的异步请求数
+     * @return
+     */
+    public long getCancelledRequestCount() {
+        return cancelledRequests.get();
+    }
+
+    public void recordCancelledRequest() {
+        cancelledRequests.incrementAndGet();
+    }
+
+    /**
+     * 获取取消后才收到响应或错误、未经处理直接丢弃的异步请求数
+     * @return
+     */
+    public long getAbandonedRequestCount() {
+        return abandonedRequests.get();
+    }
+
+    public void recordAbandonedRequest() {
+        abandonedRequests.incrementAndGet();
+    }
+
+    public SSLContextCache getSslContextCache() {
+        SSLContextCache cache = sslContextCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = sslContextCache;
+                if (cache == null) {
+                    cache = new SSLContextCache(this);
+                    sslContextCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
     public boolean isLogEnabled() {
         return logEnabled;
     }
@@ -346,12 +643,13 @@ public class ForestConfiguration implements Serializable {
 
 
     public ForestConfiguration setVariableValue(String name, Object value) {
-        getVariables().put(name, value);
+        variables.put(name, value);
+        variablesVersion.incrementAndGet();
         return this;
     }
 
     public Object getVariableValue(String name) {
-        return getVariables().get(name);
+        return variables.get(name);
     }
 
     public Map<String, SSLKeyStore> getSslKeyStores() {
@@ -360,6 +658,10 @@ public class ForestConfiguration implements Serializable {
 
     public ForestConfiguration setSslKeyStores(Map<String, SSLKeyStore> sslKeyStores) {
         this.sslKeyStores = sslKeyStores;
+        SSLContextCache cache = sslContextCache;
+        if (cache != null) {
+            cache.clear();
+        }
         return this;
     }
 
@@ -369,6 +671,10 @@ public class ForestConfiguration implements Serializable {
      */
     public ForestConfiguration registerKeyStore(SSLKeyStore keyStore) {
         sslKeyStores.put(keyStore.getId(), keyStore);
+        SSLContextCache cache = sslContextCache;
+        if (cache != null) {
+            cache.invalidate(keyStore.getId());
+        }
         return this;
     }
 
@@ -397,15 +703,32 @@ public class ForestConfiguration implements Serializable {
     }
 
 
+    /**
+     * 获取全局变量的只读视图，修改全局变量需要通过 {@link #setVariableValue(String, Object)} 或 {@link #setVariables(Map)}，
+     * 否则模板中已折叠的变量值不会失效
+     * @return
+     */
     public Map<String, Object> getVariables() {
-        return variables;
+        return Collections.unmodifiableMap(variables);
     }
 
     public ForestConfiguration setVariables(Map<String, Object> variables) {
-        this.variables = variables;
+        // 复制一份，之后对传入的Map的修改不会绕过版本号
+        this.variables = variables != null ?
+                new HashMap<String, Object>(variables) : new HashMap<String, Object>();
+        variablesVersion.incrementAndGet();
         return this;
     }
 
+    /**
+     * 获取全局变量的版本号
+     * <p>通过 {@link #setVariableValue(String, Object)} 或 {@link #setVariables(Map)} 修改全局变量后版本号都会改变</p>
+     * @return
+     */
+    public int getVariablesVersion() {
+        return variablesVersion.get();
+    }
+
 
     public <T> T createInstance(Class<T> clazz) {
         ProxyFactory<T> proxyFactory = getProxyFactory(clazz);
@@ -447,6 +770,28 @@ public class ForestConfiguration implements Serializable {
         return filterRegisterMap.containsKey(name);
     }
 
+    /**
+     * 获取过滤器，被 {@link SingletonFilter} 修饰的过滤器只创建一个共享的实例，其它过滤器每次都创建新的实例
+     * @param name
+     * @return
+     */
+    public Filter getFilter(String name) {
+        Filter filter = singletonFilterMap.get(name);
+        if (filter != null) {
+            return filter;
+        }
+        Class filterClass = filterRegisterMap.get(name);
+        if (filterClass == null || !filterClass.isAnnotationPresent(SingletonFilter.class)) {
+            return newFilterInstance(name);
+        }
+        filter = newFilterInstance(name);
+        Filter existed = singletonFilterMap.putIfAbsent(name, filter);
+        if (existed != null) {
+            return existed;
+        }
+        return filter;
+    }
+
     public Filter newFilterInstance(String name) {
         Class filterClass = filterRegisterMap.get(name);
         if (filterClass == null) {
@@ -1,6 +1,13 @@
 package com.dtflys.forest.converter;
 
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.utils.URLUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 
 /**
  * Created by Gongjun on 2016/5/26.
@@ -10,4 +17,63 @@ public interface ForestConverter {
     <T> T convertToJavaObject(String source, Class<T> targetType);
 
     <T> T convertToJavaObject(String source, Type targetType);
+
+    /**
+     * 将按指定字符集编码的字节转换为Java对象
+     * <p>默认实现先解码为字符串，可以直接解析字节的转换器应覆盖此方法</p>
+     * @param source
+     * @param charset 为null时表示响应没有声明字符集，默认实现按UTF-8解码
+     * @param targetType
+     * @param <T>
+     * @return
+     */
+    default <T> T convertToJavaObject(byte[] source, Charset charset, Type targetType) {
+        return convertToJavaObject(new String(source, charset != null ? charset : URLUtils.getCharset(null)), targetType);
+    }
+
+    /**
+     * 将按指定字符集编码的输入流转换为Java对象，输入流由调用方关闭
+     * <p>默认实现先读取全部字节，可以直接解析输入流的转换器应覆盖此方法</p>
+     * @param source
+     * @param charset
+     * @param targetType
+     * @param <T>
+     * @return
+     */
+    default <T> T convertToJavaObject(InputStream source, Charset charset, Type targetType) {
+        byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(source);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        return convertToJavaObject(bytes, charset, targetType);
+    }
+
+    /**
+     * 获取转换到指定目标类型的转换器
+     * <p>默认实现每次转换时调用本转换器对应的 convertToJavaObject 方法，
+     * 可以预先构建目标类型信息的转换器应覆盖此方法</p>
+     * @param targetType
+     * @param <T>
+     * @return
+     */
+    default <T> ForestTypeConverter<T> getTypeConverter(final Type targetType) {
+        return new ForestTypeConverter<T>() {
+            @Override
+            public T convert(String source) {
+                return convertToJavaObject(source, targetType);
+            }
+
+            @Override
+            public T convert(byte[] source, Charset charset) {
+                return convertToJavaObject(source, charset, targetType);
+            }
+
+            @Override
+            public T convert(InputStream source, Charset charset) {
+                return convertToJavaObject(source, charset, targetType);
+            }
+        };
+    }
 }
@@ -0,0 +1,44 @@
+package com.dtflys.forest.converter;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.utils.URLUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * 转换到固定目标类型的转换器
+ * <p>由 {@link ForestConverter#getTypeConverter(java.lang.reflect.Type)} 创建，
+ * 目标类型的解析在创建时一次性完成，可以在多次转换之间复用</p>
+ */
+public interface ForestTypeConverter<T> {
+
+    T convert(String source);
+
+    /**
+     * 转换按指定字符集编码的字节
+     * @param source
+     * @param charset 为null时表示响应没有声明字符集，XML等可以自身声明编码的内容按其声明解码，默认按UTF-8解码
+     * @return
+     */
+    default T convert(byte[] source, Charset charset) {
+        return convert(new String(source, charset != null ? charset : URLUtils.getCharset(null)));
+    }
+
+    /**
+     * 转换按指定字符集编码的输入流，输入流由调用方关闭
+     * @param source
+     * @param charset
+     * @return
+     */
+    default T convert(InputStream source, Charset charset) {
+        try {
+            return convert(IOUtils.toByteArray(source), charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+}
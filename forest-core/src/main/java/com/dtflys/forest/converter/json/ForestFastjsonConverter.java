@@ -5,7 +5,10 @@ import com.alibaba.fastjson.TypeReference;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 
 
 /**
@@ -68,6 +71,15 @@ public class ForestFastjsonConverter implements ForestJsonConverter {
 
     }
 
+    @Override
+    public <T> T convertToJavaObject(byte[] source, Charset charset, Type targetType) {
+        try {
+            return JSON.parseObject(source, 0, source.length, charset.newDecoder(), targetType);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
+        }
+    }
+
     public <T> T convertToJavaObject(String source, TypeReference<T> typeReference) {
         try {
             return JSON.parseObject(source, typeReference);
@@ -89,4 +101,24 @@ public class ForestFastjsonConverter implements ForestJsonConverter {
             throw new ForestRuntimeException(th);
         }
     }
+
+    @Override
+    public byte[] convertToJsonBytes(Object obj, String charset) {
+        if (!"UTF-8".equalsIgnoreCase(charset)) {
+            return ForestJsonConverter.super.convertToJsonBytes(obj, charset);
+        }
+        try {
+            if (serializerFeature == null) {
+                return JSON.toJSONBytes(obj);
+            }
+            return JSON.toJSONBytes(obj, serializerFeature);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
+        }
+    }
+
+    @Override
+    public void writeJson(Object obj, OutputStream out, String charset) throws IOException {
+        out.write(convertToJsonBytes(obj, charset));
+    }
 }
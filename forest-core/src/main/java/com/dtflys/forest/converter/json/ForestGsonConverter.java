@@ -1,143 +1,204 @@
 package com.dtflys.forest.converter.json;
 
 import com.dtflys.forest.exceptions.ForestRuntimeException;
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
  * 使用Gson实现的消息转换实现类
+ * <p>所有转换共用同一个Gson实例，Gson内部会缓存各类型的反射信息；
+ * 可以通过构造方法或 {@link #setGson(Gson)} 使用由GsonBuilder配置的实例</p>
  * @author Gongjun
  * @since 2016-06-04
  */
 public class ForestGsonConverter implements ForestJsonConverter {
 
-    public <T> T convertToJavaObject(String source, Class<T> targetType) {
-        try {
-            if (Map.class.isAssignableFrom(targetType)) {
-                JsonParser jsonParser = new JsonParser();
-                JsonObject jsonObject = jsonParser.parse(source).getAsJsonObject();
-                return (T) toMap(jsonObject);
-            }
-            else if (List.class.isAssignableFrom(targetType)) {
-                JsonParser jsonParser = new JsonParser();
-                JsonArray jsonArray = jsonParser.parse(source).getAsJsonArray();
-                return (T) toList(jsonArray);
-            }
-            Gson gson = new Gson();
-            return (T) gson.fromJson(source, targetType);
-        } catch (Throwable th) {
-            throw new ForestRuntimeException(th);
+    private volatile Gson gson;
+
+    public ForestGsonConverter() {
+        this(new Gson());
+    }
+
+    public ForestGsonConverter(Gson gson) {
+        setGson(gson);
+    }
+
+    public Gson getGson() {
+        return gson;
+    }
+
+    public void setGson(Gson gson) {
+        if (gson == null) {
+            throw new ForestRuntimeException("Gson can not be null");
         }
+        this.gson = gson;
+    }
+
+    public <T> T convertToJavaObject(String source, Class<T> targetType) {
+        return convertToJavaObject(new StringReader(source), targetType);
     }
 
     public <T> T convertToJavaObject(String source, Type targetType) {
+        return convertToJavaObject(new StringReader(source), targetType);
+    }
+
+    @Override
+    public <T> T convertToJavaObject(byte[] source, Charset charset, Type targetType) {
+        return convertToJavaObject(new ByteArrayInputStream(source), charset, targetType);
+    }
+
+    @Override
+    public <T> T convertToJavaObject(InputStream source, Charset charset, Type targetType) {
+        return convertToJavaObject(new InputStreamReader(source, charset), targetType);
+    }
+
+    /**
+     * 从字符流读取JSON并转换为指定类型，字符流由调用方关闭
+     * <p>Map和List类型由 {@link JsonReader} 直接解析，数字按大小转换为Integer、Long、Double或BigDecimal</p>
+     * @param source
+     * @param targetType
+     * @param <T>
+     * @return
+     */
+    public <T> T convertToJavaObject(Reader source, Type targetType) {
         try {
             if (targetType instanceof ParameterizedType ||
                     targetType.getClass().getName().startsWith("com.google.gson")) {
-                Gson gson = new Gson();
                 return gson.fromJson(source, targetType);
             }
-            return convertToJavaObject(source, (Class<? extends T>) targetType);
-        } catch (Exception ex) {
-            throw new ForestRuntimeException(ex);
-        }
-    }
-
-
-    private static Map<String, Object> toMap(JsonObject json){
-        Map<String, Object> map = new HashMap<String, Object>();
-        Set<Map.Entry<String, JsonElement>> entrySet = json.entrySet();
-        for (Iterator<Map.Entry<String, JsonElement>> iter = entrySet.iterator(); iter.hasNext(); ){
-            Map.Entry<String, JsonElement> entry = iter.next();
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            if(value instanceof JsonArray) {
-                map.put(key, toList((JsonArray) value));
-            }
-            else if(value instanceof JsonObject) {
-                map.put(key, toMap((JsonObject) value));
-            }
-            else if (value instanceof JsonPrimitive) {
-                map.put(key, toObject((JsonPrimitive) value));
+            Class<T> targetClass = (Class<T>) targetType;
+            if (Map.class.isAssignableFrom(targetClass)) {
+                return (T) readContainer(source, JsonToken.BEGIN_OBJECT);
             }
-            else {
-                map.put(key, value);
+            else if (List.class.isAssignableFrom(targetClass)) {
+                return (T) readContainer(source, JsonToken.BEGIN_ARRAY);
             }
+            return gson.fromJson(source, targetClass);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
         }
-        return map;
     }
 
-    private static Object toObject(JsonPrimitive jsonPrimitive) {
-        if (jsonPrimitive.isBoolean()) {
-            return jsonPrimitive.getAsBoolean();
+    private static Object readContainer(Reader source, JsonToken expected) throws IOException {
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+        JsonToken token = reader.peek();
+        if (token != expected) {
+            throw new JsonParseException("Expected " + expected + " but was " + token);
         }
-        if (jsonPrimitive.isString()) {
-            return jsonPrimitive.getAsString();
+        Object value = readValue(reader);
+        // 与JsonParser相同，宽松模式下也不允许顶层对象或数组之后还有其它内容
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonParseException("Did not consume the entire document.");
         }
-        if (jsonPrimitive.isNumber()) {
-            BigDecimal num = jsonPrimitive.getAsBigDecimal();
-            int index = num.toString().indexOf('.');
-            if (index == -1) {
-                if (num.compareTo(new BigDecimal(Long.MAX_VALUE)) == 1) {
-                    return num;
-                }
-                if (num.compareTo(new BigDecimal(Long.MIN_VALUE)) == -1) {
-                    return num;
+        return value;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    map.put(name, readValue(reader));
                 }
-                if (num.compareTo(new BigDecimal(Integer.MAX_VALUE)) == 1 ||
-                        num.compareTo(new BigDecimal(Integer.MIN_VALUE)) == -1) {
-                    return jsonPrimitive.getAsLong();
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<Object>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
                 }
-                return jsonPrimitive.getAsInt();
-            }
-            double dvalue = jsonPrimitive.getAsDouble();
-            float fvalue = jsonPrimitive.getAsFloat();
-            if (String.valueOf(dvalue).equals(fvalue)) {
-                return fvalue;
-            }
-            return dvalue;
-        }
-        if (jsonPrimitive.isJsonArray()) {
-            return toList(jsonPrimitive.getAsJsonArray());
-        }
-        if (jsonPrimitive.isJsonObject()) {
-            return toMap(jsonPrimitive.getAsJsonObject());
+                reader.endArray();
+                return list;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new JsonParseException("Unexpected token " + reader.peek());
         }
-        return null;
     }
 
-    private static List<Object> toList(JsonArray json){
-        List<Object> list = new ArrayList<Object>();
-        for (int i = 0; i < json.size(); i++){
-            Object value = json.get(i);
-            if (value instanceof JsonArray){
-                list.add(toList((JsonArray) value));
+    /**
+     * 整数按范围转换为Integer、Long或BigDecimal，小数转换为Double
+     */
+    private static Number toNumber(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '.' || ch == 'e' || ch == 'E') {
+                return Double.parseDouble(text);
             }
-            else if (value instanceof JsonObject) {
-                list.add(toMap((JsonObject) value));
-            }
-            else if (value instanceof JsonPrimitive) {
-                list.add(toObject((JsonPrimitive) value));
-            }
-            else{
-                list.add(value);
+        }
+        try {
+            long value = Long.parseLong(text);
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
             }
+            return value;
+        } catch (NumberFormatException e) {
+            return new BigDecimal(text);
         }
-        return list;
     }
 
     public String convertToJson(Object obj) {
-        Gson gson = new Gson();
         return gson.toJson(obj);
     }
 
     public String convertToJson(Object obj, Type type) {
-        Gson gson = new Gson();
         return gson.toJson(obj, type);
     }
 
+    /**
+     * 将Java对象转换为JSON并写入字符流，字符流由调用方关闭
+     * @param obj
+     * @param writer
+     */
+    public void writeJson(Object obj, Writer writer) {
+        gson.toJson(obj, writer);
+    }
+
+    @Override
+    public void writeJson(Object obj, OutputStream out, String charset) throws IOException {
+        Writer writer = new OutputStreamWriter(out, charset);
+        writeJson(obj, writer);
+        writer.flush();
+    }
+
+    @Override
+    public byte[] convertToJsonBytes(Object obj, String charset) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeJson(obj, out, charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
 }
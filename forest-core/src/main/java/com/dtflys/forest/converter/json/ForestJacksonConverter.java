@@ -1,72 +1,276 @@
 package com.dtflys.forest.converter.json;
 
+import com.dtflys.forest.converter.ForestTypeConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
  * 使用Jackson实现的消息转折实现类
+ * <p>所有转换共用同一个配置好的 {@link ObjectMapper}，并按类型缓存 {@link ObjectReader} 和 {@link ObjectWriter}，
+ * 可以通过构造方法或 {@link #setMapper(ObjectMapper)} 使用自定义的ObjectMapper，
+ * 或通过 {@link #registerModule(Module)} 注册Afterburner等模块</p>
  * @author Gongjun
  * @since 2016-06-04
  */
 public class ForestJacksonConverter implements ForestJsonConverter {
 
-    private ObjectMapper mapper = new ObjectMapper();
-    {
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * ObjectMapper和由它创建的Reader/Writer缓存，替换ObjectMapper时整体替换
+     */
+    private volatile MapperHolder holder;
+
+    public ForestJacksonConverter() {
+        this(createDefaultMapper());
+    }
+
+    public ForestJacksonConverter(ObjectMapper mapper) {
+        setMapper(mapper);
+    }
+
+    /**
+     * 创建默认的ObjectMapper，忽略未知属性和基本类型的空值
+     * @return
+     */
+    public static ObjectMapper createDefaultMapper() {
+        ObjectMapper mapper = new ObjectMapper();
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
+        return mapper;
     }
 
-    public <T> T convertToJavaObject(String source, Class<T> targetType) {
-        try {
-            return mapper.readValue(source, targetType);
-        } catch (IOException e) {
-            throw new ForestRuntimeException(e);
+    public ObjectMapper getMapper() {
+        return holder.mapper;
+    }
+
+    /**
+     * 设置ObjectMapper，之前缓存的Reader/Writer会被丢弃
+     * @param mapper
+     */
+    public void setMapper(ObjectMapper mapper) {
+        if (mapper == null) {
+            throw new ForestRuntimeException("Jackson ObjectMapper can not be null");
         }
+        this.holder = new MapperHolder(mapper);
+    }
+
+    /**
+     * 注册模块，ObjectMapper已缓存的序列化器不会受新模块影响，
+     * 所以在当前ObjectMapper的副本上注册并替换，之前缓存的Reader/Writer会被丢弃
+     * @param module
+     */
+    public synchronized void registerModule(Module module) {
+        ObjectMapper mapper = holder.mapper.copy();
+        mapper.registerModule(module);
+        this.holder = new MapperHolder(mapper);
+    }
+
+    public <T> T convertToJavaObject(String source, Class<T> targetType) {
+        return readValue(getReader(targetType), source);
     }
 
     public <T> T convertToJavaObject(String source, Type targetType) {
+        return readValue(getReader(targetType), source);
+    }
+
+    @Override
+    public <T> T convertToJavaObject(byte[] source, Charset charset, Type targetType) {
+        return readValue(getReader(targetType), source, charset);
+    }
+
+    @Override
+    public <T> T convertToJavaObject(InputStream source, Charset charset, Type targetType) {
+        return readValue(getReader(targetType), source, charset);
+    }
+
+    @Override
+    public <T> ForestTypeConverter<T> getTypeConverter(Type targetType) {
+        final ObjectReader reader = getReader(targetType);
+        return new ForestTypeConverter<T>() {
+            @Override
+            public T convert(String source) {
+                return readValue(reader, source);
+            }
+
+            @Override
+            public T convert(byte[] source, Charset charset) {
+                return readValue(reader, source, charset);
+            }
+
+            @Override
+            public T convert(InputStream source, Charset charset) {
+                return readValue(reader, source, charset);
+            }
+        };
+    }
+
+    private ObjectReader getReader(Type targetType) {
+        return holder.getReader(targetType);
+    }
+
+    private ObjectWriter getWriter(Object obj) {
+        return holder.getWriter(obj);
+    }
+
+    private static <T> T readValue(ObjectReader reader, String source) {
         try {
-            return mapper.readValue(source, mapper.getTypeFactory().constructType(targetType));
+            return reader.readValue(source);
         } catch (IOException e) {
             throw new ForestRuntimeException(e);
         }
-
     }
 
-    public <T> T convertToJavaObject(String source, Class<?> parametrized, Class<?> ...parameterClasses) {
-        ObjectMapper mapper = new ObjectMapper();
+    /**
+     * Jackson可以直接解析UTF-8编码的字节，其它字符集需要经过Reader解码
+     */
+    private static <T> T readValue(ObjectReader reader, byte[] source, Charset charset) {
         try {
-            JavaType javaType = mapper.getTypeFactory().constructParametricType(parametrized, parameterClasses);
-            return mapper.readValue(source, javaType);
+            if (UTF_8.equals(charset)) {
+                return reader.readValue(source);
+            }
+            return reader.readValue(new InputStreamReader(new ByteArrayInputStream(source), charset));
         } catch (IOException e) {
             throw new ForestRuntimeException(e);
         }
     }
 
-    public <T> T convertToJavaObject(String source, JavaType javaType) {
-        ObjectMapper mapper = new ObjectMapper();
+    private static <T> T readValue(ObjectReader reader, InputStream source, Charset charset) {
         try {
-            return mapper.readValue(source, javaType);
+            if (UTF_8.equals(charset)) {
+                return reader.readValue(source);
+            }
+            return reader.readValue(new InputStreamReader(source, charset));
         } catch (IOException e) {
             throw new ForestRuntimeException(e);
         }
     }
 
+    public <T> T convertToJavaObject(String source, Class<?> parametrized, Class<?> ...parameterClasses) {
+        JavaType javaType = getMapper().getTypeFactory().constructParametricType(parametrized, parameterClasses);
+        return readValue(getReader(javaType), source);
+    }
 
+    public <T> T convertToJavaObject(String source, JavaType javaType) {
+        return readValue(getReader(javaType), source);
+    }
 
 
     public String convertToJson(Object obj) {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(obj);
+            return getWriter(obj).writeValueAsString(obj);
         } catch (Throwable e) {
             throw new ForestRuntimeException(e);
         }
     }
+
+    @Override
+    public byte[] convertToJsonBytes(Object obj, String charset) {
+        if (getJsonEncoding(charset) == JsonEncoding.UTF8) {
+            try {
+                return getWriter(obj).writeValueAsBytes(obj);
+            } catch (Throwable e) {
+                throw new ForestRuntimeException(e);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeJson(obj, out, charset);
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void writeJson(Object obj, OutputStream out, String charset) throws IOException {
+        ObjectWriter writer = getWriter(obj);
+        JsonEncoding encoding = getJsonEncoding(charset);
+        JsonGenerator generator;
+        if (encoding != null) {
+            generator = writer.getFactory().createGenerator(out, encoding);
+        } else {
+            generator = writer.getFactory().createGenerator(new OutputStreamWriter(out, charset));
+        }
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            writer.writeValue(generator, obj);
+        } finally {
+            generator.close();
+        }
+    }
+
+    private static JsonEncoding getJsonEncoding(String charset) {
+        for (JsonEncoding encoding : JsonEncoding.values()) {
+            if (encoding.getJavaName().equalsIgnoreCase(charset)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+
+    private static class MapperHolder {
+
+        final ObjectMapper mapper;
+
+        final ConcurrentMap<Type, ObjectReader> readerCache = new ConcurrentHashMap<>();
+
+        final ConcurrentMap<Class, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+
+        MapperHolder(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        ObjectReader getReader(Type targetType) {
+            ObjectReader reader = readerCache.get(targetType);
+            if (reader == null) {
+                reader = mapper.readerFor(mapper.getTypeFactory().constructType(targetType));
+                ObjectReader existing = readerCache.putIfAbsent(targetType, reader);
+                if (existing != null) {
+                    reader = existing;
+                }
+            }
+            return reader;
+        }
+
+        /**
+         * 按对象的运行时类型缓存Writer，序列化器在创建Writer时预先解析
+         */
+        ObjectWriter getWriter(Object obj) {
+            if (obj == null) {
+                return mapper.writer();
+            }
+            Class type = obj.getClass();
+            ObjectWriter writer = writerCache.get(type);
+            if (writer == null) {
+                writer = mapper.writerFor(type);
+                ObjectWriter existing = writerCache.putIfAbsent(type, writer);
+                if (existing != null) {
+                    writer = existing;
+                }
+            }
+            return writer;
+        }
+    }
 }
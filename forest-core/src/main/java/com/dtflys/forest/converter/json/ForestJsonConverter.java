@@ -1,6 +1,11 @@
 package com.dtflys.forest.converter.json;
 
 import com.dtflys.forest.converter.ForestConverter;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 
 /**
  * Json消息转换接口
@@ -16,4 +21,31 @@ public interface ForestJsonConverter extends ForestConverter {
      */
     String convertToJson(Object obj);
 
+    /**
+     * 将Java对象转换为按指定字符集编码的JSON字节
+     * <p>默认实现先转换为字符串再编码，可以直接输出字节的转换器应覆盖此方法</p>
+     * @param obj
+     * @param charset
+     * @return
+     */
+    default byte[] convertToJsonBytes(Object obj, String charset) {
+        try {
+            return convertToJson(obj).getBytes(charset);
+        } catch (UnsupportedEncodingException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    /**
+     * 将Java对象转换为JSON并按指定字符集直接写入输出流
+     * <p>默认实现先转换为字符串再写入，支持流式输出的转换器应覆盖此方法</p>
+     * @param obj
+     * @param out
+     * @param charset
+     * @throws IOException
+     */
+    default void writeJson(Object obj, OutputStream out, String charset) throws IOException {
+        out.write(convertToJson(obj).getBytes(charset));
+    }
+
 }
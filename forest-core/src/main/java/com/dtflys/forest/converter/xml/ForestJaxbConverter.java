@@ -7,41 +7,120 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 基于JAXB实现的XML转换器
+ * <p>按类型缓存 {@link JAXBContext}，并池化由它创建的Marshaller和Unmarshaller，
+ * 解析时通过StAX直接读取字节流</p>
  * @author gongjun
  * @since 2016-07-12
  */
 public class ForestJaxbConverter implements ForestXmlConverter {
 
+    /**
+     * 每个类型最多缓存的Marshaller/Unmarshaller数量
+     */
+    private final static int MAX_POOL_SIZE = 32;
+
+    private final static XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private final ConcurrentMap<Class, JaxbContextEntry> contextCache = new ConcurrentHashMap<>();
+
+    /**
+     * 输出的XML是否格式化，默认为true
+     */
+    private volatile boolean formattedOutput = true;
+
+    public boolean isFormattedOutput() {
+        return formattedOutput;
+    }
+
+    /**
+     * 设置输出的XML是否格式化（即 {@link Marshaller#JAXB_FORMATTED_OUTPUT}），生产环境可以关闭以减小请求体
+     * @param formattedOutput
+     */
+    public void setFormattedOutput(boolean formattedOutput) {
+        this.formattedOutput = formattedOutput;
+    }
+
+    /**
+     * 获取类型对应的JAXBContext，第一次获取时创建并缓存
+     * @param type
+     * @return
+     */
+    public JAXBContext getJaxbContext(Class type) {
+        return getContextEntry(type).jaxbContext;
+    }
+
+    private JaxbContextEntry getContextEntry(Class type) {
+        JaxbContextEntry entry = contextCache.get(type);
+        if (entry == null) {
+            try {
+                entry = new JaxbContextEntry(JAXBContext.newInstance(type));
+            } catch (JAXBException e) {
+                throw new ForestRuntimeException(e);
+            }
+            JaxbContextEntry existing = contextCache.putIfAbsent(type, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        return entry;
+    }
+
     @Override
     public String convertToXml(Object obj) {
+        StringWriter writer = new StringWriter();
+        JaxbContextEntry entry = getContextEntry(obj.getClass());
+        Marshaller marshaller = entry.borrowMarshaller(this, "UTF-8");
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(obj.getClass());
-            StringWriter writer = new StringWriter();
-            createMarshaller(jaxbContext, "UTF-8").marshal(obj, writer);
-            return writer.toString();
+            marshaller.marshal(obj, writer);
         } catch (JAXBException e) {
             throw new ForestRuntimeException(e);
+        } finally {
+            entry.returnMarshaller(marshaller);
         }
-
+        return writer.toString();
     }
 
     @Override
-    public <T> T convertToJavaObject(String source, Class<T> targetType) {
-        JAXBContext jaxbContext = null;
+    public void writeXml(Object obj, OutputStream out, String charset) throws IOException {
+        JaxbContextEntry entry = getContextEntry(obj.getClass());
+        Marshaller marshaller = entry.borrowMarshaller(this, charset);
         try {
-            jaxbContext = JAXBContext.newInstance(targetType);
-            StringReader reader = new StringReader(source);
-            return (T) createUnmarshaller(jaxbContext).unmarshal(reader);
+            marshaller.marshal(obj, out);
         } catch (JAXBException e) {
             throw new ForestRuntimeException(e);
+        } finally {
+            entry.returnMarshaller(marshaller);
         }
+    }
 
+    @Override
+    public <T> T convertToJavaObject(String source, Class<T> targetType) {
+        try {
+            return unmarshal(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(source)), targetType);
+        } catch (XMLStreamException e) {
+            throw new ForestRuntimeException(e);
+        }
     }
 
 
@@ -51,11 +130,54 @@ public class ForestJaxbConverter implements ForestXmlConverter {
     }
 
 
+    @Override
+    public <T> T convertToJavaObject(byte[] source, Charset charset, Type targetType) {
+        return convertToJavaObject(new ByteArrayInputStream(source), charset, targetType);
+    }
+
+
+    /**
+     * 从输入流解析XML，输入流由调用方关闭
+     * @param source
+     * @param charset 响应中声明的字符集，为null时按文档自身的编码声明（没有声明时为UTF-8）解析
+     * @param targetType
+     * @param <T>
+     * @return
+     */
+    @Override
+    public <T> T convertToJavaObject(InputStream source, Charset charset, Type targetType) {
+        try {
+            XMLStreamReader reader = charset != null ?
+                    XML_INPUT_FACTORY.createXMLStreamReader(source, charset.name()) :
+                    XML_INPUT_FACTORY.createXMLStreamReader(source);
+            return unmarshal(reader, (Class) targetType);
+        } catch (XMLStreamException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    private <T> T unmarshal(XMLStreamReader reader, Class targetType) {
+        JaxbContextEntry entry = getContextEntry(targetType);
+        Unmarshaller unmarshaller = entry.borrowUnmarshaller(this);
+        try {
+            return (T) unmarshaller.unmarshal(reader);
+        } catch (JAXBException e) {
+            throw new ForestRuntimeException(e);
+        } finally {
+            entry.returnUnmarshaller(unmarshaller);
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+            }
+        }
+    }
+
+
     public Marshaller createMarshaller(JAXBContext jaxbContext, String encoding) {
         try {
             Marshaller marshaller = jaxbContext.createMarshaller();
 
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
 
             if (StringUtils.isNotEmpty(encoding)) {
                 marshaller.setProperty(Marshaller.JAXB_ENCODING, encoding);
@@ -75,6 +197,52 @@ public class ForestJaxbConverter implements ForestXmlConverter {
     }
 
 
+    /**
+     * JAXBContext和由它创建的Marshaller/Unmarshaller池，Marshaller和Unmarshaller不是线程安全的，
+     * 每次使用时从池中借出，用完归还
+     */
+    private static class JaxbContextEntry {
+
+        final JAXBContext jaxbContext;
+
+        final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
+
+        final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
 
+        JaxbContextEntry(JAXBContext jaxbContext) {
+            this.jaxbContext = jaxbContext;
+        }
+
+        Marshaller borrowMarshaller(ForestJaxbConverter converter, String encoding) {
+            Marshaller marshaller = marshallers.poll();
+            if (marshaller == null) {
+                return converter.createMarshaller(jaxbContext, encoding);
+            }
+            try {
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, converter.formattedOutput);
+                marshaller.setProperty(Marshaller.JAXB_ENCODING,
+                        StringUtils.isNotEmpty(encoding) ? encoding : "UTF-8");
+            } catch (JAXBException e) {
+                throw new ForestRuntimeException(e);
+            }
+            return marshaller;
+        }
+
+        void returnMarshaller(Marshaller marshaller) {
+            marshallers.offer(marshaller);
+        }
+
+        Unmarshaller borrowUnmarshaller(ForestJaxbConverter converter) {
+            Unmarshaller unmarshaller = unmarshallers.poll();
+            if (unmarshaller == null) {
+                return converter.createUnmarshaller(jaxbContext);
+            }
+            return unmarshaller;
+        }
+
+        void returnUnmarshaller(Unmarshaller unmarshaller) {
+            unmarshallers.offer(unmarshaller);
+        }
+    }
 
 }
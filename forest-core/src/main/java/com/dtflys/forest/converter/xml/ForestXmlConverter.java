@@ -2,6 +2,9 @@ package com.dtflys.forest.converter.xml;
 
 import com.dtflys.forest.converter.ForestConverter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Xml消息转化接口
  * @author gongjun
@@ -16,4 +19,16 @@ public interface ForestXmlConverter extends ForestConverter {
      */
     String convertToXml(Object obj);
 
+    /**
+     * 将Java对象转换为XML并按指定字符集直接写入输出流
+     * <p>默认实现先转换为字符串再写入，支持流式输出的转换器应覆盖此方法</p>
+     * @param obj
+     * @param out
+     * @param charset
+     * @throws IOException
+     */
+    default void writeXml(Object obj, OutputStream out, String charset) throws IOException {
+        out.write(convertToXml(obj).getBytes(charset));
+    }
+
 }
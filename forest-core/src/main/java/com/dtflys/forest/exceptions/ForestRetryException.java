@@ -2,6 +2,7 @@ package com.dtflys.forest.exceptions;
 
 import com.dtflys.forest.backend.AbstractHttpExecutor;
 import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
 
 public class ForestRetryException extends ForestRuntimeException {
 
@@ -9,11 +10,22 @@ public class ForestRetryException extends ForestRuntimeException {
     private final int currentRetryCount;
     private final AbstractHttpExecutor executor;
     private final ForestRequest request;
+    private final ForestResponse response;
 
     public ForestRetryException(Throwable cause, AbstractHttpExecutor executor, ForestRequest request, int maxRetryCount, int currentRetryCount) {
         super(cause);
         this.executor = executor;
         this.request = request;
+        this.response = null;
+        this.maxRetryCount = maxRetryCount;
+        this.currentRetryCount = currentRetryCount;
+    }
+
+    public ForestRetryException(Throwable cause, ForestRequest request, ForestResponse response, int maxRetryCount, int currentRetryCount) {
+        super(cause);
+        this.executor = null;
+        this.request = request;
+        this.response = response;
         this.maxRetryCount = maxRetryCount;
         this.currentRetryCount = currentRetryCount;
     }
@@ -33,4 +45,12 @@ public class ForestRetryException extends ForestRuntimeException {
     public ForestRequest getRequest() {
         return request;
     }
+
+    /**
+     * 获取收到的错误响应，网络错误时为null
+     * @return
+     */
+    public ForestResponse getResponse() {
+        return response;
+    }
 }
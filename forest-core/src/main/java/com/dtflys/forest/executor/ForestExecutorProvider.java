@@ -0,0 +1,26 @@
+package com.dtflys.forest.executor;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Forest所用线程的提供者
+ * <p>异步请求的回调执行器以及后端执行异步请求的线程池都由它创建，
+ * 通过 {@code ForestConfiguration.setExecutorProvider} 设置，需要在发送第一个请求之前设置</p>
+ */
+public interface ForestExecutorProvider {
+
+    /**
+     * 创建执行异步请求回调（结果解码、拦截器、OnSuccess/OnError）的执行器
+     * @param name 线程名前缀
+     * @return
+     */
+    ExecutorService newCallbackExecutor(String name);
+
+    /**
+     * 创建后端执行异步请求的执行器
+     * @param name 线程名前缀
+     * @return 返回null时使用后端自己的线程池
+     */
+    ExecutorService newBackendExecutor(String name);
+
+}
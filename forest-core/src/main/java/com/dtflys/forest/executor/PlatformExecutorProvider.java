@@ -0,0 +1,63 @@
+package com.dtflys.forest.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用平台线程的默认提供者
+ * <p>回调执行器为线程数与CPU核数相同的线程池，空闲的线程会被回收；后端使用自己的线程池</p>
+ * <p>回调执行器的任务队列有上限，队列已满或执行器已关闭时由提交任务的线程（即后端的IO线程）直接执行，
+ * 回调不会被丢弃，同时对后端形成背压</p>
+ */
+public class PlatformExecutorProvider implements ForestExecutorProvider {
+
+    private final static AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    /**
+     * 回调执行器任务队列的容量
+     */
+    public final static int CALLBACK_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 在提交任务的线程中执行被拒绝的任务，与 {@link ThreadPoolExecutor.CallerRunsPolicy} 不同，
+     * 执行器关闭后提交的任务也会被执行，保证异步请求的Future总能完成
+     */
+    private final static RejectedExecutionHandler CALLER_RUNS = new RejectedExecutionHandler() {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            r.run();
+        }
+    };
+
+    @Override
+    public ExecutorService newCallbackExecutor(final String name) {
+        int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int poolNumber = POOL_NUMBER.incrementAndGet();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(CALLBACK_QUEUE_CAPACITY),
+                new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, name + "-" + poolNumber + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, CALLER_RUNS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public ExecutorService newBackendExecutor(String name) {
+        return null;
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.dtflys.forest.executor;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 使用虚拟线程的提供者
+ * <p>在Java 21及以上的运行环境中，回调和后端的异步请求都在虚拟线程中执行，每个任务一个虚拟线程，不需要设置线程池大小；
+ * 运行环境不支持虚拟线程时退化为 {@link PlatformExecutorProvider}</p>
+ * <p>同步请求在调用方的线程中执行，调用方本身是虚拟线程时，Forest在等待响应期间不会占住载体线程</p>
+ */
+public class VirtualThreadExecutorProvider implements ForestExecutorProvider {
+
+    private static Log log = LogFactory.getLog(VirtualThreadExecutorProvider.class);
+
+    /**
+     * Thread.ofVirtual()，编译时的Java版本没有虚拟线程，通过反射调用
+     */
+    private final static Method OF_VIRTUAL;
+
+    private final static Method BUILDER_NAME;
+
+    private final static Method BUILDER_FACTORY;
+
+    private final static Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Java 19、20中虚拟线程为预览特性，未开启时调用会抛出异常
+            ofVirtual.invoke(null);
+        } catch (Throwable th) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private final ForestExecutorProvider fallback = new PlatformExecutorProvider();
+
+    public VirtualThreadExecutorProvider() {
+        if (!isSupported()) {
+            log.warn("[Forest] Virtual threads are not supported by Java " +
+                    System.getProperty("java.version") + ", platform threads will be used instead");
+        }
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     * @return
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建虚拟线程的线程工厂，线程名为前缀加序号
+     * @param name 线程名前缀
+     * @return
+     */
+    public static ThreadFactory newThreadFactory(String name) {
+        if (!isSupported()) {
+            throw new ForestRuntimeException("Virtual threads are not supported by Java " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, name + "-", 1L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Exception e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, newThreadFactory(name));
+        } catch (Exception e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    @Override
+    public ExecutorService newCallbackExecutor(String name) {
+        if (!isSupported()) {
+            return fallback.newCallbackExecutor(name);
+        }
+        return newThreadPerTaskExecutor(name);
+    }
+
+    @Override
+    public ExecutorService newBackendExecutor(String name) {
+        if (!isSupported()) {
+            return fallback.newBackendExecutor(name);
+        }
+        return newThreadPerTaskExecutor(name);
+    }
+
+}
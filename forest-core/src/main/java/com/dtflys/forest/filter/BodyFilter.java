@@ -0,0 +1,23 @@
+package com.dtflys.forest.filter;
+
+import com.dtflys.forest.config.ForestConfiguration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 可以将过滤结果直接写入请求体的过滤器
+ * <p>作为请求参数过滤链中的最后一个过滤器时，过滤结果不再生成中间字符串，而是在构建请求体时直接写入</p>
+ */
+public interface BodyFilter extends Filter {
+
+    /**
+     * 将过滤结果按指定字符集写入输出流
+     * @param configuration
+     * @param data
+     * @param out
+     * @param charset
+     * @throws IOException
+     */
+    void writeBody(ForestConfiguration configuration, Object data, OutputStream out, String charset) throws IOException;
+}
@@ -2,33 +2,53 @@ package com.dtflys.forest.filter;
 
 import com.dtflys.forest.config.ForestConfiguration;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-07-12 16:30
  */
 public class FilterChain implements Filter {
 
-    private LinkedList<Filter> filters = new LinkedList<>();
+    private volatile Filter[] filters = new Filter[0];
 
     @Override
     public Object doFilter(ForestConfiguration configuration, Object data) {
-        Iterator<Filter> iter = filters.iterator();
+        Filter[] filters = this.filters;
+        return doFilter(filters, filters.length, configuration, data);
+    }
+
+    private static Object doFilter(Filter[] filters, int end, ForestConfiguration configuration, Object data) {
         Object result = data;
-        for ( ; iter.hasNext(); ) {
-            Filter filter = iter.next();
-            result = filter.doFilter(configuration, result);
+        for (int i = 0; i < end; i++) {
+            result = filters[i].doFilter(configuration, result);
         }
         return result;
     }
 
-    public void addFilter(Filter filter) {
-        filters.add(filter);
+    /**
+     * 执行过滤链，最后一个过滤器为 {@link BodyFilter} 时不执行该过滤器，
+     * 而是返回在构建请求体时才写入的 {@link FilteredBody}
+     * @param configuration
+     * @param data
+     * @return
+     */
+    public Object doBodyFilter(ForestConfiguration configuration, Object data) {
+        Filter[] filters = this.filters;
+        int last = filters.length - 1;
+        if (last >= 0 && filters[last] instanceof BodyFilter) {
+            Object result = doFilter(filters, last, configuration, data);
+            return new FilteredBody(configuration, (BodyFilter) filters[last], result);
+        }
+        return doFilter(filters, filters.length, configuration, data);
+    }
+
+    public synchronized void addFilter(Filter filter) {
+        Filter[] newFilters = new Filter[filters.length + 1];
+        System.arraycopy(filters, 0, newFilters, 0, filters.length);
+        newFilters[filters.length] = filter;
+        filters = newFilters;
     }
 
     public boolean isEmpty() {
-        return filters.isEmpty();
+        return filters.length == 0;
     }
 }
@@ -0,0 +1,49 @@
+package com.dtflys.forest.filter;
+
+import com.dtflys.forest.config.ForestConfiguration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 延迟执行的请求体过滤结果
+ * <p>构建请求体时通过 {@link #writeTo(OutputStream, String)} 直接写入字节，
+ * 在其它需要字符串的场合（如拦截器读取请求参数）通过 {@link #toString()} 得到与过滤器执行结果相同的字符串，
+ * 字符串只生成一次</p>
+ */
+public class FilteredBody {
+
+    private final ForestConfiguration configuration;
+
+    private final BodyFilter filter;
+
+    private final Object data;
+
+    private volatile String text;
+
+    public FilteredBody(ForestConfiguration configuration, BodyFilter filter, Object data) {
+        this.configuration = configuration;
+        this.filter = filter;
+        this.data = data;
+    }
+
+    public void writeTo(OutputStream out, String charset) throws IOException {
+        String text = this.text;
+        if (text != null) {
+            // 已经生成过字符串时直接写入，不再执行过滤器
+            out.write(text.getBytes(charset));
+            return;
+        }
+        filter.writeBody(configuration, data, out, charset);
+    }
+
+    @Override
+    public String toString() {
+        String text = this.text;
+        if (text == null) {
+            text = String.valueOf(filter.doFilter(configuration, data));
+            this.text = text;
+        }
+        return text;
+    }
+}
@@ -3,15 +3,24 @@ package com.dtflys.forest.filter;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-12-15 15:26
  */
-public class JSONFilter implements Filter {
+@SingletonFilter
+public class JSONFilter implements BodyFilter {
     @Override
     public Object doFilter(ForestConfiguration configuration, Object data) {
         ForestJsonConverter jsonConverter = configuration.getJsonConverter();
         String json = jsonConverter.convertToJson(data);
         return json;
     }
+
+    @Override
+    public void writeBody(ForestConfiguration configuration, Object data, OutputStream out, String charset) throws IOException {
+        configuration.getJsonConverter().writeJson(data, out, charset);
+    }
 }
@@ -0,0 +1,14 @@
+package com.dtflys.forest.filter;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记无状态的过滤器
+ * <p>被修饰的过滤器类在每个ForestConfiguration中只创建一个实例，并在所有模板和请求参数间共享，
+ * 因此过滤器的实现必须是线程安全的</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SingletonFilter {
+}
@@ -3,11 +3,15 @@ package com.dtflys.forest.filter;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.converter.xml.ForestXmlConverter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author gongjun[dt_flys@hotmail.com]
  * @since 2017-12-15 14:56
  */
-public class XmlFilter implements Filter {
+@SingletonFilter
+public class XmlFilter implements BodyFilter {
 
     @Override
     public Object doFilter(ForestConfiguration configuration, Object data) {
@@ -16,4 +20,9 @@ public class XmlFilter implements Filter {
         return xml;
     }
 
+    @Override
+    public void writeBody(ForestConfiguration configuration, Object data, OutputStream out, String charset) throws IOException {
+        configuration.getXmlConverter().writeXml(data, out, charset);
+    }
+
 }
@@ -4,6 +4,7 @@ import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 
 import java.lang.reflect.Type;
+import java.util.concurrent.Future;
 
 
 /**
@@ -28,6 +29,14 @@ public interface ResponseHandler {
 
     Object handleResult(Object resultData);
 
+    /**
+     * 接收异步请求的Future，响应处理完成时Future随之完成
+     * @param future
+     */
+    default void handleFuture(Future future) {
+        handleResult(future);
+    }
+
     Type getOnSuccessClassGenericType();
 
     Type getReturnType();
@@ -0,0 +1,246 @@
+package com.dtflys.forest.handler;
+
+import com.dtflys.forest.converter.ForestConverter;
+import com.dtflys.forest.converter.ForestTypeConverter;
+import com.dtflys.forest.exceptions.ForestHandlerException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.ForestDataType;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+/**
+ * 结果解码器
+ * <p>根据结果类型预先选定解码方式，处理响应时不再逐一判断结果类型，
+ * 需要转换的结果类型会缓存转换器为该类型构建的 {@link ForestTypeConverter}；
+ * void和boolean结果不读取响应体，由后端在处理结束后丢弃</p>
+ */
+public abstract class ResultDecoder {
+
+    protected final Type resultType;
+
+    protected final Class resultClass;
+
+    protected ResultDecoder(Type resultType, Class resultClass) {
+        this.resultType = resultType;
+        this.resultClass = resultClass;
+    }
+
+    /**
+     * 根据结果类型创建解码器
+     * @param resultType
+     * @param resultClass
+     * @return
+     */
+    public static ResultDecoder create(Type resultType, Class resultClass) {
+        if (void.class == resultClass) {
+            return new VoidDecoder(resultType, resultClass);
+        }
+        if (ForestResponse.class.isAssignableFrom(resultClass)) {
+            return new ResponseDecoder(resultType, resultClass);
+        }
+        if (boolean.class == resultClass || Boolean.class == resultClass) {
+            return new BooleanDecoder(resultType, resultClass);
+        }
+        if (byte[].class == resultClass) {
+            return new ByteArrayDecoder(resultType, resultClass);
+        }
+        if (CharSequence.class.isAssignableFrom(resultClass)) {
+            return new TextDecoder(resultType, resultClass);
+        }
+        if (InputStream.class.isAssignableFrom(resultClass)) {
+            return new InputStreamDecoder(resultType, resultClass);
+        }
+        return new ConvertingDecoder(resultType, resultClass);
+    }
+
+    public Type getResultType() {
+        return resultType;
+    }
+
+    public Class getResultClass() {
+        return resultClass;
+    }
+
+    public Object decode(ForestRequest request, ForestResponse response) {
+        Object result = response.getResult();
+        if (result != null && resultClass.isInstance(result)) {
+            return result;
+        }
+        if (!response.isReceivedResponseData()) {
+            return null;
+        }
+        try {
+            return decodeReceived(request, response, result);
+        } catch (Exception e) {
+            throw new ForestHandlerException(e, request, response);
+        }
+    }
+
+    protected abstract Object decodeReceived(ForestRequest request, ForestResponse response, Object result) throws Exception;
+
+    /**
+     * 获取响应文本并写回响应
+     */
+    protected static String readText(ForestResponse response, Object result) {
+        if (result instanceof CharSequence) {
+            String responseText = result.toString();
+            response.setContent(responseText);
+            return responseText;
+        }
+        return response.getContent();
+    }
+
+
+    private static class VoidDecoder extends ResultDecoder {
+
+        VoidDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) {
+            return null;
+        }
+    }
+
+
+    private static class ResponseDecoder extends ResultDecoder {
+
+        ResponseDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        public Object decode(ForestRequest request, ForestResponse response) {
+            Object result = response.getResult();
+            if (result != null && resultClass.isInstance(result)) {
+                return result;
+            }
+            return decodeReceived(request, response, result);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) {
+            // 响应对象会在连接释放后交给调用方，先读取响应体
+            response.getContentBytes();
+            return response;
+        }
+    }
+
+
+    private static class BooleanDecoder extends ResultDecoder {
+
+        BooleanDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) {
+            return response.isSuccess();
+        }
+    }
+
+
+    private static class ByteArrayDecoder extends ResultDecoder {
+
+        ByteArrayDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) throws Exception {
+            return response.getReceivedDataAsByteArray();
+        }
+    }
+
+
+    private static class TextDecoder extends ResultDecoder {
+
+        TextDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) {
+            return readText(response, result);
+        }
+    }
+
+
+    private static class InputStreamDecoder extends ResultDecoder {
+
+        InputStreamDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) throws Exception {
+            if (result instanceof CharSequence) {
+                readText(response, result);
+            }
+            // 响应体未被读取时直接交出连接上的输入流
+            return response.getReceivedDataAsInputStream();
+        }
+    }
+
+
+    /**
+     * 通过转换器转换的结果类型，按数据类型缓存转换器构建的类型转换器，
+     * 配置中的转换器被替换后会重新构建
+     */
+    private static class ConvertingDecoder extends ResultDecoder {
+
+        private final TypeConverterEntry[] entries = new TypeConverterEntry[ForestDataType.values().length];
+
+        ConvertingDecoder(Type resultType, Class resultClass) {
+            super(resultType, resultClass);
+        }
+
+        @Override
+        protected Object decodeReceived(ForestRequest request, ForestResponse response, Object result) {
+            ForestDataType dataType = request.getDataType();
+            if (dataType == ForestDataType.TEXT) {
+                return readText(response, result);
+            }
+            ForestConverter converter = request.getConfiguration().getConverter(dataType);
+            ForestTypeConverter typeConverter = getTypeConverter(dataType, converter);
+            byte[] contentBytes = response.getContentBytes();
+            if (!(result instanceof CharSequence) && contentBytes != null) {
+                // 直接由转换器解析响应字节，不产生中间字符串；
+                // XML没有在响应中声明字符集时由文档自身的编码声明决定
+                Charset charset = dataType == ForestDataType.XML ?
+                        response.getDeclaredCharset() : response.getContentCharset();
+                return typeConverter.convert(contentBytes, charset);
+            }
+            return typeConverter.convert(readText(response, result));
+        }
+
+        private ForestTypeConverter getTypeConverter(ForestDataType dataType, ForestConverter converter) {
+            int index = dataType.ordinal();
+            TypeConverterEntry entry = entries[index];
+            if (entry == null || entry.converter != converter) {
+                // 并发时可能重复构建，结果相同，不需要加锁
+                entry = new TypeConverterEntry(converter, converter.getTypeConverter(resultType));
+                entries[index] = entry;
+            }
+            return entry.typeConverter;
+        }
+    }
+
+
+    private static final class TypeConverterEntry {
+
+        final ForestConverter converter;
+
+        final ForestTypeConverter typeConverter;
+
+        TypeConverterEntry(ForestConverter converter, ForestTypeConverter typeConverter) {
+            this.converter = converter;
+            this.typeConverter = typeConverter;
+        }
+    }
+
+}
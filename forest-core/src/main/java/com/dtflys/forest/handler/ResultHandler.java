@@ -1,13 +1,11 @@
 package com.dtflys.forest.handler;
 
-import com.dtflys.forest.converter.ForestConverter;
-import com.dtflys.forest.exceptions.ForestHandlerException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
-import com.dtflys.forest.utils.ForestDataType;
 
-import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -15,63 +13,69 @@ import java.lang.reflect.Type;
  */
 public class ResultHandler {
 
+    /**
+     * 按结果类型及其Class缓存的解码器
+     */
+    private final ConcurrentMap<DecoderKey, ResultDecoder> decoderCache = new ConcurrentHashMap<>();
+
     protected boolean isReceivedResponseData(ForestResponse response) {
         if (response == null) return false;
         return response.isReceivedResponseData();
     }
 
+    /**
+     * 获取结果类型对应的解码器
+     * @param resultType
+     * @param resultClass
+     * @return
+     */
+    public ResultDecoder getDecoder(Type resultType, Class resultClass) {
+        DecoderKey key = new DecoderKey(resultType, resultClass);
+        ResultDecoder decoder = decoderCache.get(key);
+        if (decoder == null) {
+            decoder = ResultDecoder.create(resultType, resultClass);
+            ResultDecoder existing = decoderCache.putIfAbsent(key, decoder);
+            if (existing != null) {
+                decoder = existing;
+            }
+        }
+        return decoder;
+    }
 
     public Object getResult(ForestRequest request, ForestResponse response, Type resultType, Class resultClass) {
-        Object result = response.getResult();
-        if (result != null && resultClass.isAssignableFrom(result.getClass())) {
-            return result;
-        }
-        if (isReceivedResponseData(response)) {
-            try {
-                if (void.class.isAssignableFrom(resultClass)) {
-                    return null;
-                }
-                if (ForestResponse.class.isAssignableFrom(resultClass)) {
-                    return response;
-                }
-                if (boolean.class.isAssignableFrom(resultClass) || Boolean.class.isAssignableFrom(resultClass)) {
-                    return response.isSuccess();
-                }
-                if (resultClass.isArray()) {
-                    if (byte[].class.isAssignableFrom(resultClass)) {
-                        return response.getReceivedDataAsByteArray();
-                    }
-                }
-                String responseText = null;
-                if (result != null && CharSequence.class.isAssignableFrom(result.getClass())) {
-                    responseText = result.toString();
-                }
-                else {
-                    responseText = response.getContent();
-                }
-                response.setContent(responseText);
-                if (CharSequence.class.isAssignableFrom(resultClass)) {
-                    return responseText;
-                }
-                if (InputStream.class.isAssignableFrom(resultClass)) {
-                    return response.getReceivedDataAsInputStream();
-                }
+        return getDecoder(resultType, resultClass).decode(request, response);
+    }
+
 
-                ForestDataType dataType = request.getDataType();
-                if (dataType.equals(ForestDataType.TEXT)) {
-                    return responseText;
-                }
-                ForestConverter converter = request.getConfiguration().getConverter(dataType);
-                return converter.convertToJavaObject(responseText, resultType);
+    /**
+     * 解码器的缓存键，同一个结果类型可能对应不同的Class
+     */
+    private static final class DecoderKey {
 
-            } catch (Exception e) {
-                throw new ForestHandlerException(e, request, response);
+        private final Type resultType;
+
+        private final Class resultClass;
+
+        DecoderKey(Type resultType, Class resultClass) {
+            this.resultType = resultType;
+            this.resultClass = resultClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof DecoderKey)) {
+                return false;
+            }
+            DecoderKey other = (DecoderKey) o;
+            return resultType.equals(other.resultType) && resultClass == other.resultClass;
         }
-        else if (ForestResponse.class.isAssignableFrom(resultClass)) {
-            return response;
+
+        @Override
+        public int hashCode() {
+            return 31 * resultType.hashCode() + resultClass.hashCode();
         }
-        return null;
     }
-
 }
@@ -0,0 +1,60 @@
+package com.dtflys.forest.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步请求的Future
+ * <p>后端收到响应并处理完成后直接完成，等待结果不需要占用线程，可以通过回调和组合继续处理；
+ * 接口方法的返回类型可以声明为 {@link Future}、{@link CompletableFuture} 或 {@link CompletionStage}</p>
+ * <p>取消时会同时取消后端正在执行的请求并释放连接，之后收到的响应或错误直接丢弃，不再执行回调</p>
+ */
+public class ForestFuture<T> extends CompletableFuture<T> {
+
+    private final ForestRequest request;
+
+    /**
+     * 取消后端请求的操作，重试时替换为新请求的取消操作
+     */
+    private volatile Runnable canceller;
+
+    /**
+     * 已被取消的Future再次取消时仍返回true，只在第一次取消时取消后端请求并计数
+     */
+    private final AtomicBoolean cancelHandled = new AtomicBoolean(false);
+
+    public ForestFuture(ForestRequest request) {
+        this.request = request;
+    }
+
+    public ForestRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * 设置取消后端请求的操作，Future已被取消时立即执行
+     * @param canceller
+     */
+    public void setCanceller(Runnable canceller) {
+        this.canceller = canceller;
+        if (isCancelled()) {
+            canceller.run();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && cancelHandled.compareAndSet(false, true)) {
+            request.getConfiguration().recordCancelledRequest();
+            Runnable canceller = this.canceller;
+            if (canceller != null) {
+                canceller.run();
+            }
+        }
+        return cancelled;
+    }
+
+}
@@ -29,6 +29,7 @@ import com.dtflys.forest.ssl.SSLKeyStore;
 import com.dtflys.forest.callback.OnError;
 import com.dtflys.forest.callback.OnSuccess;
 import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRetryException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.backend.HttpExecutor;
@@ -43,6 +44,7 @@ import com.dtflys.forest.utils.StringUtils;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * @author gongjun[dt_flys@hotmail.com]
@@ -74,9 +76,13 @@ public class ForestRequest<T> {
 
     private int retryCount = 0;
 
-    private Map<String, Object> data = new LinkedHashMap<String, Object>();
+    private final NameValueArray data = new NameValueArray();
 
-    private Map<String, Object> headers = new LinkedHashMap<>();
+    private final NameValueArray headers = new NameValueArray(true);
+
+    private final Map<String, Object> dataMap = new NameValueMap(data);
+
+    private final Map<String, Object> headerMap = new NameValueMap(headers);
 
     private Object[] arguments;
 
@@ -96,6 +102,8 @@ public class ForestRequest<T> {
 
     private SSLKeyStore keyStore;
 
+    private Executor callbackExecutor;
+
     public ForestRequest(ForestConfiguration configuration) {
         this.configuration = configuration;
     }
@@ -203,7 +211,19 @@ public class ForestRequest<T> {
         return this;
     }
 
+    /**
+     * 获取请求参数的Map视图，对Map的修改直接作用于请求参数
+     * @return
+     */
     public Map<String, Object> getData() {
+        return dataMap;
+    }
+
+    /**
+     * 获取请求参数数组，保持添加顺序并包含重复的参数，可以按下标直接遍历
+     * @return
+     */
+    public NameValueArray getDataArray() {
         return data;
     }
 
@@ -214,34 +234,62 @@ public class ForestRequest<T> {
     }
 
 
+    /**
+     * 添加请求参数，URL中的查询参数允许重复，其它参数会替换已有的同名参数
+     * @param nameValue
+     * @return
+     */
     public ForestRequest addData(RequestNameValue nameValue) {
-        this.data.put(nameValue.getName(), nameValue.getValue());
+        if (nameValue.isInQuery()) {
+            this.data.add(nameValue.getName(), nameValue.getValue());
+        } else {
+            this.data.put(nameValue.getName(), nameValue.getValue());
+        }
         return this;
     }
 
     public ForestRequest addData(List<RequestNameValue> data) {
-        putMapAddList(this.data, data);
+        for (int i = 0; i < data.size(); i++) {
+            addData(data.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * 添加请求参数，不替换已有的同名参数
+     * @param name
+     * @param value
+     * @return
+     */
+    public ForestRequest appendData(String name, Object value) {
+        this.data.add(name, value);
         return this;
     }
 
+    /**
+     * 获取请求参数列表的副本，遍历请求参数时应直接使用 {@link #getDataArray()}
+     * @return
+     */
     public List<RequestNameValue> getDataNameValueList() {
-        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>();
-        for (Iterator<Map.Entry<String, Object>> iterator = data.entrySet().iterator(); iterator.hasNext(); ) {
-            Map.Entry<String, Object> entry = iterator.next();
-            String name = entry.getKey();
-            Object value = entry.getValue();
-            RequestNameValue nameValue = new RequestNameValue(name, value, false);
-            nameValueList.add(nameValue);
+        return toNameValueList(data);
+    }
+
+    /**
+     * 获取请求头列表的副本，遍历请求头时应直接使用 {@link #getHeaderArray()}
+     * @return
+     */
+    public List<RequestNameValue> getHeaderNameValueList() {
+        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            nameValueList.add(new RequestNameValue(headers.getName(i), String.valueOf(headers.getValue(i)), false));
         }
         return nameValueList;
     }
 
-    public List<RequestNameValue> getHeaderNameValueList() {
-        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>();
-        for (Iterator<Map.Entry<String, Object>> iterator = headers.entrySet().iterator(); iterator.hasNext(); ) {
-            Map.Entry<String, Object> entry = iterator.next();
-            RequestNameValue nameValue = new RequestNameValue(entry.getKey(), String.valueOf(entry.getValue()), false);
-            nameValueList.add(nameValue);
+    private static List<RequestNameValue> toNameValueList(NameValueArray nameValues) {
+        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>(nameValues.size());
+        for (int i = 0; i < nameValues.size(); i++) {
+            nameValueList.add(new RequestNameValue(nameValues.getName(i), nameValues.getValue(i), false));
         }
         return nameValueList;
     }
@@ -256,7 +304,19 @@ public class ForestRequest<T> {
     }
 
 
+    /**
+     * 获取请求头的Map视图，对Map的修改直接作用于请求头
+     * @return
+     */
     public Map<String, Object> getHeaders() {
+        return headerMap;
+    }
+
+    /**
+     * 获取请求头数组，保持添加顺序并包含重复的请求头，可以按下标直接遍历
+     * @return
+     */
+    public NameValueArray getHeaderArray() {
         return headers;
     }
 
@@ -275,15 +335,24 @@ public class ForestRequest<T> {
 
 
     public ForestRequest addHeaders(List<RequestNameValue> headers) {
-        putMapAddList(this.headers, headers);
+        for (int i = 0; i < headers.size(); i++) {
+            addHeader(headers.get(i));
+        }
         return this;
     }
 
-    private void putMapAddList(Map<String, Object> map, List<RequestNameValue> source) {
-        for (int i = 0; i < source.size(); i++) {
-            RequestNameValue nameValue = source.get(i);
-            map.put(nameValue.getName(), nameValue.getValue());
+    /**
+     * 添加请求头，不替换已有的同名请求头
+     * @param name
+     * @param value
+     * @return
+     */
+    public ForestRequest appendHeader(String name, Object value) {
+        if (StringUtils.isEmpty(name)) {
+            return this;
         }
+        this.headers.add(name, value);
+        return this;
     }
 
     public String getRequestBody() {
@@ -338,6 +407,27 @@ public class ForestRequest<T> {
         this.retryer = retryer;
     }
 
+    /**
+     * 请求失败后获取重试前的等待时间，没有设置重试器时使用全局配置的重试器
+     * @param currentRetryCount 已经重试的次数
+     * @param response 收到的错误响应，网络错误时为null
+     * @param cause 失败的原因
+     * @return 等待时间（毫秒），不再重试时返回-1
+     */
+    public long nextRetryDelay(int currentRetryCount, ForestResponse response, Throwable cause) {
+        if (currentRetryCount >= retryCount) {
+            return -1;
+        }
+        Retryer retryer = this.retryer;
+        if (retryer == null && configuration != null) {
+            retryer = configuration.getRetryer();
+        }
+        if (retryer == null) {
+            return -1;
+        }
+        return retryer.nextRetryDelay(new ForestRetryException(cause, this, response, retryCount, currentRetryCount));
+    }
+
     public boolean isLogEnable() {
         return logEnable;
     }
@@ -356,10 +446,26 @@ public class ForestRequest<T> {
         return this;
     }
 
+    /**
+     * 获取异步请求的回调执行器，为null时使用全局配置的回调执行器
+     * @return
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public ForestRequest setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        return this;
+    }
+
     public void execute(HttpBackend backend, ResponseHandler responseHandler) {
         HttpExecutor executor  = backend.createExecutor(this, responseHandler);
         if (executor != null) {
             if (interceptorChain.beforeExecute(this)) {
+                if (retryCount > 0 && configuration != null) {
+                    configuration.getRetryBudget().recordRequest(getUrl());
+                }
                 try {
                     executor.execute(responseHandler);
                 } catch (ForestRuntimeException e) {
@@ -25,7 +25,13 @@
 package com.dtflys.forest.http;
 
 
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author gongjun[dt_flys@hotmail.com]
@@ -38,6 +44,27 @@ public abstract class ForestResponse<T> {
     protected volatile String content;
     protected volatile T result;
 
+    /**
+     * 未解码的响应内容，解析结果时直接交给转换器，只有需要字符串时才解码
+     */
+    protected volatile byte[] contentBytes;
+    protected volatile Charset contentCharset;
+
+    /**
+     * 响应的Content-Type中声明的字符集，没有声明时为null
+     */
+    protected volatile Charset declaredCharset;
+
+    /**
+     * 响应体是否已被读取、丢弃或以输入流交出，连接上的响应体只能消费一次
+     */
+    private volatile boolean contentConsumed;
+
+    /**
+     * 读取响应体时持有的锁，读取过程会阻塞在网络IO上，不使用synchronized，避免占住虚拟线程的载体线程
+     */
+    private final ReentrantLock contentLock = new ReentrantLock();
+
     public ForestResponse(ForestRequest request) {
         this.request = request;
     }
@@ -46,14 +73,176 @@ public abstract class ForestResponse<T> {
         return request;
     }
 
-    public synchronized void setContent(String content) {
-        this.content = content;
+    /**
+     * 设置响应内容，会替换之前设置的未解码内容，还未读取的响应体会被丢弃
+     * @param content
+     */
+    public void setContent(String content) {
+        contentLock.lock();
+        try {
+            discardUnconsumedContent();
+            this.content = content;
+            this.contentBytes = null;
+        } finally {
+            contentLock.unlock();
+        }
     }
 
+    /**
+     * 获取响应内容，响应体在第一次获取时读取并解码
+     * @return
+     */
     public String getContent() {
+        String content = this.content;
+        if (content == null) {
+            getContentBytes();
+            contentLock.lock();
+            try {
+                byte[] bytes = this.contentBytes;
+                if (this.content == null && bytes != null) {
+                    this.content = new String(bytes, contentCharset);
+                }
+                content = this.content;
+            } finally {
+                contentLock.unlock();
+            }
+        }
         return content;
     }
 
+    /**
+     * 设置未解码的响应内容，还未读取的响应体会被丢弃
+     * @param contentBytes
+     * @param contentCharset
+     */
+    public void setContentBytes(byte[] contentBytes, Charset contentCharset) {
+        contentLock.lock();
+        try {
+            discardUnconsumedContent();
+            this.contentCharset = contentCharset;
+            this.contentBytes = contentBytes;
+            this.content = null;
+        } finally {
+            contentLock.unlock();
+        }
+    }
+
+    /**
+     * 获取未解码的响应内容，响应体在第一次获取时读取，
+     * 响应内容已被 {@link #setContent(String)} 替换或响应体已以输入流交出时返回null
+     * @return
+     */
+    public byte[] getContentBytes() {
+        if (!contentConsumed) {
+            contentLock.lock();
+            try {
+                if (!contentConsumed) {
+                    contentConsumed = true;
+                    this.contentBytes = readContentBytes();
+                }
+            } catch (IOException e) {
+                throw new ForestRuntimeException(e);
+            } finally {
+                contentLock.unlock();
+            }
+        }
+        return contentBytes;
+    }
+
+    public Charset getContentCharset() {
+        return contentCharset;
+    }
+
+    /**
+     * 获取响应的Content-Type中声明的字符集
+     * <p>与 {@link #getContentCharset()} 不同，没有声明时返回null而不是默认字符集，
+     * 自身可以声明编码的内容（如XML）在没有声明时应按内容自身的声明解码</p>
+     * @return
+     */
+    public Charset getDeclaredCharset() {
+        return declaredCharset;
+    }
+
+    /**
+     * 获取响应内容的输入流
+     * <p>响应体还未读取时直接交出连接上的输入流，不在内存中缓冲，由调用方关闭；
+     * 之后响应内容不再可用</p>
+     * @return
+     */
+    public InputStream getContentStream() {
+        contentLock.lock();
+        try {
+            if (!contentConsumed) {
+                contentConsumed = true;
+                return openContentStream();
+            }
+        } catch (IOException e) {
+            throw new ForestRuntimeException(e);
+        } finally {
+            contentLock.unlock();
+        }
+        byte[] bytes = this.contentBytes;
+        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+    }
+
+    /**
+     * 响应内容是否已在内存中，为true时获取内容不会再访问连接
+     * @return
+     */
+    public boolean isContentAvailable() {
+        return content != null || contentBytes != null;
+    }
+
+    /**
+     * 释放响应体，还未读取的响应体会被丢弃而不解码，连接尽早归还连接池；
+     * 已读取的内容仍然可以获取
+     */
+    public void close() {
+        contentLock.lock();
+        try {
+            discardUnconsumedContent();
+        } finally {
+            contentLock.unlock();
+        }
+    }
+
+    private void discardUnconsumedContent() {
+        if (contentConsumed) {
+            return;
+        }
+        contentConsumed = true;
+        try {
+            discardContent();
+        } catch (IOException e) {
+            // 丢弃失败时连接不会被复用，不影响已经得到的结果
+        }
+    }
+
+    /**
+     * 从连接读取全部响应体，由各后端实现，只会被调用一次
+     * @return 响应体字节，没有响应体时返回null
+     * @throws IOException
+     */
+    protected byte[] readContentBytes() throws IOException {
+        return null;
+    }
+
+    /**
+     * 打开连接上的响应体输入流，由各后端实现，只会被调用一次
+     * @return 响应体输入流，没有响应体时返回null
+     * @throws IOException
+     */
+    protected InputStream openContentStream() throws IOException {
+        return null;
+    }
+
+    /**
+     * 丢弃还未读取的响应体，由各后端实现，只会被调用一次
+     * @throws IOException
+     */
+    protected void discardContent() throws IOException {
+    }
+
     public T getResult() {
         return result;
     }
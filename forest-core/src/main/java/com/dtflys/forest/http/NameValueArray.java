@@ -0,0 +1,183 @@
+package com.dtflys.forest.http;
+
+import java.util.Arrays;
+
+/**
+ * 有序的名称/值数组
+ * <p>以两个平行数组保存请求参数或请求头，保持添加顺序并允许同名的多个值，
+ * 使用时可以直接按下标遍历而不需要复制</p>
+ */
+public class NameValueArray {
+
+    private final static int DEFAULT_CAPACITY = 8;
+
+    /**
+     * 名称是否忽略大小写，请求头的名称忽略大小写
+     */
+    private final boolean ignoreCase;
+
+    private String[] names;
+
+    private Object[] values;
+
+    private int size;
+
+    public NameValueArray() {
+        this(false);
+    }
+
+    public NameValueArray(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.names = new String[DEFAULT_CAPACITY];
+        this.values = new Object[DEFAULT_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getName(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    public Object getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void setValue(int index, Object value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private boolean nameEquals(String name1, String name2) {
+        if (name1 == name2) {
+            return true;
+        }
+        if (name1 == null || name2 == null) {
+            return false;
+        }
+        return ignoreCase ? name1.equalsIgnoreCase(name2) : name1.equals(name2);
+    }
+
+    /**
+     * 获取第一个同名项的下标，不存在时返回-1
+     * @param name
+     * @return
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (nameEquals(names[i], name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsName(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * 获取第一个同名项的值
+     * @param name
+     * @return
+     */
+    public Object get(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * 在末尾添加一项，不影响已有的同名项
+     * @param name
+     * @param value
+     */
+    public void add(String name, Object value) {
+        if (size == names.length) {
+            int capacity = size << 1;
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        names[size] = ignoreCase && name != null ? name.intern() : name;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * 设置值，已有同名项时替换第一项的值并移除其余同名项，否则在末尾添加
+     * @param name
+     * @param value
+     */
+    public void put(String name, Object value) {
+        int index = indexOf(name);
+        if (index < 0) {
+            add(name, value);
+            return;
+        }
+        values[index] = value;
+        for (int i = size - 1; i > index; i--) {
+            if (nameEquals(names[i], name)) {
+                removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * 移除所有同名项
+     * @param name
+     * @return 第一个被移除项的值
+     */
+    public Object remove(String name) {
+        Object removed = null;
+        boolean found = false;
+        for (int i = size - 1; i >= 0; i--) {
+            if (nameEquals(names[i], name)) {
+                removed = values[i];
+                found = true;
+                removeAt(i);
+            }
+        }
+        return found ? removed : null;
+    }
+
+    void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(names, index + 1, names, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        size--;
+        names[size] = null;
+        values[size] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(names[i]).append('=').append(values[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.dtflys.forest.http;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link NameValueArray} 的Map视图，读写直接作用于数组
+ * <p>put按 {@link NameValueArray#put} 替换同名项，get返回第一个同名项的值；
+ * 允许重复的名称（如重复的URL查询参数）在遍历时会作为多个项出现</p>
+ */
+class NameValueMap extends AbstractMap<String, Object> {
+
+    private final NameValueArray array;
+
+    private Set<Entry<String, Object>> entrySet;
+
+    NameValueMap(NameValueArray array) {
+        this.array = array;
+    }
+
+    @Override
+    public int size() {
+        return array.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return array.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && array.containsName((String) key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String ? array.get((String) key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object old = array.get(key);
+        array.put(key, value);
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return key instanceof String ? array.remove((String) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        array.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return array.size();
+                }
+
+                @Override
+                public void clear() {
+                    array.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next = 0;
+
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < array.size();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next >= array.size()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new ArrayEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            array.removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    private class ArrayEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        private ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return array.getName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return array.getValue(index);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = array.getValue(index);
+            array.setValue(index, value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry e = (Map.Entry) o;
+            return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            String key = getKey();
+            Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private static boolean eq(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+}
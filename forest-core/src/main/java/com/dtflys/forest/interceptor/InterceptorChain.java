@@ -4,6 +4,7 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -20,6 +21,11 @@ public class InterceptorChain implements Interceptor {
         return this;
     }
 
+    public synchronized InterceptorChain addInterceptors(Interceptor[] interceptors) {
+        Collections.addAll(this.interceptors, interceptors);
+        return this;
+    }
+
     public int getInterceptorSize() {
         return interceptors.size();
     }
@@ -2,10 +2,8 @@ package com.dtflys.forest.mapping;
 
 import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
-import com.dtflys.forest.utils.StringUtils;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import com.dtflys.forest.reflection.MethodAccessor;
+import com.dtflys.forest.reflection.MethodAccessorCache;
 
 /**
  * @author gongjun
@@ -13,9 +11,19 @@ import java.lang.reflect.Method;
  */
 public class MappingDot extends MappingExpr {
 
+    /**
+     * 内联缓存最多记录的对象类型数，超过后直接查询全局的访问器缓存
+     */
+    private final static int INLINE_CACHE_SIZE = 4;
+
     protected final MappingExpr left;
     protected final MappingIdentity right;
 
+    /**
+     * 按对象类型记录已解析的访问器，同一表达式的对象类型通常只有一种或少数几种
+     */
+    private volatile InlineCacheEntry[] inlineCache = new InlineCacheEntry[0];
+
     public MappingDot(VariableScope variableScope, MappingExpr left, MappingIdentity right) {
         this(Token.DOT, variableScope, left, right);
     }
@@ -29,30 +37,59 @@ public class MappingDot extends MappingExpr {
 
 
     public Object render(Object[] args) {
+        Object obj = renderLeft(args);
+        return getAccessor(obj.getClass()).invoke(obj);
+    }
+
+    protected Object renderLeft(Object[] args) {
         Object obj = left.render(args);
-        String getterName = StringUtils.toGetterName(right.getName());
-        Method method = null;
-        try {
-            method = obj.getClass().getDeclaredMethod(getterName);
-        } catch (NoSuchMethodException e) {
-            try {
-                method = obj.getClass().getDeclaredMethod(right.getName());
-            } catch (NoSuchMethodException e1) {
-                e1.printStackTrace();
+        if (obj == null) {
+            throw new ForestRuntimeException("Cannot access '" + right.getName() + "' of null value " + left);
+        }
+        return obj;
+    }
+
+    protected MethodAccessor getAccessor(Class clazz) {
+        InlineCacheEntry[] entries = inlineCache;
+        for (int i = 0; i < entries.length; i++) {
+            InlineCacheEntry entry = entries[i];
+            if (entry.type == clazz) {
+                return entry.accessor;
             }
         }
-        try {
-            Object result = method.invoke(obj);
-            return result;
-        } catch (InvocationTargetException e) {
-            throw new ForestRuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new ForestRuntimeException(e);
+        MethodAccessor accessor = lookupAccessor(clazz);
+        if (entries.length < INLINE_CACHE_SIZE) {
+            InlineCacheEntry[] newEntries = new InlineCacheEntry[entries.length + 1];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            newEntries[entries.length] = new InlineCacheEntry(clazz, accessor);
+            inlineCache = newEntries;
+        }
+        return accessor;
+    }
+
+    protected MethodAccessor lookupAccessor(Class clazz) {
+        MethodAccessor accessor = MethodAccessorCache.getGetter(clazz, right.getName());
+        if (accessor == null) {
+            throw new ForestRuntimeException("Cannot find property '" + right.getName() + "' in " + clazz.getName());
         }
+        return accessor;
     }
 
     @Override
     public String toString() {
         return "[Dot: " + left.toString() + "." + right + "]";
     }
+
+
+    private static class InlineCacheEntry {
+
+        final Class type;
+
+        final MethodAccessor accessor;
+
+        InlineCacheEntry(Class type, MethodAccessor accessor) {
+            this.type = type;
+            this.accessor = accessor;
+        }
+    }
 }
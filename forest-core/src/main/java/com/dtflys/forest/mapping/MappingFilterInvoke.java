@@ -3,6 +3,7 @@ package com.dtflys.forest.mapping;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.filter.Filter;
+import com.dtflys.forest.filter.SingletonFilter;
 
 import java.util.List;
 
@@ -12,15 +13,37 @@ import java.util.List;
  */
 public class MappingFilterInvoke extends MappingInvoke {
 
+    /**
+     * 在解析模板时取得的共享过滤器实例，过滤器不是 {@link SingletonFilter} 时为null，每次渲染都创建新的实例
+     */
+    private volatile Filter singletonFilter;
+
     public MappingFilterInvoke(VariableScope variableScope, MappingIdentity name, List<MappingExpr> argList) {
         super(Token.FINVOKE, variableScope, null, name, argList);
+        ForestConfiguration configuration = variableScope.getConfiguration();
+        if (configuration != null && configuration.hasFilter(name.getName())) {
+            resolveFilter(configuration);
+        }
+    }
+
+    private Filter resolveFilter(ForestConfiguration configuration) {
+        Filter filter = configuration.getFilter(right.getName());
+        if (filter.getClass().isAnnotationPresent(SingletonFilter.class)) {
+            singletonFilter = filter;
+        }
+        return filter;
     }
 
     @Override
     public Object render(Object[] args) {
         ForestConfiguration configuration = variableScope.getConfiguration();
-        Filter filter = configuration.newFilterInstance(right.getName());
-        return filter.doFilter(configuration, args[0]);
+        Filter filter = singletonFilter;
+        if (filter == null) {
+            filter = resolveFilter(configuration);
+        }
+        List<MappingExpr> argList = getArgList();
+        Object data = argList == null || argList.isEmpty() ? args[0] : argList.get(0).render(args);
+        return filter.doFilter(configuration, data);
     }
 
     @Override
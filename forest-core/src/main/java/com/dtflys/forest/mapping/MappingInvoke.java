@@ -2,10 +2,10 @@ package com.dtflys.forest.mapping;
 
 import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.reflection.MethodAccessor;
+import com.dtflys.forest.reflection.MethodAccessorCache;
 import org.apache.commons.collections.CollectionUtils;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 
 /**
@@ -31,31 +31,28 @@ public class MappingInvoke extends MappingDot {
 
     @Override
     public Object render(Object[] args) {
-        Object obj = left.render(args);
-        String methodName = right.getName();
-        try {
-            Method method = obj.getClass().getDeclaredMethod(methodName);
-            Object result = null;
-            if (CollectionUtils.isEmpty(argList)) {
-                result = method.invoke(obj);
-            }
-            else {
-                Object[] renderArgs = new Object[argList.size()];
-                for (int i = 0, len = argList.size(); i < len; i++) {
-                    MappingExpr expr = argList.get(i);
-                    renderArgs[i] = expr.render(args);
-                }
-                result = method.invoke(obj, renderArgs);
-            }
-            return result;
-        } catch (NoSuchMethodException e) {
-            throw new ForestRuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new ForestRuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new ForestRuntimeException(e);
+        Object obj = renderLeft(args);
+        MethodAccessor accessor = getAccessor(obj.getClass());
+        if (CollectionUtils.isEmpty(argList)) {
+            return accessor.invoke(obj);
         }
+        Object[] renderArgs = new Object[argList.size()];
+        for (int i = 0, len = argList.size(); i < len; i++) {
+            MappingExpr expr = argList.get(i);
+            renderArgs[i] = expr.render(args);
+        }
+        return accessor.invoke(obj, renderArgs);
+    }
 
+    @Override
+    protected MethodAccessor lookupAccessor(Class clazz) {
+        int argCount = argList == null ? 0 : argList.size();
+        MethodAccessor accessor = MethodAccessorCache.getMethod(clazz, right.getName(), argCount);
+        if (accessor == null) {
+            throw new ForestRuntimeException("Cannot find method '" + right.getName() +
+                    "' with " + argCount + " parameters in " + clazz.getName());
+        }
+        return accessor;
     }
 
     @Override
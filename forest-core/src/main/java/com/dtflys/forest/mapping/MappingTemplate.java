@@ -1,9 +1,7 @@
 package com.dtflys.forest.mapping;
 
 
-import com.dtflys.forest.config.VariableScope;
-import com.dtflys.forest.reflection.ForestMethod;
-import com.dtflys.forest.utils.StringUtils;
+import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
@@ -21,6 +19,26 @@ public class MappingTemplate {
     private List<MappingExpr> exprList;
     private VariableScope variableScope;
 
+    /**
+     * 不包含任何表达式的模板的渲染结果，直接返回而无需每次渲染
+     */
+    private String constantText;
+
+    /**
+     * 模板开头的常量部分
+     */
+    private String constantPrefix;
+
+    /**
+     * 编译后的渲染器，在第一次渲染时创建，全局变量被修改后重新创建
+     */
+    private volatile Renderer renderer;
+
+    /**
+     * 上一次渲染结果的长度，用于预分配缓冲区大小
+     */
+    private int lastRenderLength = -1;
+
     int readIndex = -1;
 
     private boolean isEnd() {
@@ -112,6 +130,46 @@ public class MappingTemplate {
             MappingString str = new MappingString(buffer.toString());
             exprList.add(str);
         }
+
+        renderer = null;
+        lastRenderLength = -1;
+        StringBuilder prefixBuilder = new StringBuilder();
+        for (int i = 0; i < exprList.size() && exprList.get(i) instanceof MappingString; i++) {
+            prefixBuilder.append(((MappingString) exprList.get(i)).getText());
+        }
+        constantPrefix = prefixBuilder.toString();
+        if (isConstant()) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < exprList.size(); i++) {
+                builder.append(((MappingString) exprList.get(i)).getText());
+            }
+            constantText = builder.toString();
+        } else {
+            constantText = null;
+        }
+    }
+
+
+    /**
+     * 模板是否为不包含任何表达式的常量
+     * @return
+     */
+    public boolean isConstant() {
+        for (int i = 0; i < exprList.size(); i++) {
+            if (!(exprList.get(i) instanceof MappingString)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * 获取模板开头的常量部分，渲染结果总是以此开头
+     * @return
+     */
+    public String getConstantPrefix() {
+        return constantPrefix;
     }
 
 
@@ -332,32 +390,31 @@ public class MappingTemplate {
 
 
     public String render(Object[] args) {
-        ForestJsonConverter jsonConverter = variableScope.getConfiguration().getJsonConverter();
-        int len = exprList.size();
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < len; i++) {
-            MappingExpr expr = exprList.get(i);
-            Object val = null;
-            if (expr instanceof MappingString) {
-                builder.append(((MappingString) expr).getText());
-            }
-            else if (expr instanceof MappingIndex) {
-                try {
-                    val = args[((MappingIndex) expr).getIndex()];
-                } catch (Exception ex) {
-                }
-                if (val != null) {
-                    builder.append(getParameterValue(jsonConverter, val));
-                }
-            }
-            else {
-                val = expr.render(args);
-                if (val != null) {
-                    builder.append(getParameterValue(jsonConverter, val));
-                }
-            }
+        if (constantText != null) {
+            return constantText;
         }
-        return builder.toString();
+        ForestConfiguration configuration = variableScope.getConfiguration();
+        int variablesVersion = configuration == null ? 0 : configuration.getVariablesVersion();
+        Renderer currentRenderer = renderer;
+        if (currentRenderer == null || currentRenderer.variablesVersion != variablesVersion) {
+            // 先读取版本号再折叠变量值，折叠期间发生的修改会在下一次渲染时重新编译
+            currentRenderer = new Renderer(variablesVersion, configuration);
+            renderer = currentRenderer;
+        }
+        return currentRenderer.render(args);
+    }
+
+    /**
+     * 将参数值转换为字符串，只有值为Map或Collection时才需要获取JSON转换器
+     * @param value
+     * @return
+     */
+    private String toText(Object value) {
+        ForestJsonConverter jsonConverter = null;
+        if (value instanceof Map || value instanceof Collection) {
+            jsonConverter = variableScope.getConfiguration().getJsonConverter();
+        }
+        return getParameterValue(jsonConverter, value);
     }
 
     public static String getParameterValue(ForestJsonConverter jsonConverter, Object obj) {
@@ -385,4 +442,116 @@ public class MappingTemplate {
     public MappingTemplate valueOf(String value, ForestMethod forestMethod) {
         return new MappingTemplate(value, forestMethod);
     }
+
+
+    /**
+     * 编译后的模板渲染器
+     * <p>相邻的字符串常量、全局变量引用以及字面量在编译时被折叠为一个字符串片段，
+     * 渲染时只需计算依赖方法参数的表达式</p>
+     */
+    private final class Renderer {
+
+        final int variablesVersion;
+
+        /**
+         * 所有表达式都被折叠时的渲染结果
+         */
+        final String foldedText;
+
+        /**
+         * 渲染片段，每一项为折叠后的字符串或需要在渲染时计算的表达式
+         */
+        final Object[] segments;
+
+        /**
+         * 首次渲染时预估的结果长度
+         */
+        final int estimatedLength;
+
+        Renderer(int variablesVersion, ForestConfiguration configuration) {
+            this.variablesVersion = variablesVersion;
+            List<Object> segmentList = new ArrayList<Object>(exprList.size());
+            StringBuilder folded = new StringBuilder();
+            int length = 0;
+            for (int i = 0; i < exprList.size(); i++) {
+                MappingExpr expr = exprList.get(i);
+                String text = fold(expr, configuration);
+                if (text != null) {
+                    folded.append(text);
+                    continue;
+                }
+                if (folded.length() > 0) {
+                    segmentList.add(folded.toString());
+                    length += folded.length();
+                    folded.setLength(0);
+                }
+                segmentList.add(expr);
+                length += 16;
+            }
+            if (segmentList.isEmpty()) {
+                this.foldedText = folded.toString();
+                this.segments = null;
+            } else {
+                if (folded.length() > 0) {
+                    segmentList.add(folded.toString());
+                    length += folded.length();
+                }
+                this.foldedText = null;
+                this.segments = segmentList.toArray();
+            }
+            this.estimatedLength = length;
+        }
+
+        /**
+         * 在编译时计算表达式的值，无法在编译时确定值的表达式返回null
+         * @param expr
+         * @param configuration
+         * @return
+         */
+        private String fold(MappingExpr expr, ForestConfiguration configuration) {
+            if (expr instanceof MappingString) {
+                return ((MappingString) expr).getText();
+            }
+            if (expr instanceof MappingBoolean || expr instanceof MappingLong
+                    || expr instanceof MappingFloat || expr instanceof MappingDouble) {
+                return String.valueOf(expr.render(null));
+            }
+            if (expr instanceof MappingReference && configuration != null) {
+                String name = ((MappingReference) expr).getName();
+                if (variableScope.getVariable(name) == null) {
+                    // 不与方法参数绑定的引用只能取到全局变量
+                    Object value = configuration.getVariableValue(name);
+                    return value == null ? "" : toText(value);
+                }
+            }
+            return null;
+        }
+
+        String render(Object[] args) {
+            if (foldedText != null) {
+                return foldedText;
+            }
+            int capacity = lastRenderLength;
+            StringBuilder builder = new StringBuilder(capacity > 0 ? capacity : estimatedLength);
+            for (int i = 0; i < segments.length; i++) {
+                Object segment = segments[i];
+                if (segment instanceof String) {
+                    builder.append((String) segment);
+                    continue;
+                }
+                Object val;
+                if (segment instanceof MappingIndex) {
+                    int index = ((MappingIndex) segment).getIndex();
+                    val = args != null && index < args.length ? args[index] : null;
+                } else {
+                    val = ((MappingExpr) segment).render(args);
+                }
+                if (val != null) {
+                    builder.append(toText(val));
+                }
+            }
+            lastRenderLength = builder.length();
+            return builder.toString();
+        }
+    }
 }
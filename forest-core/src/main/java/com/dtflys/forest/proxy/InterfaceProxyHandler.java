@@ -44,6 +44,8 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
 
     private Integer baseRetryCount;
 
+    private String baseCallbackExecutor;
+
     public ProxyFactory getProxyFactory() {
         return proxyFactory;
     }
@@ -103,6 +105,7 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
                 baseRetryCount = baseRequestAnn.retryCount();
                 baseRetryCount = baseRetryCount == -1 ? null : baseRetryCount;
                 baseInterceptorClasses = baseRequestAnn.interceptor();
+                baseCallbackExecutor = baseRequestAnn.callbackExecutor();
             }
         }
     }
@@ -117,6 +120,15 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
         }
     }
 
+    /**
+     * 获取接口方法对应的Forest方法对象
+     * @param method
+     * @return
+     */
+    public ForestMethod getForestMethod(Method method) {
+        return forestMethodMap.get(method);
+    }
+
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         if (method.getName().equals("getProxyHandler") && (args == null || args.length == 0)) {
             return this;
@@ -158,6 +170,10 @@ public class InterfaceProxyHandler<T> implements InvocationHandler, VariableScop
         return baseRetryCount;
     }
 
+    public String getBaseCallbackExecutor() {
+        return baseCallbackExecutor;
+    }
+
     @Override
     public MappingVariable getVariable(String name) {
         return null;
@@ -1,10 +1,11 @@
 package com.dtflys.forest.proxy;
 
 import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * @author gongjun[dt_flys@hotmail.com]
@@ -12,6 +13,11 @@ import java.util.Map;
  */
 public class ProxyFactory<T> {
 
+    /**
+     * 编译期生成的客户端实现类的类名后缀，生成的类与接口位于同一个包中
+     */
+    public final static String GENERATED_CLIENT_SUFFIX = "$ForestClient";
+
     private ForestConfiguration configuration;
     private Class<T> interfaceClass;
 
@@ -40,7 +46,12 @@ public class ProxyFactory<T> {
                 return instance;
             }
             InterfaceProxyHandler<T> interfaceProxyHandler = new InterfaceProxyHandler<T>(configuration, this, interfaceClass);
-            instance = (T) Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class[]{interfaceClass, ForestClientProxy.class}, interfaceProxyHandler);
+            Constructor<T> generatedConstructor = getGeneratedClientConstructor();
+            if (generatedConstructor != null) {
+                instance = newGeneratedClient(generatedConstructor, interfaceProxyHandler);
+            } else {
+                instance = (T) Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class[]{interfaceClass, ForestClientProxy.class}, interfaceProxyHandler);
+            }
             if (cacheEnabled) {
                 configuration.getInstanceCache().put(interfaceClass, instance);
             }
@@ -48,4 +59,39 @@ public class ProxyFactory<T> {
         }
     }
 
+
+    /**
+     * 查找由注解处理器在编译期生成的客户端实现类，不存在时返回null
+     * @return
+     */
+    private Constructor<T> getGeneratedClientConstructor() {
+        String className = interfaceClass.getName() + GENERATED_CLIENT_SUFFIX;
+        Class<?> clientClass;
+        try {
+            clientClass = Class.forName(className, true, interfaceClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!interfaceClass.isAssignableFrom(clientClass)) {
+            return null;
+        }
+        try {
+            return (Constructor<T>) clientClass.getConstructor(InterfaceProxyHandler.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private T newGeneratedClient(Constructor<T> constructor, InterfaceProxyHandler<T> interfaceProxyHandler) {
+        try {
+            return constructor.newInstance(interfaceProxyHandler);
+        } catch (InstantiationException e) {
+            throw new ForestRuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new ForestRuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new ForestRuntimeException(e.getTargetException());
+        }
+    }
+
 }
@@ -0,0 +1,113 @@
+package com.dtflys.forest.reflection;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.utils.RequestNameValue;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对象属性展开器
+ * <p>用于将 {@link com.dtflys.forest.annotation.DataObject} 修饰的参数对象展开为请求参数。
+ * 每个类只在第一次使用时查找一次Getter方法（包括非public的方法、继承的方法和boolean属性的isXxx方法），
+ * 并绑定为MethodHandle，之后每次展开时只需依次调用</p>
+ */
+final class BeanFlattener {
+
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final static ClassValue<BeanFlattener> FLATTENERS = new ClassValue<BeanFlattener>() {
+        @Override
+        protected BeanFlattener computeValue(Class<?> type) {
+            return new BeanFlattener(type);
+        }
+    };
+
+    private final String[] names;
+
+    /**
+     * 与names一一对应，类型统一为 (Object)Object
+     */
+    private final MethodHandle[] getters;
+
+    private BeanFlattener(Class clazz) {
+        List<String> nameList = new ArrayList<>();
+        List<MethodHandle> getterList = new ArrayList<>();
+        // 与原先一样按声明的方法查找，包括非public的Getter，再依次查找父类中继承的Getter，子类覆盖的同名属性优先
+        for (Class type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                String name = getPropertyName(method);
+                if (name == null || nameList.contains(name)) {
+                    continue;
+                }
+                try {
+                    method.setAccessible(true);
+                } catch (RuntimeException e) {
+                    // 无法设置时仍尝试按原有访问权限绑定
+                }
+                try {
+                    getterList.add(LOOKUP.unreflect(method).asType(GETTER_TYPE));
+                } catch (IllegalAccessException e) {
+                    throw new ForestRuntimeException(e);
+                }
+                nameList.add(name);
+            }
+        }
+        this.names = nameList.toArray(new String[nameList.size()]);
+        this.getters = getterList.toArray(new MethodHandle[getterList.size()]);
+    }
+
+    static BeanFlattener forClass(Class clazz) {
+        return FLATTENERS.get(clazz);
+    }
+
+    /**
+     * 获取Getter方法对应的属性名，不是Getter方法时返回null
+     * @param method
+     * @return
+     */
+    private static String getPropertyName(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()
+                || method.getParameterTypes().length > 0
+                || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        String name = method.getName();
+        Class returnType = method.getReturnType();
+        if (name.length() > 3 && name.startsWith("get") && returnType != void.class) {
+            return Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        }
+        if (name.length() > 2 && name.startsWith("is")
+                && (returnType == boolean.class || returnType == Boolean.class)) {
+            return Character.toLowerCase(name.charAt(2)) + name.substring(3);
+        }
+        return null;
+    }
+
+    /**
+     * 将对象中不为null的属性值按名称添加到请求参数列表中
+     * @param obj
+     * @param nameValueList
+     */
+    void flatten(Object obj, List<RequestNameValue> nameValueList) {
+        for (int i = 0; i < getters.length; i++) {
+            Object value;
+            try {
+                value = (Object) getters[i].invokeExact(obj);
+            } catch (Throwable th) {
+                throw new ForestRuntimeException(th);
+            }
+            if (value != null) {
+                nameValueList.add(new RequestNameValue(names[i], value, false));
+            }
+        }
+    }
+
+}
@@ -11,6 +11,7 @@ import com.dtflys.forest.config.VariableScope;
 import com.dtflys.forest.converter.json.ForestJsonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.filter.Filter;
+import com.dtflys.forest.http.ForestFuture;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.interceptor.Interceptor;
 import com.dtflys.forest.interceptor.InterceptorFactory;
@@ -18,16 +19,17 @@ import com.dtflys.forest.mapping.MappingParameter;
 import com.dtflys.forest.mapping.MappingTemplate;
 import com.dtflys.forest.mapping.MappingVariable;
 import com.dtflys.forest.proxy.InterfaceProxyHandler;
+import com.dtflys.forest.retryer.DefaultRetryer;
+import com.dtflys.forest.retryer.Retryer;
 import com.dtflys.forest.ssl.SSLKeyStore;
+import com.dtflys.forest.handler.ResultDecoder;
 import com.dtflys.forest.utils.ForestDataType;
+import com.dtflys.forest.utils.ReflectUtil;
 import com.dtflys.forest.utils.RequestNameValue;
 import com.dtflys.forest.utils.StringUtils;
-import com.dtflys.forest.utils.URLUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.*;
 
 /**
@@ -50,11 +52,13 @@ public class ForestMethod<T> implements VariableScope {
     private Integer timeout = null;
     private Integer baseRetryNumber = null;
     private Integer retryNumber = null;
+    private Retryer retryer = null;
     private MappingTemplate baseEncodeTemplate = null;
     private MappingTemplate encodeTemplate = null;
     private MappingTemplate baseContentTypeTemplate;
     private MappingTemplate contentTypeTemplate;
     private String sslKeyStoreId;
+    private String callbackExecutorName;
     private MappingTemplate[] dataTemplateArray;
     private MappingTemplate[] headerTemplateArray;
     private MappingParameter[] parameterTemplateArray;
@@ -65,7 +69,14 @@ public class ForestMethod<T> implements VariableScope {
     private List<Interceptor> globalInterceptorList;
     private List<Interceptor> baseInterceptorList;
     private List<Interceptor> interceptorList;
+    private RequestPrototype prototype;
     private Type onSuccessClassGenericType = null;
+    private Type returnType;
+    private Type resultType;
+    private Class resultClass;
+    private boolean futureReturn = false;
+    private ResultDecoder resultDecoder;
+    private ResultDecoder onSuccessDecoder;
     private boolean async = false;
     private boolean logEnable = true;
 
@@ -76,6 +87,8 @@ public class ForestMethod<T> implements VariableScope {
         this.interceptorFactory = configuration.getInterceptorFactory();
         processBaseProperties();
         processInterfaceMethods();
+        prototype = createPrototype();
+        createResultDecoders();
     }
 
     public ForestConfiguration getConfiguration() {
@@ -97,6 +110,43 @@ public class ForestMethod<T> implements VariableScope {
         return returnClass;
     }
 
+    /**
+     * 根据返回类型以及OnSuccess回调的泛型类型预先创建结果解码器
+     * <p>返回类型为Future、CompletableFuture或CompletionStage时，按其泛型参数类型解码</p>
+     */
+    private void createResultDecoders() {
+        returnType = method.getGenericReturnType();
+        resultType = returnType;
+        resultClass = returnClass;
+        if (returnClass != Object.class && returnClass.isAssignableFrom(ForestFuture.class)) {
+            futureReturn = true;
+            resultType = getGenericClassOrType(returnType, 0);
+            resultClass = ReflectUtil.getClassByType(resultType);
+            if (resultClass == null) {
+                resultClass = Object.class;
+            }
+        }
+        resultDecoder = ResultDecoder.create(resultType, resultClass);
+        if (onSuccessClassGenericType != null) {
+            Class onSuccessClass = ReflectUtil.getClassByType(onSuccessClassGenericType);
+            if (onSuccessClass != null) {
+                onSuccessDecoder = ResultDecoder.create(onSuccessClassGenericType, onSuccessClass);
+            }
+        }
+    }
+
+    public ResultDecoder getResultDecoder() {
+        return resultDecoder;
+    }
+
+    /**
+     * 获取OnSuccess回调结果的解码器，方法没有OnSuccess参数时返回null
+     * @return
+     */
+    public ResultDecoder getOnSuccessDecoder() {
+        return onSuccessDecoder;
+    }
+
 
     public MappingVariable getVariable(String name) {
         return variables.get(name);
@@ -117,6 +167,10 @@ public class ForestMethod<T> implements VariableScope {
         }
         baseTimeout = interfaceProxyHandler.getBaseTimeout();
         baseRetryNumber = interfaceProxyHandler.getBaseRetryCount();
+        String baseCallbackExecutor = interfaceProxyHandler.getBaseCallbackExecutor();
+        if (StringUtils.isNotEmpty(baseCallbackExecutor)) {
+            callbackExecutorName = baseCallbackExecutor;
+        }
 
         List<Class> globalInterceptorClasses = configuration.getInterceptors();
         if (globalInterceptorClasses != null && globalInterceptorClasses.size() > 0) {
@@ -153,7 +207,6 @@ public class ForestMethod<T> implements VariableScope {
         Annotation[] annotations = method.getAnnotations();
         Class[] paramTypes = method.getParameterTypes();
         Type[] genericParamTypes = method.getGenericParameterTypes();
-        TypeVariable<Method>[] typeVariables = method.getTypeParameters();
         Annotation[][] paramAnns = method.getParameterAnnotations();
         Parameter[] parameters = method.getParameters();
         for (int i = 0; i < annotations.length; i++) {
@@ -165,6 +218,9 @@ public class ForestMethod<T> implements VariableScope {
                 dataTypeTemplate = makeTemplate(reqAnn.dataType());
                 contentTypeTemplate = makeTemplate(reqAnn.contentType());
                 sslKeyStoreId = reqAnn.keyStore();
+                if (StringUtils.isNotEmpty(reqAnn.callbackExecutor())) {
+                    callbackExecutorName = reqAnn.callbackExecutor();
+                }
                 encodeTemplate = makeTemplate(reqAnn.contentEncoding());
                 async = reqAnn.async();
                 String[] dataArray = reqAnn.data();
@@ -177,15 +233,18 @@ public class ForestMethod<T> implements VariableScope {
                 if (rtnum > 0) {
                     retryNumber = rtnum;
                 }
+                int retryInterval = reqAnn.retryInterval();
+                int maxRetryInterval = reqAnn.maxRetryInterval();
+                if (retryInterval >= 0 || maxRetryInterval >= 0) {
+                    long interval = retryInterval >= 0 ? retryInterval : DefaultRetryer.DEFAULT_RETRY_INTERVAL;
+                    long maxInterval = maxRetryInterval >= 0 ? maxRetryInterval : Math.max(interval, DefaultRetryer.DEFAULT_MAX_RETRY_INTERVAL);
+                    retryer = new DefaultRetryer(interval, maxInterval);
+                }
                 logEnable = configuration.isLogEnabled();
                 if (!logEnable) {
                     logEnable = reqAnn.logEnabled();
                 }
 
-                for (TypeVariable<Method> typeVariable : typeVariables) {
-                    System.out.println(typeVariable.getName());
-                }
-
                 parameterTemplateArray = new MappingParameter[paramTypes.length];
                 processParameters(parameters, genericParamTypes, paramAnns);
 
@@ -301,87 +360,78 @@ public class ForestMethod<T> implements VariableScope {
         if (StringUtils.isNotEmpty(filterName)) {
             String[] filterNameArray = filterName.split(",");
             for (String name : filterNameArray) {
-                Filter filter = configuration.newFilterInstance(name);
+                Filter filter = configuration.getFilter(name);
                 parameter.addFilter(filter);
             }
         }
     }
 
+    /**
+     * 预先处理请求中不依赖方法参数的部分
+     * @return
+     */
+    private RequestPrototype createPrototype() {
+        List<Interceptor> interceptors = new ArrayList<>();
+        if (globalInterceptorList != null) {
+            interceptors.addAll(globalInterceptorList);
+        }
+        if (baseInterceptorList != null) {
+            interceptors.addAll(baseInterceptorList);
+        }
+        if (interceptorList != null) {
+            interceptors.addAll(interceptorList);
+        }
+        return new RequestPrototype(
+                baseUrlTemplate, urlTemplate,
+                typeTemplate,
+                baseEncodeTemplate, encodeTemplate,
+                baseContentTypeTemplate, contentTypeTemplate,
+                dataTypeTemplate,
+                interfaceProxyHandler.getBaseHeaders(), headerTemplateArray,
+                dataTemplateArray,
+                timeout != null ? timeout : baseTimeout,
+                retryNumber != null ? retryNumber : baseRetryNumber,
+                interceptors.toArray(new Interceptor[interceptors.size()]));
+    }
+
+    private static String render(MappingTemplate template, Object[] args) {
+        if (template == null) {
+            return null;
+        }
+        return template.render(args);
+    }
+
     /**
      * 创建请求
      * @param args
      * @return
      */
     private ForestRequest makeRequest(Object[] args) {
-        String baseUrl = null;
-        if (baseUrlTemplate != null) {
-            baseUrl = baseUrlTemplate.render(args);
-        }
-        String renderedUrl = urlTemplate.render(args);
-        String renderedType = typeTemplate.render(args);
-        String baseEncode = null;
-        if (baseEncodeTemplate != null) {
-            baseEncode = baseEncodeTemplate.render(args);
-        }
-        String encode = encodeTemplate.render(args);
-        if (StringUtils.isEmpty(encode)) {
-            encode = baseEncode;
-        }
-        String baseContentType = null;
-        if (baseContentTypeTemplate != null) {
-            baseContentType = baseContentTypeTemplate.render(args);
-        }
-        String renderedContentType = contentTypeTemplate.render(args).trim();
-        if (StringUtils.isEmpty(renderedContentType)) {
-            renderedContentType = baseContentType;
-        }
-        String newUrl = "";
-        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>();
-        MappingTemplate[] baseHeaders = interfaceProxyHandler.getBaseHeaders();
-        renderedUrl = URLUtils.getValidURL(baseUrl, renderedUrl);
-        String query = "";
-        String protocol = "";
-        try {
-            URL u = new URL(renderedUrl);
-            query = u.getQuery();
-            if (StringUtils.isNotEmpty(query)) {
-                String[] params = query.split("&");
-                StringBuilder queryBuilder = new StringBuilder();
-                if (params.length > 0) {
-                    queryBuilder.append("?");
-                }
-                for (int i = 0; i < params.length; i++) {
-                    String p = params[i];
-                    String[] nameValue = p.split("=");
-                    String name = nameValue[0];
-                    queryBuilder.append(name);
-                    RequestNameValue requestNameValue = new RequestNameValue(name, true);
-                    nameValueList.add(requestNameValue);
-                    if (nameValue.length > 1) {
-                        String value = nameValue[1];
-                        queryBuilder.append("=");
-                        queryBuilder.append(value);
-                        requestNameValue.setValue(value);
-                    }
-                    if (i < params.length - 1) {
-                        queryBuilder.append("&");
-                    }
-                }
+        RequestPrototype prototype = this.prototype;
+        RequestPrototype.RequestURL requestURL = prototype.url;
+        if (requestURL == null) {
+            String renderedUrl = urlTemplate.render(args);
+            if (prototype.urlPrefix != null) {
+                requestURL = prototype.urlPrefix.parse(renderedUrl);
+            } else {
+                requestURL = RequestPrototype.RequestURL.parse(render(baseUrlTemplate, args), renderedUrl);
             }
-            protocol = u.getProtocol();
-            int port = u.getPort();
-            newUrl = protocol + "://" + u.getHost();
-            if (port != 80 && port > -1) {
-                newUrl += ":" + port;
-            }
-            String path = u.getPath();
-            if (StringUtils.isNotEmpty(path)) {
-                newUrl += path;
-            }
-
-        } catch (MalformedURLException e) {
-            throw new ForestRuntimeException(e);
         }
+        String renderedType = prototype.type;
+        if (renderedType == null) {
+            renderedType = typeTemplate.render(args).toUpperCase();
+        }
+        String encode = prototype.encode;
+        if (!prototype.constantEncode) {
+            encode = RequestPrototype.resolveEncode(
+                    render(baseEncodeTemplate, args), encodeTemplate.render(args));
+        }
+        String renderedContentType = prototype.contentType;
+        if (!prototype.constantContentType) {
+            renderedContentType = RequestPrototype.resolveContentType(
+                    render(baseContentTypeTemplate, args), contentTypeTemplate.render(args));
+        }
+        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>(requestURL.queryNameValues);
 
         for (int i = 0; i < namedParameters.size(); i++) {
             MappingParameter parameter = namedParameters.get(i);
@@ -397,18 +447,11 @@ public class ForestMethod<T> implements VariableScope {
                     nameValueList.add(new RequestNameValue(parameter.getJsonParamName(), json, false));
                 }
                 else if (!parameter.getFilterChain().isEmpty()) {
-                    obj = parameter.getFilterChain().doFilter(configuration, obj);
+                    obj = parameter.getFilterChain().doBodyFilter(configuration, obj);
                     nameValueList.add(new RequestNameValue(null, obj, false));
                 }
-                else {
-                    try {
-                        List<RequestNameValue> list = getNameValueListFromObject(obj);
-                        nameValueList.addAll(list);
-                    } catch (InvocationTargetException e) {
-                        throw new ForestRuntimeException(e);
-                    } catch (IllegalAccessException e) {
-                        throw new ForestRuntimeException(e);
-                    }
+                else if (obj != null) {
+                    BeanFlattener.forClass(obj.getClass()).flatten(obj, nameValueList);
                 }
             }
             else if (parameter.getIndex() != null) {
@@ -429,55 +472,48 @@ public class ForestMethod<T> implements VariableScope {
 
         // createExecutor and initialize http instance
         ForestRequest<T> request = new ForestRequest(configuration);
-        request.setProtocol(protocol)
-                .setUrl(newUrl)
-                .setQuery(query)
+        request.setProtocol(requestURL.protocol)
+                .setUrl(requestURL.url)
+                .setQuery(requestURL.query)
                 .setType(renderedType)
                 .setKeyStore(sslKeyStore)
                 .setEncode(encode)
                 .setContentType(renderedContentType)
                 .setArguments(args)
                 .setLogEnable(logEnable)
-                .setAsync(async);
+                .setAsync(async || futureReturn);
+        if (callbackExecutorName != null) {
+            // 执行器可以在创建接口实例之后注册，每次请求时按名称获取
+            request.setCallbackExecutor(configuration.getCallbackExecutor(callbackExecutorName));
+        }
         if (configuration.getDefaultParameters() != null) {
             request.addData(configuration.getDefaultParameters());
         }
-        if (baseHeaders != null && baseHeaders.length > 0) {
-            for (MappingTemplate baseHeader : baseHeaders) {
-                String headerText = baseHeader.render(args);
-                String[] headerNameValue = headerText.split(":");
-                if (headerNameValue.length > 1) {
-                    request.addHeader(headerNameValue[0].trim(), headerNameValue[1].trim());
-                }
+        MappingTemplate[] baseHeaders = interfaceProxyHandler.getBaseHeaders();
+        for (int i = 0; i < prototype.baseHeaders.length; i++) {
+            RequestNameValue nameValue = prototype.baseHeaders[i];
+            if (nameValue == null) {
+                nameValue = RequestPrototype.parseBaseHeader(baseHeaders[i].render(args));
+            }
+            if (nameValue != null) {
+                request.addHeader(nameValue);
             }
         }
         if (configuration.getDefaultHeaders() != null) {
             request.addHeaders(configuration.getDefaultHeaders());
         }
 
-        List<RequestNameValue> dataNameValueList = new ArrayList<>();
         StringBuilder bodyBuilder = new StringBuilder();
         for (int i = 0; i < dataTemplateArray.length; i++) {
-            MappingTemplate dataTemplate = dataTemplateArray[i];
-            String data = dataTemplate.render(args);
-            bodyBuilder.append(data);
+            RequestPrototype.RequestData data = prototype.data[i];
+            if (data == null) {
+                data = RequestPrototype.RequestData.parse(dataTemplateArray[i].render(args));
+            }
+            bodyBuilder.append(data.text);
             if (i < dataTemplateArray.length - 1) {
                 bodyBuilder.append("&");
             }
-            String[] paramArray = data.split("&");
-            for (int j = 0; j < paramArray.length; j++) {
-                String dataParam = paramArray[j];
-                String[] dataNameValue = dataParam.split("=");
-                if (dataNameValue.length > 0) {
-                    String name = dataNameValue[0].trim();
-                    RequestNameValue nameValue = new RequestNameValue(name, false);
-                    if (dataNameValue.length == 2) {
-                        nameValue.setValue(dataNameValue[1].trim());
-                    }
-                    nameValueList.add(nameValue);
-                    dataNameValueList.add(nameValue);
-                }
-            }
+            Collections.addAll(nameValueList, data.nameValues);
         }
         request.addData(nameValueList);
         if (bodyBuilder.length() > 0) {
@@ -486,35 +522,29 @@ public class ForestMethod<T> implements VariableScope {
         }
 
         for (int i = 0; i < headerTemplateArray.length; i++) {
-            MappingTemplate headerTemplate = headerTemplateArray[i];
-            String header = headerTemplate.render(args);
-            String[] headNameValue = header.split(":");
-            if (headNameValue.length > 0) {
-                String name = headNameValue[0].trim();
-                RequestNameValue nameValue = new RequestNameValue(name, false);
-                if (headNameValue.length == 2) {
-                    nameValue.setValue(headNameValue[1].trim());
-                }
+            RequestNameValue nameValue = prototype.headers[i];
+            if (nameValue == null) {
+                nameValue = RequestPrototype.parseHeader(headerTemplateArray[i].render(args));
+            }
+            if (nameValue != null) {
                 request.addHeader(nameValue);
             }
         }
 
-
-        if (timeout != null) {
-            request.setTimeout(timeout);
-        } else if (baseTimeout != null) {
-            request.setTimeout(baseTimeout);
+        if (prototype.timeout != null) {
+            request.setTimeout(prototype.timeout);
         } else if (configuration.getTimeout() != null) {
             request.setTimeout(configuration.getTimeout());
         }
 
-        if (retryNumber != null) {
-            request.setRetryCount(retryNumber);
-        } else if (baseRetryNumber != null) {
-            request.setRetryCount(baseRetryNumber);
+        if (prototype.retryCount != null) {
+            request.setRetryCount(prototype.retryCount);
         } else if (configuration.getRetryCount() != null) {
             request.setRetryCount(configuration.getRetryCount());
         }
+        if (retryer != null) {
+            request.setRetryer(retryer);
+        }
 
         if (onSuccessParameter != null) {
             OnSuccess<?> onSuccessCallback = (OnSuccess<?>) args[onSuccessParameter.getIndex()];
@@ -525,69 +555,20 @@ public class ForestMethod<T> implements VariableScope {
             request.setOnError(onErrorCallback);
         }
 
-        String dataType = dataTypeTemplate.render(args);
-        if (StringUtils.isEmpty(dataType)) {
-            request.setDataType(ForestDataType.TEXT);
-        }
-        else {
-            dataType = dataType.toUpperCase();
-            ForestDataType forestDataType = ForestDataType.valueOf(dataType);
-            request.setDataType(forestDataType);
-        }
-
-        if (globalInterceptorList != null && globalInterceptorList.size() > 0) {
-            for (Interceptor item : globalInterceptorList) {
-                request.addInterceptor(item);
-            }
+        ForestDataType dataType = prototype.dataType;
+        if (dataType == null) {
+            dataType = RequestPrototype.resolveDataType(dataTypeTemplate.render(args));
         }
+        request.setDataType(dataType);
 
-        if (baseInterceptorList != null && baseInterceptorList.size() > 0) {
-            for (Interceptor item : baseInterceptorList) {
-                request.addInterceptor(item);
-            }
-        }
-
-        if (interceptorList != null && interceptorList.size() > 0) {
-            for (Interceptor item : interceptorList) {
-                request.addInterceptor(item);
-            }
+        if (prototype.interceptors.length > 0) {
+            request.getInterceptorChain().addInterceptors(prototype.interceptors);
         }
         return request;
     }
 
 
 
-    /**
-     * 从对象中获取键值对列表
-     * @param obj
-     * @return
-     * @throws InvocationTargetException
-     * @throws IllegalAccessException
-     */
-    private List<RequestNameValue> getNameValueListFromObject(Object obj) throws InvocationTargetException, IllegalAccessException {
-        Class clazz = obj.getClass();
-        Method[] methods = clazz.getDeclaredMethods();
-        List<RequestNameValue> nameValueList = new ArrayList<RequestNameValue>();
-        for (int i = 0; i < methods.length; i++) {
-            Method mtd = methods[i];
-            String getterName = StringUtils.getGetterName(mtd);
-            if (getterName == null) {
-                continue;
-            }
-            Method getter = mtd;
-            Object value = getter.invoke(obj);
-            if (value != null) {
-                RequestNameValue nameValue = new RequestNameValue(getterName, value, false);
-                nameValueList.add(nameValue);
-            }
-
-        }
-        return nameValueList;
-    }
-
-
-
-
     /**
      * 调用方法
      * @param args
@@ -598,6 +579,9 @@ public class ForestMethod<T> implements VariableScope {
         MethodResponseHandler<T> responseHandler = new MethodResponseHandler<>(
                 this, configuration, onSuccessClassGenericType);
         request.execute(configuration.getBackend(), responseHandler);
+        if (futureReturn) {
+            return responseHandler.getResultFuture();
+        }
         return responseHandler.getResultData();
     }
 
@@ -629,8 +613,27 @@ public class ForestMethod<T> implements VariableScope {
 
 
     public Type getReturnType() {
-        Type type = method.getGenericReturnType();
-        return type;
+        return returnType;
+    }
+
+    /**
+     * 获取结果类型，返回类型为Future时为其泛型参数类型，否则与返回类型相同
+     * @return
+     */
+    public Type getResultType() {
+        return resultType;
+    }
+
+    public Class getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * 返回类型是否为Future
+     * @return
+     */
+    public boolean isFutureReturn() {
+        return futureReturn;
     }
 
 
@@ -0,0 +1,107 @@
+package com.dtflys.forest.reflection;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * 方法访问器
+ * <p>将同名且参数个数相同的一组方法绑定为MethodHandle，调用时无需再通过反射查找和调用方法。
+ * 存在多个重载方法时，按实际参数的类型选择第一个匹配的方法</p>
+ */
+public final class MethodAccessor {
+
+    private final static Object[] NO_ARGS = new Object[0];
+
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Method[] methods;
+
+    /**
+     * 与methods一一对应，类型统一为 (Object, Object[])Object
+     */
+    private final MethodHandle[] handles;
+
+    MethodAccessor(Method[] methods) {
+        this.methods = methods;
+        this.handles = new MethodHandle[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            handles[i] = bind(methods[i]);
+        }
+    }
+
+    private static MethodHandle bind(Method method) {
+        int paramCount = method.getParameterTypes().length;
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException e) {
+            // 无法设置时仍尝试按原有访问权限绑定
+        }
+        try {
+            return LOOKUP.unreflect(method)
+                    .asType(MethodType.genericMethodType(paramCount + 1))
+                    .asSpreader(Object[].class, paramCount);
+        } catch (IllegalAccessException e) {
+            throw new ForestRuntimeException(e);
+        }
+    }
+
+    public Method getMethod() {
+        return methods[0];
+    }
+
+    /**
+     * 调用无参方法
+     * @param obj
+     * @return
+     */
+    public Object invoke(Object obj) {
+        return invoke(obj, NO_ARGS);
+    }
+
+    public Object invoke(Object obj, Object[] args) {
+        MethodHandle handle = handles.length == 1 ? handles[0] : selectHandle(args);
+        try {
+            return (Object) handle.invokeExact(obj, args);
+        } catch (Throwable th) {
+            throw new ForestRuntimeException(th);
+        }
+    }
+
+    private MethodHandle selectHandle(Object[] args) {
+        for (int i = 0; i < methods.length; i++) {
+            if (isApplicable(methods[i].getParameterTypes(), args)) {
+                return handles[i];
+            }
+        }
+        return handles[0];
+    }
+
+    private static boolean isApplicable(Class[] paramTypes, Object[] args) {
+        for (int i = 0; i < paramTypes.length; i++) {
+            Object arg = args[i];
+            Class paramType = paramTypes[i];
+            if (arg == null) {
+                if (paramType.isPrimitive()) {
+                    return false;
+                }
+                continue;
+            }
+            if (!wrap(paramType).isInstance(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class wrap(Class type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+}
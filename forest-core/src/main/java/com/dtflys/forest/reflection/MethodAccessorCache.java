@@ -0,0 +1,112 @@
+package com.dtflys.forest.reflection;
+
+import com.dtflys.forest.utils.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 方法访问器缓存
+ * <p>按类缓存属性Getter和普通方法的访问器，查找范围包括从父类和接口继承的方法以及非public方法</p>
+ */
+public final class MethodAccessorCache {
+
+    private final static ClassValue<ConcurrentMap<String, MethodAccessor>> ACCESSORS =
+            new ClassValue<ConcurrentMap<String, MethodAccessor>>() {
+                @Override
+                protected ConcurrentMap<String, MethodAccessor> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private MethodAccessorCache() {
+    }
+
+    /**
+     * 获取属性的Getter访问器，依次查找 getXxx()、isXxx() 以及和属性同名的无参方法
+     * @param clazz
+     * @param property
+     * @return 找不到对应方法时返回null
+     */
+    public static MethodAccessor getGetter(Class clazz, String property) {
+        ConcurrentMap<String, MethodAccessor> accessors = ACCESSORS.get(clazz);
+        String key = "#" + property;
+        MethodAccessor accessor = accessors.get(key);
+        if (accessor != null) {
+            return accessor;
+        }
+        Method[] methods = findMethods(clazz, StringUtils.toGetterName(property), 0);
+        if (methods.length == 0) {
+            methods = findMethods(clazz, "is" + Character.toUpperCase(property.charAt(0)) + property.substring(1), 0);
+        }
+        if (methods.length == 0) {
+            methods = findMethods(clazz, property, 0);
+        }
+        return putAccessor(accessors, key, methods);
+    }
+
+    /**
+     * 获取指定名称及参数个数的方法访问器
+     * @param clazz
+     * @param name
+     * @param argCount
+     * @return 找不到对应方法时返回null
+     */
+    public static MethodAccessor getMethod(Class clazz, String name, int argCount) {
+        ConcurrentMap<String, MethodAccessor> accessors = ACCESSORS.get(clazz);
+        String key = name + "/" + argCount;
+        MethodAccessor accessor = accessors.get(key);
+        if (accessor != null) {
+            return accessor;
+        }
+        return putAccessor(accessors, key, findMethods(clazz, name, argCount));
+    }
+
+    private static MethodAccessor putAccessor(ConcurrentMap<String, MethodAccessor> accessors, String key, Method[] methods) {
+        if (methods.length == 0) {
+            return null;
+        }
+        MethodAccessor accessor = new MethodAccessor(methods);
+        MethodAccessor existed = accessors.putIfAbsent(key, accessor);
+        if (existed != null) {
+            return existed;
+        }
+        return accessor;
+    }
+
+    /**
+     * 查找方法，优先查找public方法（包括继承的方法），找不到时再沿父类查找非public方法
+     * @param clazz
+     * @param name
+     * @param argCount
+     * @return
+     */
+    private static Method[] findMethods(Class clazz, String name, int argCount) {
+        List<Method> result = new ArrayList<>();
+        for (Method method : clazz.getMethods()) {
+            if (matches(method, name, argCount)) {
+                result.add(method);
+            }
+        }
+        for (Class type = clazz; result.isEmpty() && type != null; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (matches(method, name, argCount)) {
+                    result.add(method);
+                }
+            }
+        }
+        return result.toArray(new Method[result.size()]);
+    }
+
+    private static boolean matches(Method method, String name, int argCount) {
+        return !method.isBridge()
+                && !Modifier.isStatic(method.getModifiers())
+                && method.getName().equals(name)
+                && method.getParameterTypes().length == argCount;
+    }
+
+}
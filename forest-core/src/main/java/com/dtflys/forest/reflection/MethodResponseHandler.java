@@ -5,13 +5,14 @@ import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestNetworkException;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.handler.ResponseHandler;
+import com.dtflys.forest.handler.ResultDecoder;
 import com.dtflys.forest.handler.ResultHandler;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import com.dtflys.forest.utils.ReflectUtil;
-import sun.reflect.Reflection;
 
 import java.lang.reflect.Type;
+import java.util.concurrent.Future;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -31,14 +32,25 @@ public class MethodResponseHandler<T> implements ResponseHandler {
 
     private static final ResultHandler resultHandler = new ResultHandler();
 
+    /**
+     * 方法返回值的解码器，由ForestMethod预先创建
+     */
+    private final ResultDecoder resultDecoder;
+
     private volatile T resultData;
 
+    /**
+     * 异步请求的Future，和处理结果分开保存，避免响应处理完成时覆盖
+     */
+    private volatile Future resultFuture;
+
     public MethodResponseHandler(ForestMethod method, ForestConfiguration configuration, Type onSuccessClassGenericType) {
         this.method = method;
         this.configuration = configuration;
         this.onSuccessClassGenericType = onSuccessClassGenericType;
-        this.returnType = method.getReturnType();
-        this.returnClass = method.getReturnClass();
+        this.returnType = method.getResultType();
+        this.returnClass = method.getResultClass();
+        this.resultDecoder = method.getResultDecoder();
     }
 
     @Override
@@ -76,19 +88,36 @@ public class MethodResponseHandler<T> implements ResponseHandler {
 
 
     @Override
-    public synchronized Object handleResultType(ForestRequest request, ForestResponse response, Type resultType, Class resultClass) {
-        Object resultData = resultHandler.getResult(request, response, resultType, resultClass);
+    public Object handleResultType(ForestRequest request, ForestResponse response, Type resultType, Class resultClass) {
+        Object resultData = getDecoder(resultType, resultClass).decode(request, response);
         response.setResult(resultData);
         this.resultData = (T) resultData;
         return resultData;
     }
 
+    private ResultDecoder getDecoder(Type resultType, Class resultClass) {
+        if (resultType == returnType && resultClass == returnClass) {
+            return resultDecoder;
+        }
+        ResultDecoder onSuccessDecoder = method.getOnSuccessDecoder();
+        if (onSuccessDecoder != null && resultType == onSuccessDecoder.getResultType()
+                && resultClass == onSuccessDecoder.getResultClass()) {
+            return onSuccessDecoder;
+        }
+        return resultHandler.getDecoder(resultType, resultClass);
+    }
+
     @Override
     public Object handleSuccess(Object resultData, ForestRequest request, ForestResponse response) {
         request.getInterceptorChain().onSuccess(resultData, request, response);
         OnSuccess onSuccess = request.getOnSuccess();
         if (onSuccess != null) {
-            resultData = resultHandler.getResult(request, response, onSuccessClassGenericType, ReflectUtil.getClassByType(onSuccessClassGenericType));
+            ResultDecoder onSuccessDecoder = method.getOnSuccessDecoder();
+            if (onSuccessDecoder != null) {
+                resultData = onSuccessDecoder.decode(request, response);
+            } else {
+                resultData = resultHandler.getResult(request, response, onSuccessClassGenericType, ReflectUtil.getClassByType(onSuccessClassGenericType));
+            }
             onSuccess.onSuccess(resultData, request, response);
         }
         resultData = response.getResult();
@@ -126,6 +155,15 @@ public class MethodResponseHandler<T> implements ResponseHandler {
     }
 
 
+    @Override
+    public void handleFuture(Future future) {
+        this.resultFuture = future;
+    }
+
+    public Future getResultFuture() {
+        return resultFuture;
+    }
+
     @Override
     public Type getReturnType() {
         return returnType;
@@ -0,0 +1,464 @@
+package com.dtflys.forest.reflection;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.interceptor.Interceptor;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.utils.ForestDataType;
+import com.dtflys.forest.utils.RequestNameValue;
+import com.dtflys.forest.utils.StringUtils;
+import com.dtflys.forest.utils.URLUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 请求原型
+ * <p>在创建ForestMethod时预先解析请求中不依赖方法参数的部分（不包含任何 ${} 表达式的模板），
+ * 每次调用时只需渲染依赖参数的部分，其余部分直接使用原型中的结果</p>
+ */
+final class RequestPrototype {
+
+    /**
+     * 已解析的URL，为null时表示需要在每次调用时渲染
+     */
+    final RequestURL url;
+
+    /**
+     * URL模板开头常量部分的解析结果，为null时需要在每次调用时解析整个URL
+     */
+    final URLPrefix urlPrefix;
+
+    /**
+     * 请求类型（大写），为null时表示需要在每次调用时渲染
+     */
+    final String type;
+
+    final boolean constantEncode;
+
+    final String encode;
+
+    final boolean constantContentType;
+
+    final String contentType;
+
+    /**
+     * 数据类型，为null时表示需要在每次调用时渲染
+     */
+    final ForestDataType dataType;
+
+    /**
+     * 与接口级请求头模板一一对应的解析结果，为null的项需要在每次调用时渲染
+     */
+    final RequestNameValue[] baseHeaders;
+
+    /**
+     * 与方法请求头模板一一对应的解析结果，为null的项需要在每次调用时渲染
+     */
+    final RequestNameValue[] headers;
+
+    /**
+     * 与数据模板一一对应的解析结果，为null的项需要在每次调用时渲染
+     */
+    final RequestData[] data;
+
+    /**
+     * 方法或接口级别设置的超时时间，都未设置时为null
+     */
+    final Integer timeout;
+
+    /**
+     * 方法或接口级别设置的重试次数，都未设置时为null
+     */
+    final Integer retryCount;
+
+    /**
+     * 按全局、接口、方法的顺序合并后的拦截器
+     */
+    final Interceptor[] interceptors;
+
+    RequestPrototype(MappingTemplate baseUrlTemplate, MappingTemplate urlTemplate,
+                     MappingTemplate typeTemplate,
+                     MappingTemplate baseEncodeTemplate, MappingTemplate encodeTemplate,
+                     MappingTemplate baseContentTypeTemplate, MappingTemplate contentTypeTemplate,
+                     MappingTemplate dataTypeTemplate,
+                     MappingTemplate[] baseHeaderTemplates, MappingTemplate[] headerTemplates,
+                     MappingTemplate[] dataTemplates,
+                     Integer timeout, Integer retryCount,
+                     Interceptor[] interceptors) {
+        if (isConstant(baseUrlTemplate) && isConstant(urlTemplate)) {
+            this.url = RequestURL.parse(render(baseUrlTemplate), render(urlTemplate));
+            this.urlPrefix = null;
+        } else {
+            this.url = null;
+            this.urlPrefix = isConstant(baseUrlTemplate) && urlTemplate != null ?
+                    URLPrefix.create(render(baseUrlTemplate), urlTemplate.getConstantPrefix()) : null;
+        }
+
+        this.type = isConstant(typeTemplate) ? render(typeTemplate).toUpperCase() : null;
+
+        this.constantEncode = isConstant(baseEncodeTemplate) && isConstant(encodeTemplate);
+        this.encode = constantEncode ? resolveEncode(render(baseEncodeTemplate), render(encodeTemplate)) : null;
+
+        this.constantContentType = isConstant(baseContentTypeTemplate) && isConstant(contentTypeTemplate);
+        this.contentType = constantContentType ?
+                resolveContentType(render(baseContentTypeTemplate), render(contentTypeTemplate)) : null;
+
+        this.dataType = isConstant(dataTypeTemplate) ? resolveDataType(render(dataTypeTemplate)) : null;
+
+        this.baseHeaders = new RequestNameValue[baseHeaderTemplates == null ? 0 : baseHeaderTemplates.length];
+        for (int i = 0; i < baseHeaders.length; i++) {
+            MappingTemplate template = baseHeaderTemplates[i];
+            if (template.isConstant()) {
+                baseHeaders[i] = parseBaseHeader(render(template));
+            }
+        }
+        this.headers = new RequestNameValue[headerTemplates.length];
+        for (int i = 0; i < headers.length; i++) {
+            MappingTemplate template = headerTemplates[i];
+            if (template.isConstant()) {
+                headers[i] = parseHeader(render(template));
+            }
+        }
+        this.data = new RequestData[dataTemplates.length];
+        for (int i = 0; i < data.length; i++) {
+            MappingTemplate template = dataTemplates[i];
+            if (template.isConstant()) {
+                data[i] = RequestData.parse(render(template));
+            }
+        }
+
+        this.timeout = timeout;
+        this.retryCount = retryCount;
+        this.interceptors = interceptors;
+    }
+
+    private static boolean isConstant(MappingTemplate template) {
+        return template == null || template.isConstant();
+    }
+
+    private static String render(MappingTemplate template) {
+        if (template == null) {
+            return null;
+        }
+        return template.render(new Object[0]);
+    }
+
+
+    static String resolveEncode(String baseEncode, String encode) {
+        if (StringUtils.isEmpty(encode)) {
+            return baseEncode;
+        }
+        return encode;
+    }
+
+    static String resolveContentType(String baseContentType, String contentType) {
+        contentType = contentType.trim();
+        if (StringUtils.isEmpty(contentType)) {
+            return baseContentType;
+        }
+        return contentType;
+    }
+
+    static ForestDataType resolveDataType(String dataType) {
+        if (StringUtils.isEmpty(dataType)) {
+            return ForestDataType.TEXT;
+        }
+        return ForestDataType.valueOf(dataType.toUpperCase());
+    }
+
+    /**
+     * 解析接口级别的请求头，不包含值的请求头将被忽略
+     * @param headerText
+     * @return
+     */
+    static RequestNameValue parseBaseHeader(String headerText) {
+        String[] headerNameValue = headerText.split(":");
+        if (headerNameValue.length > 1) {
+            return new RequestNameValue(headerNameValue[0].trim(), headerNameValue[1].trim(), false);
+        }
+        return null;
+    }
+
+    /**
+     * 解析方法级别的请求头
+     * @param headerText
+     * @return
+     */
+    static RequestNameValue parseHeader(String headerText) {
+        String[] headNameValue = headerText.split(":");
+        if (headNameValue.length > 0) {
+            String name = headNameValue[0].trim();
+            RequestNameValue nameValue = new RequestNameValue(name, false);
+            if (headNameValue.length == 2) {
+                nameValue.setValue(headNameValue[1].trim());
+            }
+            return nameValue;
+        }
+        return null;
+    }
+
+
+    /**
+     * 解析后的请求URL
+     */
+    static final class RequestURL {
+
+        final String protocol;
+
+        final String url;
+
+        final String query;
+
+        final List<RequestNameValue> queryNameValues;
+
+        private RequestURL(String protocol, String url, String query, List<RequestNameValue> queryNameValues) {
+            this.protocol = protocol;
+            this.url = url;
+            this.query = query;
+            this.queryNameValues = queryNameValues;
+        }
+
+        static RequestURL parse(String baseUrl, String renderedUrl) {
+            return parse(URLUtils.getValidURL(baseUrl, renderedUrl), (URLPrefix) null);
+        }
+
+        /**
+         * 解析完整的URL
+         * @param fullUrl 完整的URL
+         * @param prefix 已解析的URL常量前缀，为null时从头解析
+         * @return
+         */
+        static RequestURL parse(String fullUrl, URLPrefix prefix) {
+            String protocol;
+            String hostAndPort;
+            int pathStart;
+            if (prefix != null) {
+                protocol = prefix.protocol;
+                hostAndPort = prefix.hostAndPort;
+                pathStart = prefix.authorityEnd;
+            } else {
+                int schemeEnd = fullUrl.indexOf("://");
+                if (schemeEnd <= 0) {
+                    throw new ForestRuntimeException("no protocol: " + fullUrl);
+                }
+                protocol = fullUrl.substring(0, schemeEnd).toLowerCase();
+                int authorityStart = schemeEnd + 3;
+                pathStart = indexOfAuthorityEnd(fullUrl, authorityStart);
+                if (pathStart < 0) {
+                    pathStart = fullUrl.length();
+                }
+                hostAndPort = parseAuthority(fullUrl, authorityStart, pathStart);
+            }
+
+            int len = fullUrl.length();
+            int queryStart = -1;
+            int end = len;
+            for (int i = pathStart; i < len; i++) {
+                char ch = fullUrl.charAt(i);
+                if (ch == '#') {
+                    end = i;
+                    break;
+                }
+                if (ch == '?' && queryStart < 0) {
+                    queryStart = i;
+                }
+            }
+            int pathEnd = queryStart < 0 ? end : queryStart;
+
+            StringBuilder builder = new StringBuilder(protocol.length() + 3 + hostAndPort.length() + pathEnd - pathStart);
+            builder.append(protocol).append("://").append(hostAndPort).append(fullUrl, pathStart, pathEnd);
+
+            String query = null;
+            List<RequestNameValue> queryNameValues = Collections.emptyList();
+            if (queryStart >= 0) {
+                query = fullUrl.substring(queryStart + 1, end);
+                if (query.length() > 0) {
+                    queryNameValues = Collections.unmodifiableList(parseQuery(query));
+                }
+            }
+            return new RequestURL(protocol, builder.toString(), query, queryNameValues);
+        }
+
+        private static int indexOfAuthorityEnd(String url, int authorityStart) {
+            for (int i = authorityStart; i < url.length(); i++) {
+                char ch = url.charAt(i);
+                if (ch == '/' || ch == '?' || ch == '#') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 解析主机和端口，去掉用户信息以及默认的80端口
+         * @param url
+         * @param start
+         * @param end
+         * @return
+         */
+        private static String parseAuthority(String url, int start, int end) {
+            int at = url.lastIndexOf('@', end - 1);
+            if (at >= start) {
+                start = at + 1;
+            }
+            int hostEnd = url.lastIndexOf(']', end - 1);
+            int portStart = url.indexOf(':', hostEnd >= start ? hostEnd : start);
+            if (portStart < 0 || portStart >= end) {
+                return url.substring(start, end);
+            }
+            String host = url.substring(start, portStart);
+            if (portStart == end - 1) {
+                return host;
+            }
+            int port;
+            try {
+                port = Integer.parseInt(url.substring(portStart + 1, end));
+            } catch (NumberFormatException e) {
+                throw new ForestRuntimeException("invalid port in url: " + url, e);
+            }
+            if (port == 80) {
+                return host;
+            }
+            return host + ':' + port;
+        }
+
+        private static List<RequestNameValue> parseQuery(String query) {
+            List<RequestNameValue> queryNameValues = new ArrayList<>();
+            int len = query.length();
+            int start = 0;
+            while (start <= len) {
+                int end = query.indexOf('&', start);
+                if (end < 0) {
+                    end = len;
+                }
+                if (end > start) {
+                    int eq = query.indexOf('=', start);
+                    RequestNameValue nameValue;
+                    if (eq < 0 || eq >= end) {
+                        nameValue = new RequestNameValue(query.substring(start, end), true);
+                    } else {
+                        nameValue = new RequestNameValue(query.substring(start, eq), true);
+                        if (eq + 1 < end) {
+                            nameValue.setValue(query.substring(eq + 1, end));
+                        }
+                    }
+                    queryNameValues.add(nameValue);
+                }
+                start = end + 1;
+            }
+            return queryNameValues;
+        }
+    }
+
+
+    /**
+     * URL模板开头常量部分的解析结果
+     * <p>常量部分包含完整的协议、主机和端口时，每次调用只需要解析其后的路径和查询参数</p>
+     */
+    static final class URLPrefix {
+
+        /**
+         * URL模板开头的常量部分
+         */
+        final String templatePrefix;
+
+        /**
+         * 与接口级baseURL合并后的完整前缀
+         */
+        final String fullPrefix;
+
+        final String protocol;
+
+        final String hostAndPort;
+
+        /**
+         * 主机和端口在完整URL中的结束位置
+         */
+        final int authorityEnd;
+
+        private URLPrefix(String templatePrefix, String fullPrefix, String protocol, String hostAndPort, int authorityEnd) {
+            this.templatePrefix = templatePrefix;
+            this.fullPrefix = fullPrefix;
+            this.protocol = protocol;
+            this.hostAndPort = hostAndPort;
+            this.authorityEnd = authorityEnd;
+        }
+
+        /**
+         * 创建URL前缀，前缀不足以确定协议、主机和端口时返回null
+         * @param baseUrl 渲染后的baseURL
+         * @param templatePrefix URL模板开头的常量部分
+         * @return
+         */
+        static URLPrefix create(String baseUrl, String templatePrefix) {
+            if (StringUtils.isEmpty(templatePrefix)) {
+                return null;
+            }
+            // 前缀必须足以判断URL是否包含协议，否则无法确定与baseURL合并的方式
+            if (!URLUtils.hasProtocol(templatePrefix) &&
+                    ("http://".startsWith(templatePrefix) || "https://".startsWith(templatePrefix))) {
+                return null;
+            }
+            String fullPrefix = URLUtils.getValidURL(baseUrl, templatePrefix);
+            int schemeEnd = fullPrefix.indexOf("://");
+            if (schemeEnd <= 0) {
+                return null;
+            }
+            int authorityStart = schemeEnd + 3;
+            int authorityEnd = RequestURL.indexOfAuthorityEnd(fullPrefix, authorityStart);
+            if (authorityEnd < 0) {
+                return null;
+            }
+            String protocol = fullPrefix.substring(0, schemeEnd).toLowerCase();
+            String hostAndPort = RequestURL.parseAuthority(fullPrefix, authorityStart, authorityEnd);
+            return new URLPrefix(templatePrefix, fullPrefix, protocol, hostAndPort, authorityEnd);
+        }
+
+        /**
+         * 解析渲染后的URL，只解析常量前缀之后的部分
+         * @param renderedUrl
+         * @return
+         */
+        RequestURL parse(String renderedUrl) {
+            String fullUrl = fullPrefix.length() == templatePrefix.length() ?
+                    renderedUrl : fullPrefix + renderedUrl.substring(templatePrefix.length());
+            return RequestURL.parse(fullUrl, this);
+        }
+    }
+
+
+    /**
+     * 解析后的请求数据模板
+     */
+    static final class RequestData {
+
+        final String text;
+
+        final RequestNameValue[] nameValues;
+
+        private RequestData(String text, RequestNameValue[] nameValues) {
+            this.text = text;
+            this.nameValues = nameValues;
+        }
+
+        static RequestData parse(String data) {
+            String[] paramArray = data.split("&");
+            List<RequestNameValue> nameValues = new ArrayList<>(paramArray.length);
+            for (int j = 0; j < paramArray.length; j++) {
+                String dataParam = paramArray[j];
+                String[] dataNameValue = dataParam.split("=");
+                if (dataNameValue.length > 0) {
+                    String name = dataNameValue[0].trim();
+                    RequestNameValue nameValue = new RequestNameValue(name, false);
+                    if (dataNameValue.length == 2) {
+                        nameValue.setValue(dataNameValue[1].trim());
+                    }
+                    nameValues.add(nameValue);
+                }
+            }
+            return new RequestData(data, nameValues.toArray(new RequestNameValue[nameValues.size()]));
+        }
+    }
+
+}
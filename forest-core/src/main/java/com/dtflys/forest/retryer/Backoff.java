@@ -0,0 +1,15 @@
+package com.dtflys.forest.retryer;
+
+/**
+ * 重试的退避策略
+ */
+public interface Backoff {
+
+    /**
+     * 获取第几次重试前的等待时间
+     * @param retryCount 即将进行的是第几次重试，从1开始
+     * @return 等待时间（毫秒）
+     */
+    long getDelay(int retryCount);
+
+}
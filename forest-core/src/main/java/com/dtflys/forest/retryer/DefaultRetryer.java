@@ -1,43 +1,118 @@
 package com.dtflys.forest.retryer;
 
+import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.exceptions.ForestRetryException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
 
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+
+/**
+ * 默认的重试器
+ * <p>只重试可能是暂时性的失败，并区分请求方法是否幂等：</p>
+ * <ul>
+ *     <li>连接没有建立起来（连接被拒绝、域名解析失败、路由不可达）时，请求还没有发出，任何方法都可以重试</li>
+ *     <li>其他网络错误（如读取超时）时，服务端可能已经处理了请求，只重试幂等的方法</li>
+ *     <li>429和503表示服务端没有处理请求，任何方法都可以重试</li>
+ *     <li>其他5xx错误只重试幂等的方法，4xx等其他错误不重试</li>
+ * </ul>
+ * <p>需要重试时再从配置的 {@link RetryBudget} 中取出一次重试，预算不足时不再重试；等待时间由 {@link Backoff} 计算</p>
+ */
 public class DefaultRetryer implements Retryer {
 
-    private final int retryCount;
+    public final static long DEFAULT_RETRY_INTERVAL = 100;
+
+    public final static long DEFAULT_MAX_RETRY_INTERVAL = 5000;
 
-    private final long retryInterval;
+    private final Backoff backoff;
 
-    private final long maxRetryInterval;
+    public DefaultRetryer() {
+        this(DEFAULT_RETRY_INTERVAL, DEFAULT_MAX_RETRY_INTERVAL);
+    }
 
-    private final long intervalInc;
+    public DefaultRetryer(long retryInterval, long maxRetryInterval) {
+        this(new ExponentialBackoff(retryInterval, maxRetryInterval));
+    }
 
-    private long waitTime;
+    public DefaultRetryer(Backoff backoff) {
+        this.backoff = backoff;
+    }
+
+    public Backoff getBackoff() {
+        return backoff;
+    }
 
-    public DefaultRetryer(int retryCount, long retryInterval, long maxRetryInterval) {
-        this.retryCount = retryCount;
-        this.maxRetryInterval = maxRetryInterval;
-        if (retryInterval < 0) {
-            this.retryInterval = 0;
-        } else {
-            this.retryInterval = retryInterval;
+    @Override
+    public long nextRetryDelay(ForestRetryException ex) {
+        if (ex.getCurrentRetryCount() >= ex.getMaxRetryCount()) {
+            return -1;
+        }
+        ForestRequest request = ex.getRequest();
+        if (!isRetryable(request, ex.getResponse(), ex.getCause())) {
+            return -1;
         }
-        if (retryCount < 2) {
-            this.intervalInc = 0;
-        } else if (maxRetryInterval < retryInterval) {
-             this.intervalInc = 0;
-         } else {
-            this.intervalInc = (maxRetryInterval - retryInterval) / (retryCount - 1);
+        ForestConfiguration configuration = request.getConfiguration();
+        if (configuration != null && !configuration.getRetryBudget().tryAcquire(request.getUrl())) {
+            return -1;
         }
+        return backoff.getDelay(ex.getCurrentRetryCount() + 1);
     }
 
+    /**
+     * 在当前线程中等待到下一次重试，不再重试时抛出失败的原因
+     * @param ex
+     * @throws Throwable
+     * @deprecated 请使用 {@link #nextRetryDelay(ForestRetryException)}
+     */
+    @Deprecated
     @Override
     public void doRetry(ForestRetryException ex) throws Throwable {
-        int currentCount = ex.getCurrentRetryCount();
-        if (currentCount >= retryCount) {
-            throw ex.getCause();
+        long delay = nextRetryDelay(ex);
+        if (delay < 0) {
+            throw ex.getCause() != null ? ex.getCause() : ex;
         }
+        RetryScheduler.sleep(delay);
+    }
 
+    /**
+     * 判断失败的请求是否可以重试
+     * @param request 请求
+     * @param response 收到的错误响应，网络错误时可能为null
+     * @param cause 失败的原因
+     * @return
+     */
+    protected boolean isRetryable(ForestRequest request, ForestResponse response, Throwable cause) {
+        if (response != null) {
+            int statusCode = response.getStatusCode();
+            if (statusCode == 429 || statusCode == 503) {
+                return true;
+            }
+            return statusCode >= 500 && isIdempotent(request.getType());
+        }
+        if (cause instanceof ConnectException
+                || cause instanceof UnknownHostException
+                || cause instanceof NoRouteToHostException) {
+            return true;
+        }
+        return cause != null && isIdempotent(request.getType());
     }
 
+    /**
+     * 判断请求方法是否幂等，重复发送与发送一次的效果相同
+     * @param method 请求方法
+     * @return
+     */
+    public static boolean isIdempotent(String method) {
+        if (method == null) {
+            return false;
+        }
+        return "GET".equalsIgnoreCase(method)
+                || "HEAD".equalsIgnoreCase(method)
+                || "OPTIONS".equalsIgnoreCase(method)
+                || "TRACE".equalsIgnoreCase(method)
+                || "PUT".equalsIgnoreCase(method)
+                || "DELETE".equalsIgnoreCase(method);
+    }
 }
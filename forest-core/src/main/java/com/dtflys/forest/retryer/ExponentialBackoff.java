@@ -0,0 +1,71 @@
+package com.dtflys.forest.retryer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 带随机抖动的指数退避
+ * <p>第n次重试的基准等待时间为 retryInterval * multiplier^(n-1)，不超过maxRetryInterval；
+ * 实际等待时间在基准时间的 [1 - jitter, 1] 倍之间随机取值，避免大量请求在同一时刻一起重试</p>
+ */
+public class ExponentialBackoff implements Backoff {
+
+    private final long retryInterval;
+
+    private final long maxRetryInterval;
+
+    private final double multiplier;
+
+    private final double jitter;
+
+    public ExponentialBackoff(long retryInterval, long maxRetryInterval) {
+        this(retryInterval, maxRetryInterval, 2, 0.5);
+    }
+
+    /**
+     * @param retryInterval 第一次重试的基准等待时间（毫秒）
+     * @param maxRetryInterval 最大等待时间（毫秒）
+     * @param multiplier 每次重试等待时间的增长倍数
+     * @param jitter 随机抖动的比例，0表示不抖动，1表示在 [0, 基准时间] 之间随机
+     */
+    public ExponentialBackoff(long retryInterval, long maxRetryInterval, double multiplier, double jitter) {
+        if (retryInterval < 0) {
+            throw new IllegalArgumentException("retryInterval must not be negative");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must not be less than 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+        this.retryInterval = retryInterval;
+        this.maxRetryInterval = Math.max(retryInterval, maxRetryInterval);
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public long getDelay(int retryCount) {
+        double delay = retryInterval * Math.pow(multiplier, Math.max(0, retryCount - 1));
+        delay = Math.min(delay, maxRetryInterval);
+        if (jitter > 0) {
+            delay *= 1 - jitter * ThreadLocalRandom.current().nextDouble();
+        }
+        return (long) delay;
+    }
+
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    public long getMaxRetryInterval() {
+        return maxRetryInterval;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+}
@@ -0,0 +1,151 @@
+package com.dtflys.forest.retryer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按路由（协议、主机和端口）计算的重试预算
+ * <p>每个路由一个令牌桶：开启了重试的请求每发送一次存入retryRatio个令牌，每次重试取出一个令牌，
+ * 令牌不足时不再重试。下游出现故障时，重试的请求数最多只是正常请求数的retryRatio倍再加上maxBurst次，
+ * 不会因为重试成倍放大对下游的压力</p>
+ */
+public class RetryBudget {
+
+    /**
+     * 令牌以千分之一为单位计数，避免浮点数的CAS
+     */
+    private final static long SCALE = 1000;
+
+    private final ConcurrentMap<String, AtomicLong> routeTokens = new ConcurrentHashMap<>();
+
+    private final AtomicLong exhaustedRetries = new AtomicLong();
+
+    private volatile long depositTokens;
+
+    private volatile long maxTokens;
+
+    public RetryBudget() {
+        this(0.2, 10);
+    }
+
+    /**
+     * @param retryRatio 每发送一个请求可以增加的重试次数
+     * @param maxBurst 每个路由最多可以累积的重试次数，也是路由的初始重试次数
+     */
+    public RetryBudget(double retryRatio, int maxBurst) {
+        setRetryRatio(retryRatio);
+        setMaxBurst(maxBurst);
+    }
+
+    public double getRetryRatio() {
+        return (double) depositTokens / SCALE;
+    }
+
+    public void setRetryRatio(double retryRatio) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("retryRatio must not be negative");
+        }
+        this.depositTokens = (long) (retryRatio * SCALE);
+    }
+
+    public int getMaxBurst() {
+        return (int) (maxTokens / SCALE);
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        if (maxBurst < 0) {
+            throw new IllegalArgumentException("maxBurst must not be negative");
+        }
+        this.maxTokens = maxBurst * SCALE;
+    }
+
+    /**
+     * 记录发往该URL所在路由的一个请求
+     * @param url
+     */
+    public void recordRequest(String url) {
+        AtomicLong tokens = getTokens(url);
+        long deposit = depositTokens;
+        long max = maxTokens;
+        for (;;) {
+            long current = tokens.get();
+            if (current >= max) {
+                return;
+            }
+            if (tokens.compareAndSet(current, Math.min(max, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从该URL所在路由的预算中取出一次重试
+     * @param url
+     * @return 预算不足时返回false
+     */
+    public boolean tryAcquire(String url) {
+        AtomicLong tokens = getTokens(url);
+        for (;;) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                exhaustedRetries.incrementAndGet();
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 获取该URL所在路由当前还可以重试的次数
+     * @param url
+     * @return
+     */
+    public int getAvailableRetries(String url) {
+        return (int) (getTokens(url).get() / SCALE);
+    }
+
+    /**
+     * 获取因为预算不足而放弃的重试次数
+     * @return
+     */
+    public long getExhaustedRetryCount() {
+        return exhaustedRetries.get();
+    }
+
+    private AtomicLong getTokens(String url) {
+        String route = getRoute(url);
+        AtomicLong tokens = routeTokens.get(route);
+        if (tokens == null) {
+            AtomicLong newTokens = new AtomicLong(maxTokens);
+            tokens = routeTokens.putIfAbsent(route, newTokens);
+            if (tokens == null) {
+                tokens = newTokens;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 截取URL中协议、主机和端口的部分作为路由
+     * @param url
+     * @return
+     */
+    static String getRoute(String url) {
+        if (url == null) {
+            return "";
+        }
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int len = url.length();
+        for (int i = start; i < len; i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return url.substring(0, i);
+            }
+        }
+        return url;
+    }
+}
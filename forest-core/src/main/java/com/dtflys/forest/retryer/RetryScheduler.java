@@ -0,0 +1,90 @@
+package com.dtflys.forest.retryer;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步请求的重试调度器
+ * <p>等待中的重试只是共享定时器中的一个任务，不占用任何线程；
+ * 到时间后定时器线程只负责重新发送请求，发送本身是非阻塞的，响应仍然交给后端的IO线程和回调执行器处理</p>
+ */
+public class RetryScheduler {
+
+    private volatile ScheduledThreadPoolExecutor timer;
+
+    /**
+     * 在等待指定的时间后执行重试任务
+     * @param task 重试任务
+     * @param delay 等待时间（毫秒）
+     * @return 可以用来取消重试的Future
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return getTimer().schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取等待中的重试数
+     * @return
+     */
+    public int getQueueSize() {
+        ScheduledThreadPoolExecutor timer = this.timer;
+        return timer == null ? 0 : timer.getQueue().size();
+    }
+
+    /**
+     * 关闭重试定时器，之后再有重试时会重新创建
+     */
+    public void shutdown() {
+        ScheduledThreadPoolExecutor timer;
+        synchronized (this) {
+            timer = this.timer;
+            this.timer = null;
+        }
+        if (timer != null) {
+            timer.shutdown();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor getTimer() {
+        ScheduledThreadPoolExecutor timer = this.timer;
+        if (timer == null) {
+            synchronized (this) {
+                timer = this.timer;
+                if (timer == null) {
+                    timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "forest-retry-timer");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                    // 请求取消后，等待中的重试立即从队列中移除
+                    timer.setRemoveOnCancelPolicy(true);
+                    this.timer = timer;
+                }
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * 同步请求在调用方的线程中等待重试
+     * @param delay 等待时间（毫秒）
+     */
+    public static void sleep(long delay) {
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ForestRuntimeException(e);
+        }
+    }
+}
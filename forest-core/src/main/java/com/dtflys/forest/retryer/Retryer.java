@@ -2,8 +2,36 @@ package com.dtflys.forest.retryer;
 
 import com.dtflys.forest.exceptions.ForestRetryException;
 
+/**
+ * 请求重试器，决定失败的请求是否重试以及重试前的等待时间
+ * <p>重试器只做决定，不会阻塞：异步请求的重试由 {@link RetryScheduler} 按等待时间安排，同步请求在调用方的线程中等待</p>
+ * <p>只实现了 {@link #doRetry(ForestRetryException)} 的旧重试器仍然可用：doRetry正常返回时立即重试，抛出异常时不再重试</p>
+ */
 public interface Retryer {
 
-    void doRetry(ForestRetryException ex) throws Throwable;
+    /**
+     * 获取下一次重试前的等待时间
+     * @param ex 本次失败的信息，包括请求、失败的原因（网络错误或错误的响应）以及已经重试的次数
+     * @return 等待时间（毫秒），不再重试时返回-1
+     */
+    default long nextRetryDelay(ForestRetryException ex) {
+        try {
+            doRetry(ex);
+        } catch (Throwable th) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * 执行重试前的处理，抛出异常时不再重试
+     * @param ex 本次失败的信息
+     * @throws Throwable 不再重试
+     * @deprecated 请实现 {@link #nextRetryDelay(ForestRetryException)}，该方法将在下个版本中删除
+     */
+    @Deprecated
+    default void doRetry(ForestRetryException ex) throws Throwable {
+        throw ex;
+    }
 
 }
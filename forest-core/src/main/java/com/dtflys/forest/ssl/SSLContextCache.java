@@ -0,0 +1,153 @@
+package com.dtflys.forest.ssl;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSL上下文缓存
+ * <p>同一个KeyStore（或未指定KeyStore时的同一个SSL协议）共享一个SSLContext，
+ * 使得SSL会话可以在连接之间复用，避免每个新连接都进行完整的SSL握手</p>
+ */
+public class SSLContextCache {
+
+    private final static String KEYSTORE_KEY_PREFIX = "keystore:";
+
+    private final static String TRUST_ALL_KEY_PREFIX = "trust-all:";
+
+    private final ForestConfiguration configuration;
+
+    private final ConcurrentMap<String, SSLSocketFactory> socketFactoryCache = new ConcurrentHashMap<>();
+
+    /**
+     * 完整握手次数
+     */
+    private final AtomicLong fullHandshakes = new AtomicLong();
+
+    /**
+     * 复用SSL会话的握手次数
+     */
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+
+    public SSLContextCache(ForestConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 获取请求的SSL缓存Key，使用相同Key的请求可以复用同一个SSL上下文以及SSL连接
+     * @param request
+     * @return
+     */
+    public static String getCacheKey(ForestRequest request) {
+        SSLKeyStore keyStore = request.getKeyStore();
+        if (keyStore != null) {
+            return KEYSTORE_KEY_PREFIX + keyStore.getId();
+        }
+        return TRUST_ALL_KEY_PREFIX + request.getConfiguration().getSslProtocol();
+    }
+
+    /**
+     * 获取请求对应的SSL Socket工厂，相同KeyStore的请求共享同一个工厂及其SSLContext
+     * @param request
+     * @return
+     */
+    public SSLSocketFactory getSSLSocketFactory(ForestRequest request) {
+        String key = getCacheKey(request);
+        SSLSocketFactory socketFactory = socketFactoryCache.get(key);
+        if (socketFactory != null) {
+            return socketFactory;
+        }
+        socketFactory = createSSLSocketFactory(request);
+        SSLSocketFactory existed = socketFactoryCache.putIfAbsent(key, socketFactory);
+        if (existed != null) {
+            return existed;
+        }
+        return socketFactory;
+    }
+
+    private SSLSocketFactory createSSLSocketFactory(ForestRequest request) {
+        SSLContext sslContext;
+        try {
+            sslContext = SSLUtils.getSSLContext(request);
+        } catch (KeyManagementException e) {
+            throw new ForestRuntimeException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ForestRuntimeException(e);
+        }
+        if (sslContext == null) {
+            throw new ForestRuntimeException("SSL context cannot be initialized.");
+        }
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext != null) {
+            if (configuration.getSslSessionCacheSize() != null) {
+                sessionContext.setSessionCacheSize(configuration.getSslSessionCacheSize());
+            }
+            if (configuration.getSslSessionTimeout() != null) {
+                sessionContext.setSessionTimeout(configuration.getSslSessionTimeout());
+            }
+        }
+        return new ForestSSLSocketFactory(sslContext.getSocketFactory(), new HandshakeCounter());
+    }
+
+    /**
+     * 移除指定KeyStore的缓存，在KeyStore被重新注册时调用
+     * @param keyStoreId
+     */
+    public void invalidate(String keyStoreId) {
+        socketFactoryCache.remove(KEYSTORE_KEY_PREFIX + keyStoreId);
+    }
+
+    public void clear() {
+        socketFactoryCache.clear();
+    }
+
+    /**
+     * 获取完整SSL握手的次数
+     * @return
+     */
+    public long getFullHandshakes() {
+        return fullHandshakes.get();
+    }
+
+    /**
+     * 获取复用已有SSL会话的握手次数
+     * @return
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes.get();
+    }
+
+
+    /**
+     * 统计握手次数，在握手开始前创建的会话即为复用的会话
+     */
+    class HandshakeCounter {
+
+        HandshakeCompletedListener newListener() {
+            final long startTime = System.currentTimeMillis();
+            return new HandshakeCompletedListener() {
+                @Override
+                public void handshakeCompleted(HandshakeCompletedEvent event) {
+                    event.getSocket().removeHandshakeCompletedListener(this);
+                    if (event.getSession().getCreationTime() < startTime) {
+                        resumedHandshakes.incrementAndGet();
+                    } else {
+                        fullHandshakes.incrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+
+}
@@ -110,21 +110,16 @@ public class SSLUtils {
         return SSLUtils.customSSL(request);
     }
 
+    /**
+     * 获取SSL Socket工厂，相同KeyStore的请求复用同一个SSL上下文
+     * @param request
+     * @return
+     */
     public static SSLSocketFactory getSSLSocketFactory(ForestRequest request) {
         if (request == null) {
             return null;
         }
-        try {
-            SSLContext sslContext = SSLUtils.getSSLContext(request);
-            if (sslContext == null) {
-                throw new ForestRuntimeException("SSL context cannot be initialized.");
-            }
-            return sslContext.getSocketFactory();
-        } catch (KeyManagementException e) {
-            throw new ForestRuntimeException(e);
-        } catch (NoSuchAlgorithmException e) {
-            throw new ForestRuntimeException(e);
-        }
+        return request.getConfiguration().getSslContextCache().getSSLSocketFactory(request);
     }
 
 
@@ -2,12 +2,43 @@ package com.dtflys.forest.utils;
 
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-05-17 16:35
  */
 public final class URLUtils {
 
+    private final static char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 不需要编码的ASCII字符，与 {@link java.net.URLEncoder} 保持一致
+     */
+    private final static boolean[] UNRESERVED = new boolean[128];
+
+    private final static Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private final static ConcurrentMap<String, Charset> CHARSET_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        for (char ch = 'a'; ch <= 'z'; ch++) {
+            UNRESERVED[ch] = true;
+        }
+        for (char ch = 'A'; ch <= 'Z'; ch++) {
+            UNRESERVED[ch] = true;
+        }
+        for (char ch = '0'; ch <= '9'; ch++) {
+            UNRESERVED[ch] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['*'] = true;
+    }
+
     private URLUtils() {
     }
 
@@ -55,4 +86,77 @@ public final class URLUtils {
         return uri;
     }
 
+
+    /**
+     * 根据字符集名称获取字符集，名称为空时返回UTF-8
+     * @param charsetName
+     * @return
+     */
+    public static Charset getCharset(String charsetName) {
+        if (StringUtils.isEmpty(charsetName)) {
+            return DEFAULT_CHARSET;
+        }
+        Charset charset = CHARSET_CACHE.get(charsetName);
+        if (charset == null) {
+            try {
+                charset = Charset.forName(charsetName);
+            } catch (IllegalArgumentException e) {
+                throw new ForestRuntimeException("unsupported charset: " + charsetName, e);
+            }
+            CHARSET_CACHE.putIfAbsent(charsetName, charset);
+        }
+        return charset;
+    }
+
+    /**
+     * 以 application/x-www-form-urlencoded 格式编码字符串
+     * @param value
+     * @param charsetName
+     * @return
+     */
+    public static String encode(String value, String charsetName) {
+        StringBuilder builder = new StringBuilder(value.length() + 16);
+        appendEncoded(builder, value, getCharset(charsetName));
+        return builder.toString();
+    }
+
+    /**
+     * 以 application/x-www-form-urlencoded 格式编码字符串并直接写入builder，
+     * 编码结果与 {@link java.net.URLEncoder#encode(String, String)} 相同
+     * @param builder
+     * @param value
+     * @param charset
+     */
+    public static void appendEncoded(StringBuilder builder, String value, Charset charset) {
+        int len = value.length();
+        int i = 0;
+        while (i < len) {
+            char ch = value.charAt(i);
+            if (ch < 128 && UNRESERVED[ch]) {
+                builder.append(ch);
+                i++;
+            } else if (ch == ' ') {
+                builder.append('+');
+                i++;
+            } else if (ch < 128) {
+                appendHex(builder, ch);
+                i++;
+            } else {
+                // 连续的非ASCII字符一起按字符集编码，保证代理对被完整编码
+                int start = i;
+                do {
+                    i++;
+                } while (i < len && value.charAt(i) >= 128);
+                byte[] bytes = value.substring(start, i).getBytes(charset);
+                for (int j = 0; j < bytes.length; j++) {
+                    appendHex(builder, bytes[j] & 0xFF);
+                }
+            }
+        }
+    }
+
+    private static void appendHex(StringBuilder builder, int b) {
+        builder.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]);
+    }
+
 }
@@ -2,9 +2,17 @@ package com.dtflys.test.conf;
 
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.backend.HttpBackendSelector;
+import com.dtflys.forest.callback.CallbackExecutors;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.converter.ForestConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.executor.ForestExecutorProvider;
+import com.dtflys.forest.executor.PlatformExecutorProvider;
+import com.dtflys.forest.executor.VirtualThreadExecutorProvider;
+import com.dtflys.forest.filter.Filter;
+import com.dtflys.forest.filter.FilterChain;
+import com.dtflys.forest.filter.FilteredBody;
+import com.dtflys.forest.ssl.SSLContextCache;
 import com.dtflys.forest.ssl.SSLUtils;
 import com.dtflys.forest.utils.ForestDataType;
 import com.dtflys.forest.utils.RequestNameValue;
@@ -17,10 +25,19 @@ import com.dtflys.forest.converter.json.ForestJsonConverter;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static junit.framework.Assert.*;
 
@@ -108,6 +125,21 @@ public class TestForestConfiguration {
         assertEquals("Linda", configuration.getVariableValue("name"));
         assertEquals("123", configuration.getVariableValue("abc"));
         assertEquals(varMap, configuration.getVariables());
+
+        // 全局变量只能通过配置修改，修改后版本号改变
+        int version = configuration.getVariablesVersion();
+        varMap.put("name", "Mike");
+        assertEquals("Linda", configuration.getVariableValue("name"));
+        boolean error = false;
+        try {
+            configuration.getVariables().put("name", "Mike");
+        } catch (UnsupportedOperationException e) {
+            error = true;
+        }
+        assertTrue(error);
+        assertEquals(version, configuration.getVariablesVersion());
+        configuration.setVariableValue("name", "Mike");
+        assertTrue(version != configuration.getVariablesVersion());
     }
 
 
@@ -183,4 +215,163 @@ public class TestForestConfiguration {
         assertNull(jsonConverter);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSingletonFilter() throws IOException {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.registerFilter("upper", UpperCaseFilter.class);
+        Filter jsonFilter = configuration.getFilter("json");
+        assertSame(jsonFilter, configuration.getFilter("json"));
+        assertNotSame(configuration.getFilter("upper"), configuration.getFilter("upper"));
+
+        FilterChain filterChain = new FilterChain();
+        filterChain.addFilter(configuration.getFilter("upper"));
+        filterChain.addFilter(jsonFilter);
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "foo");
+        Object result = filterChain.doBodyFilter(configuration, data);
+        assertTrue(result instanceof FilteredBody);
+        assertEquals("{\"name\":\"FOO\"}", result.toString());
+        // 字符串只生成一次，拦截器多次读取时不重复执行过滤器
+        assertSame(result.toString(), result.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((FilteredBody) result).writeTo(out, "UTF-8");
+        assertEquals("{\"name\":\"FOO\"}", out.toString("UTF-8"));
+        assertEquals("{\"name\":\"FOO\"}", filterChain.doFilter(configuration, data));
+    }
+
+    public static class UpperCaseFilter implements Filter {
+        @Override
+        public Object doFilter(ForestConfiguration configuration, Object data) {
+            Map<String, Object> result = new HashMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) data).entrySet()) {
+                result.put(entry.getKey(), String.valueOf(entry.getValue()).toUpperCase());
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void testCallbackExecutor() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        Executor defaultExecutor = configuration.getCallbackExecutor();
+        assertTrue(defaultExecutor instanceof ThreadPoolExecutor);
+        assertSame(defaultExecutor, configuration.getCallbackExecutor());
+        assertEquals(0, configuration.getCallbackQueueSize());
+
+        configuration.setCallbackExecutor(CallbackExecutors.SAME_THREAD);
+        assertSame(CallbackExecutors.SAME_THREAD, configuration.getCallbackExecutor());
+        assertEquals(0, configuration.getCallbackQueueSize());
+        configuration.setCallbackExecutor(null);
+        assertSame(defaultExecutor, configuration.getCallbackExecutor());
+
+        assertSame(CallbackExecutors.SAME_THREAD, configuration.getCallbackExecutor(CallbackExecutors.SAME_THREAD_NAME));
+        ExecutorService executor = Executors.newCachedThreadPool();
+        configuration.registerCallbackExecutor("myExecutor", executor);
+        assertSame(executor, configuration.getCallbackExecutor("myExecutor"));
+        executor.shutdown();
+        assertEquals(-1, CallbackExecutors.getQueueSize(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+            }
+        }));
+        boolean error = false;
+        try {
+            configuration.getCallbackExecutor("notRegistered");
+        } catch (ForestRuntimeException e) {
+            error = true;
+        }
+        assertTrue(error);
+    }
+
+    @Test
+    public void testExecutorProvider() throws Exception {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        assertTrue(configuration.getExecutorProvider() instanceof PlatformExecutorProvider);
+        assertFalse(configuration.isVirtualThreadEnabled());
+        assertNull(configuration.getExecutorProvider().newBackendExecutor("test"));
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        configuration.setExecutorProvider(new ForestExecutorProvider() {
+            @Override
+            public ExecutorService newCallbackExecutor(String name) {
+                return executor;
+            }
+
+            @Override
+            public ExecutorService newBackendExecutor(String name) {
+                return null;
+            }
+        });
+        assertSame(executor, configuration.getCallbackExecutor());
+        configuration.setExecutorProvider(new PlatformExecutorProvider());
+        assertTrue(executor.isShutdown());
+
+        configuration.setVirtualThreadEnabled(true);
+        assertTrue(configuration.getExecutorProvider() instanceof VirtualThreadExecutorProvider);
+        assertEquals(VirtualThreadExecutorProvider.isSupported(), configuration.isVirtualThreadEnabled());
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        configuration.getCallbackExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+        });
+        latch.await();
+        assertTrue(thread.get().getName().startsWith("forest-callback-"));
+        if (VirtualThreadExecutorProvider.isSupported()) {
+            assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread.get()));
+            assertNotNull(configuration.getExecutorProvider().newBackendExecutor("test"));
+        } else {
+            assertTrue(configuration.getCallbackExecutor() instanceof ThreadPoolExecutor);
+        }
+        configuration.setVirtualThreadEnabled(false);
+        assertTrue(configuration.getExecutorProvider() instanceof PlatformExecutorProvider);
+    }
+
+    @Test
+    public void testDefaultCallbackExecutorBounded() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) new PlatformExecutorProvider().newCallbackExecutor("test");
+        assertEquals(PlatformExecutorProvider.CALLBACK_QUEUE_CAPACITY, executor.getQueue().remainingCapacity());
+        executor.shutdown();
+        // 执行器关闭后提交的任务在当前线程中执行
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+            }
+        });
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void testClose() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        HttpBackend backend = configuration.getBackend();
+        ExecutorService defaultExecutor = (ExecutorService) configuration.getCallbackExecutor();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        configuration.registerCallbackExecutor("myExecutor", executor);
+        configuration.close();
+        assertTrue(defaultExecutor.isShutdown());
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+
+        assertNotSame(backend, configuration.getBackend());
+        Executor newExecutor = configuration.getCallbackExecutor();
+        assertNotSame(defaultExecutor, newExecutor);
+        assertFalse(((ExecutorService) newExecutor).isShutdown());
+        configuration.close();
+    }
+
+    @Test
+    public void testSslContextCacheNotSerialized() throws Exception {
+        assertTrue(Modifier.isTransient(ForestConfiguration.class.getDeclaredField("sslContextCache").getModifiers()));
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        SSLContextCache cache = configuration.getSslContextCache();
+        assertNotNull(cache);
+        assertSame(cache, configuration.getSslContextCache());
+    }
+
+}
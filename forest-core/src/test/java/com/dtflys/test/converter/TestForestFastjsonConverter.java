@@ -10,6 +10,8 @@ import com.dtflys.forest.converter.json.ForestJacksonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -142,4 +144,16 @@ public class TestForestFastjsonConverter {
 
     }
 
+    @Test
+    public void testConvertBytesToJava() {
+        ForestFastjsonConverter forestFastjsonConverter = new ForestFastjsonConverter();
+        Charset gbk = Charset.forName("GBK");
+        byte[] bytes = "{\"a\":\"中文\", \"b\":2}".getBytes(gbk);
+        Map map = forestFastjsonConverter.convertToJavaObject(bytes, gbk, Map.class);
+        assertEquals("中文", map.get("a"));
+        assertEquals(2, map.get("b"));
+
+        map = forestFastjsonConverter.<Map>getTypeConverter(Map.class).convert(new ByteArrayInputStream(bytes), gbk);
+        assertEquals("中文", map.get("a"));
+    }
 }
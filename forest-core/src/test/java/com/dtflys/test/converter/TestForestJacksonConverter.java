@@ -1,20 +1,31 @@
 package com.dtflys.test.converter;
 
 import com.alibaba.fastjson.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.dtflys.test.http.model.JsonTestUser;
 import junit.framework.Assert;
+import com.dtflys.forest.converter.ForestTypeConverter;
 import com.dtflys.forest.converter.json.ForestFastjsonConverter;
 import com.dtflys.forest.converter.json.ForestJacksonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 
 /**
@@ -114,4 +125,85 @@ public class TestForestJacksonConverter {
 
 
 
+
+    @Test
+    public void testTypeConverter() {
+        ForestJacksonConverter forestJacksonConverter = new ForestJacksonConverter();
+        ForestTypeConverter<List<Map<String, Integer>>> typeConverter = forestJacksonConverter.getTypeConverter(
+                new TypeReference<List<Map<String, Integer>>>() {}.getType());
+        List<Map<String, Integer>> list = typeConverter.convert("[{\"a\":1}, {\"b\":2}]");
+        assertEquals(2, list.size());
+        assertEquals(Integer.valueOf(1), list.get(0).get("a"));
+        list = typeConverter.convert("[{\"c\":3}]");
+        assertEquals(Integer.valueOf(3), list.get(0).get("c"));
+    }
+
+    @Test
+    public void testConvertBytesToJava() {
+        ForestJacksonConverter forestJacksonConverter = new ForestJacksonConverter();
+        String jsonText = "{\"a\":\"中文\", \"b\":2}";
+        Charset utf8 = Charset.forName("UTF-8");
+        Charset gbk = Charset.forName("GBK");
+        Map map = forestJacksonConverter.convertToJavaObject(jsonText.getBytes(utf8), utf8, Map.class);
+        assertEquals("中文", map.get("a"));
+        assertEquals(2, map.get("b"));
+
+        map = forestJacksonConverter.convertToJavaObject(jsonText.getBytes(gbk), gbk, Map.class);
+        assertEquals("中文", map.get("a"));
+
+        map = forestJacksonConverter.<Map>getTypeConverter(Map.class).convert(
+                new ByteArrayInputStream(jsonText.getBytes(gbk)), gbk);
+        assertEquals("中文", map.get("a"));
+    }
+
+    @Test
+    public void testConvertToJsonBytes() {
+        ForestJacksonConverter forestJacksonConverter = new ForestJacksonConverter();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", "中文");
+        byte[] bytes = forestJacksonConverter.convertToJsonBytes(map, "UTF-8");
+        assertEquals("{\"a\":\"中文\"}", new String(bytes, Charset.forName("UTF-8")));
+        bytes = forestJacksonConverter.convertToJsonBytes(map, "GBK");
+        assertEquals("{\"a\":\"中文\"}", new String(bytes, Charset.forName("GBK")));
+    }
+
+    @Test
+    public void testCustomMapper() {
+        ObjectMapper customMapper = new ObjectMapper();
+        ForestJacksonConverter forestJacksonConverter = new ForestJacksonConverter(customMapper);
+        assertSame(customMapper, forestJacksonConverter.getMapper());
+        boolean error = false;
+        try {
+            forestJacksonConverter.convertToJavaObject("{\"unknown\":1}", JsonTestUser.class);
+        } catch (ForestRuntimeException e) {
+            error = true;
+        }
+        assertTrue(error);
+
+        forestJacksonConverter.setMapper(mapper);
+        JsonTestUser user = forestJacksonConverter.convertToJavaObject("{\"unknown\":1}", JsonTestUser.class);
+        assertNotNull(user);
+    }
+
+    @Test
+    public void testRegisterModule() {
+        ForestJacksonConverter forestJacksonConverter = new ForestJacksonConverter();
+        assertEquals("{\"username\":\"foo\"}", convertUser(forestJacksonConverter));
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(JsonTestUser.class, new JsonSerializer<JsonTestUser>() {
+            @Override
+            public void serialize(JsonTestUser value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeString(value.getUsername());
+            }
+        });
+        forestJacksonConverter.registerModule(module);
+        // 注册模块后缓存的Writer被丢弃
+        assertEquals("\"foo\"", convertUser(forestJacksonConverter));
+    }
+
+    private static String convertUser(ForestJacksonConverter converter) {
+        JsonTestUser user = new JsonTestUser();
+        user.setUsername("foo");
+        return converter.convertToJson(user);
+    }
 }
@@ -1,5 +1,7 @@
 package com.dtflys.test.converter;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import junit.framework.Assert;
 import com.dtflys.forest.converter.json.ForestGsonConverter;
@@ -7,11 +9,17 @@ import com.dtflys.forest.converter.json.ForestJacksonConverter;
 import com.dtflys.forest.exceptions.ForestRuntimeException;
 import org.junit.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 
 /**
@@ -128,7 +136,75 @@ public class TestGsonConverter {
             assertNotNull(e.getCause());
         }
         assertTrue(error);
+        // 顶层对象或数组之后多余的内容
+        error = false;
+        try {
+            gsonConverter.convertToJavaObject("{\"a\":1} xyz", Map.class);
+        } catch (ForestRuntimeException e) {
+            error = true;
+            assertNotNull(e.getCause());
+        }
+        assertTrue(error);
+
+        error = false;
+        try {
+            gsonConverter.convertToJavaObject("[1, 2] [3]", List.class);
+        } catch (ForestRuntimeException e) {
+            error = true;
+            assertNotNull(e.getCause());
+        }
+        assertTrue(error);
     }
 
+    @Test
+    public void testConvertBytesToJava() {
+        ForestGsonConverter gsonConverter = new ForestGsonConverter();
+        Charset utf8 = Charset.forName("UTF-8");
+        byte[] bytes = "{\"a\":1, \"b\":2}".getBytes(utf8);
+        Data data = gsonConverter.convertToJavaObject(bytes, utf8, Data.class);
+        assertEquals(Integer.valueOf(1), data.getA());
+        assertEquals(Integer.valueOf(2), data.getB());
+
+        Map map = gsonConverter.convertToJavaObject(bytes, utf8, Map.class);
+        assertEquals(1, map.get("a"));
+
+        List<Data> list = gsonConverter.convertToJavaObject(
+                "[{\"a\":3}]".getBytes(utf8), utf8, new TypeToken<List<Data>>() {}.getType());
+        assertEquals(Integer.valueOf(3), list.get(0).getA());
+    }
 
+    @Test
+    public void testConvertNumbersToMap() {
+        ForestGsonConverter gsonConverter = new ForestGsonConverter();
+        String jsonText = "{\"i\":1, \"l\":3000000000, \"d\":1.5, \"big\":123456789012345678901234567890, " +
+                "\"s\":\"x\", \"n\":null, \"b\":true, \"list\":[-2, {\"a\":[]}]}";
+        Map map = gsonConverter.convertToJavaObject(jsonText, Map.class);
+        assertEquals(1, map.get("i"));
+        assertEquals(3000000000L, map.get("l"));
+        assertEquals(1.5, map.get("d"));
+        assertEquals(new BigDecimal("123456789012345678901234567890"), map.get("big"));
+        assertEquals("x", map.get("s"));
+        assertTrue(map.containsKey("n"));
+        assertNull(map.get("n"));
+        assertEquals(Boolean.TRUE, map.get("b"));
+        List list = (List) map.get("list");
+        assertEquals(-2, list.get(0));
+        assertTrue(((Map) list.get(1)).get("a") instanceof List);
+    }
+
+    @Test
+    public void testCustomGson() {
+        Gson gson = new GsonBuilder().serializeNulls().create();
+        ForestGsonConverter gsonConverter = new ForestGsonConverter(gson);
+        assertSame(gson, gsonConverter.getGson());
+        Data data = new Data();
+        data.setA(1);
+        assertEquals("{\"a\":1,\"b\":null}", gsonConverter.convertToJson(data));
+
+        StringWriter writer = new StringWriter();
+        gsonConverter.writeJson(data, writer);
+        assertEquals("{\"a\":1,\"b\":null}", writer.toString());
+        Data result = gsonConverter.convertToJavaObject(new StringReader(writer.toString()), Data.class);
+        assertEquals(Integer.valueOf(1), result.getA());
+    }
 }
@@ -7,6 +7,9 @@ import org.junit.Test;
 
 import javax.xml.bind.annotation.*;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
 import static junit.framework.Assert.*;
 
 /**
@@ -92,6 +95,23 @@ public class TestJaxbConverter {
     }
 
 
+    @Test
+    public void testConvertToXmlWithoutFormat() {
+        User user = new User();
+        user.setName("Peter");
+        user.setAge(32);
+
+        ForestJaxbConverter forestJaxbConverter = new ForestJaxbConverter();
+        forestJaxbConverter.convertToXml(user);
+        forestJaxbConverter.setFormattedOutput(false);
+        // 池中已创建的Marshaller也使用新的设置
+        String xml = forestJaxbConverter.convertToXml(user);
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<user><name>Peter</name><age>32</age></user>", xml);
+        assertSame(forestJaxbConverter.getJaxbContext(User.class), forestJaxbConverter.getJaxbContext(User.class));
+    }
+
+
     public static class BadUser {
         @XmlElement(name="name")
         private String name;
@@ -129,5 +149,25 @@ public class TestJaxbConverter {
         assertTrue(error);
     }
 
+    @Test
+    public void convertBytesToJavaObject() throws Exception {
+        ForestJaxbConverter forestJaxbConverter = new ForestJaxbConverter();
+        String xmlText = "<?xml version=\"1.0\" encoding=\"GBK\"?>\n" +
+                "<user>\n" +
+                "<name>彼得</name>\n" +
+                "<age>32</age>\n" +
+                "</user>";
+        Charset gbk = Charset.forName("GBK");
+        User user = forestJaxbConverter.convertToJavaObject(xmlText.getBytes(gbk), gbk, User.class);
+        assertEquals("彼得", user.getName());
+        assertEquals(Integer.valueOf(32), user.getAge());
 
+        user = forestJaxbConverter.<User>getTypeConverter(User.class).convert(
+                new ByteArrayInputStream(xmlText.getBytes(gbk)), gbk);
+        assertEquals("彼得", user.getName());
+
+        // 响应没有声明字符集时按XML自身的编码声明解析
+        user = forestJaxbConverter.convertToJavaObject(xmlText.getBytes(gbk), null, User.class);
+        assertEquals("彼得", user.getName());
+    }
 }
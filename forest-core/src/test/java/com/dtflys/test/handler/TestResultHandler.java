@@ -0,0 +1,56 @@
+package com.dtflys.test.handler;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.handler.ResultDecoder;
+import com.dtflys.forest.handler.ResultHandler;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.utils.ForestDataType;
+import com.dtflys.test.converter.TestJaxbConverter;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+public class TestResultHandler {
+
+    @Test
+    public void testDecoderCache() {
+        ResultHandler resultHandler = new ResultHandler();
+        ResultDecoder mapDecoder = resultHandler.getDecoder(Map.class, Map.class);
+        assertSame(mapDecoder, resultHandler.getDecoder(Map.class, Map.class));
+
+        // 同一个结果类型对应不同的Class时分别缓存
+        ResultDecoder hashMapDecoder = resultHandler.getDecoder(Map.class, HashMap.class);
+        assertNotSame(mapDecoder, hashMapDecoder);
+        assertSame(hashMapDecoder, resultHandler.getDecoder(Map.class, HashMap.class));
+        assertSame(mapDecoder, resultHandler.getDecoder(Map.class, Map.class));
+        assertEquals(HashMap.class, hashMapDecoder.getResultClass());
+    }
+
+    @Test
+    public void testDecodeXmlWithoutDeclaredCharset() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        ForestRequest request = new ForestRequest(configuration);
+        request.setDataType(ForestDataType.XML);
+        String xmlText = "<?xml version=\"1.0\" encoding=\"GBK\"?>\n" +
+                "<user><name>彼得</name><age>32</age></user>";
+        ForestResponse response = Mockito.mock(ForestResponse.class);
+        Mockito.when(response.isReceivedResponseData()).thenReturn(true);
+        Mockito.when(response.getContentBytes()).thenReturn(xmlText.getBytes(Charset.forName("GBK")));
+        // 后端没有声明字符集时的默认字符集不应覆盖XML的编码声明
+        Mockito.when(response.getContentCharset()).thenReturn(Charset.forName("UTF-8"));
+
+        ResultHandler resultHandler = new ResultHandler();
+        TestJaxbConverter.User user = (TestJaxbConverter.User) resultHandler.getResult(
+                request, response, TestJaxbConverter.User.class, TestJaxbConverter.User.class);
+        assertEquals("彼得", user.getName());
+        assertEquals(Integer.valueOf(32), user.getAge());
+    }
+}
@@ -27,9 +27,17 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static org.junit.Assert.*;
 
@@ -170,4 +178,158 @@ public class TestAsyncGetClient extends BaseClientTest {
 
     }
 
+
+    @Test
+    public void testAsyncGetWithCompletableFuture() throws ExecutionException, InterruptedException {
+        CompletableFuture<String> future = getClient.asyncGetWithCompletableFuture();
+        assertNotNull(future);
+        CompletableFuture<Integer> length = future.thenApply(new Function<String, Integer>() {
+            @Override
+            public Integer apply(String data) {
+                return data.length();
+            }
+        });
+        assertEquals(AsyncGetMockServer.EXPECTED, future.get());
+        assertEquals(Integer.valueOf(AsyncGetMockServer.EXPECTED.length()), length.get());
+    }
+
+    @Test
+    public void testAsyncGetWithCompletionStage() throws ExecutionException, InterruptedException {
+        CompletionStage<Map> stage = getClient.asyncGetWithCompletionStage();
+        assertNotNull(stage);
+        Map data = stage.toCompletableFuture().get();
+        assertEquals("ok", data.get("status"));
+    }
+
+    @Test
+    public void testAsyncGetWithCompletableFutureError() throws InterruptedException {
+        CompletableFuture<String> future = getClient.asyncVarParamGetWithCompletableFuture("error param");
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ForestNetworkException);
+            assertEquals(Integer.valueOf(404), ((ForestNetworkException) e.getCause()).getStatusCode());
+        }
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testCallbackExecutor() throws ExecutionException, InterruptedException {
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "forest-callback-test");
+            }
+        });
+        configuration.setCallbackExecutor(executor);
+        try {
+            Future<String> future = getClient.asyncVarParamGet("foo", new OnSuccess<Object>() {
+                @Override
+                public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+                    threadName.set(Thread.currentThread().getName());
+                }
+            }, null);
+            assertEquals(AsyncGetMockServer.EXPECTED, future.get());
+            assertEquals("forest-callback-test", threadName.get());
+        } finally {
+            configuration.setCallbackExecutor(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelAsyncGet() throws InterruptedException {
+        final AtomicBoolean callback = new AtomicBoolean(false);
+        long cancelledCount = configuration.getCancelledRequestCount();
+        Future<String> future = getClient.asyncVarParamGet("foo", new OnSuccess<Object>() {
+            @Override
+            public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+                callback.set(true);
+            }
+        }, new OnError() {
+            @Override
+            public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+                callback.set(true);
+            }
+        });
+        assertTrue(future.cancel(true));
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertEquals(cancelledCount + 1, configuration.getCancelledRequestCount());
+        Thread.sleep(1500L);
+        assertFalse(callback.get());
+    }
+
+    @Test
+    public void testDefaultCallbackExecutor() throws ExecutionException, InterruptedException {
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        Future<String> future = getClient.asyncVarParamGet("foo", new OnSuccess<Object>() {
+            @Override
+            public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+                threadName.set(Thread.currentThread().getName());
+            }
+        }, null);
+        assertEquals(AsyncGetMockServer.EXPECTED, future.get());
+        assertTrue(threadName.get().startsWith("forest-callback-"));
+    }
+
+    @Test
+    public void testSameThreadCallbackExecutor() throws ExecutionException, InterruptedException {
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        CompletableFuture<String> future = getClient.asyncGetWithSameThreadCallback(new OnSuccess<String>() {
+            @Override
+            public void onSuccess(String data, ForestRequest request, ForestResponse response) {
+                threadName.set(Thread.currentThread().getName());
+            }
+        });
+        assertEquals(AsyncGetMockServer.EXPECTED, future.get());
+        assertNotNull(threadName.get());
+        assertFalse(threadName.get().startsWith("forest-callback-"));
+        assertNotEquals(Thread.currentThread().getName(), threadName.get());
+    }
+
+    @Test
+    public void testNamedCallbackExecutor() throws ExecutionException, InterruptedException {
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "forest-named-callback-test");
+            }
+        });
+        configuration.registerCallbackExecutor("testCallback", executor);
+        try {
+            CompletableFuture<String> future = getClient.asyncGetWithNamedCallback(new OnSuccess<String>() {
+                @Override
+                public void onSuccess(String data, ForestRequest request, ForestResponse response) {
+                    threadName.set(Thread.currentThread().getName());
+                }
+            });
+            assertEquals(AsyncGetMockServer.EXPECTED, future.get());
+            assertEquals("forest-named-callback-test", threadName.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncFailureWithThrowingOnError() throws InterruptedException {
+        final IllegalStateException callbackError = new IllegalStateException("callback error");
+        CompletableFuture<String> future = getClient.asyncGetUnreachable(new OnError() {
+            @Override
+            public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+                throw callbackError;
+            }
+        });
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            // OnError抛出的异常不会被丢弃
+            assertArrayEquals(new Throwable[] {callbackError}, e.getCause().getSuppressed());
+        }
+    }
+
 }
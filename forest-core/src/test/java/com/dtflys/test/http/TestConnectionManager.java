@@ -0,0 +1,189 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.httpclient.conn.ForestSSLConnectionFactory;
+import com.dtflys.forest.backend.httpclient.conn.HttpclientConnectionManager;
+import com.dtflys.forest.backend.okhttp3.conn.OkHttp3ConnectionManager;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.ssl.SSLContextCache;
+import okhttp3.OkHttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.ExecutorService;
+
+import static junit.framework.Assert.*;
+
+public class TestConnectionManager {
+
+    @Test
+    public void testOkHttp3SharedClient() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        OkHttp3ConnectionManager connectionManager = new OkHttp3ConnectionManager();
+        connectionManager.init(configuration);
+
+        ForestRequest request1 = new ForestRequest(configuration);
+        request1.setProtocol("http").setTimeout(3000);
+        ForestRequest request2 = new ForestRequest(configuration);
+        request2.setProtocol("http").setTimeout(3000);
+        ForestRequest request3 = new ForestRequest(configuration);
+        request3.setProtocol("http").setTimeout(5000);
+
+        OkHttpClient client1 = connectionManager.getClient(request1);
+        OkHttpClient client2 = connectionManager.getClient(request2);
+        OkHttpClient client3 = connectionManager.getClient(request3);
+        assertSame(client1, client2);
+        assertNotSame(client1, client3);
+        assertEquals(5000, client3.readTimeoutMillis());
+        assertSame(client1.dispatcher(), client3.dispatcher());
+        assertSame(client1.connectionPool(), client3.connectionPool());
+        assertEquals(configuration.getMaxConnections().intValue(), client1.dispatcher().getMaxRequests());
+
+        // 重新初始化和关闭时关闭Dispatcher的线程池
+        ExecutorService executor1 = client1.dispatcher().executorService();
+        connectionManager.init(configuration);
+        assertTrue(executor1.isShutdown());
+        OkHttpClient client4 = connectionManager.getClient(request1);
+        assertNotSame(client1, client4);
+        ExecutorService executor2 = client4.dispatcher().executorService();
+        assertFalse(executor2.isShutdown());
+        connectionManager.close();
+        assertTrue(executor2.isShutdown());
+    }
+
+    @Test
+    public void testHttpclientSharedAsyncClient() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        HttpclientConnectionManager connectionManager = new HttpclientConnectionManager();
+        connectionManager.init(configuration);
+
+        CloseableHttpAsyncClient client1 = connectionManager.getHttpAsyncClient();
+        CloseableHttpAsyncClient client2 = connectionManager.getHttpAsyncClient();
+        assertSame(client1, client2);
+        assertTrue(client1.isRunning());
+
+        ForestRequest request = new ForestRequest(configuration);
+        request.setTimeout(5000);
+        assertEquals(5000, connectionManager.createContext(request).getRequestConfig().getConnectTimeout());
+
+        connectionManager.close();
+        assertFalse(client1.isRunning());
+
+        // 关闭后不再使用已关闭的连接池，重新初始化后创建新的客户端和连接池
+        boolean error = false;
+        try {
+            connectionManager.getHttpAsyncClient();
+        } catch (ForestRuntimeException e) {
+            error = true;
+        }
+        assertTrue(error);
+        connectionManager.init(configuration);
+        CloseableHttpAsyncClient client3 = connectionManager.getHttpAsyncClient();
+        assertNotSame(client1, client3);
+        assertTrue(client3.isRunning());
+        connectionManager.init(configuration);
+        assertFalse(client3.isRunning());
+        connectionManager.close();
+    }
+
+    @Test
+    public void testHttpclientSharedSyncClient() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        HttpclientConnectionManager connectionManager = new HttpclientConnectionManager();
+        connectionManager.init(configuration);
+
+        ForestRequest request1 = new ForestRequest(configuration);
+        request1.setType("get").setTimeout(3000);
+        ForestRequest request2 = new ForestRequest(configuration);
+        request2.setType("get").setTimeout(3000);
+        ForestRequest request3 = new ForestRequest(configuration);
+        request3.setType("get").setTimeout(5000);
+
+        assertNotNull(connectionManager.getHttpClient());
+        RequestConfig config1 = connectionManager.getRequestConfig(request1);
+        RequestConfig config3 = connectionManager.getRequestConfig(request3);
+        assertSame(config1, connectionManager.getRequestConfig(request2));
+        assertNotSame(config1, config3);
+        assertEquals(5000, config3.getSocketTimeout());
+        assertFalse(config3.isStaleConnectionCheckEnabled());
+
+        // 非幂等的请求在发送前检查连接
+        ForestRequest postRequest = new ForestRequest(configuration);
+        postRequest.setType("post").setTimeout(5000);
+        RequestConfig postConfig = connectionManager.getRequestConfig(postRequest);
+        assertNotSame(config3, postConfig);
+        assertTrue(postConfig.isStaleConnectionCheckEnabled());
+
+        connectionManager.close();
+    }
+
+    @Test
+    public void testHttpclientCloseFailure() throws Exception {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        HttpclientConnectionManager connectionManager = new HttpclientConnectionManager();
+        connectionManager.init(configuration);
+        CloseableHttpClient realSyncClient = (CloseableHttpClient) connectionManager.getHttpClient();
+        CloseableHttpAsyncClient realAsyncClient = connectionManager.getHttpAsyncClient();
+
+        // 异步客户端关闭失败时同步客户端仍然被关闭
+        CloseableHttpAsyncClient asyncClient = Mockito.mock(CloseableHttpAsyncClient.class);
+        Mockito.doThrow(new IOException("close error")).when(asyncClient).close();
+        CloseableHttpClient syncClient = Mockito.mock(CloseableHttpClient.class);
+        setField(connectionManager, "asyncClient", asyncClient);
+        setField(connectionManager, "syncClient", syncClient);
+        boolean error = false;
+        try {
+            connectionManager.close();
+        } catch (ForestRuntimeException e) {
+            error = true;
+            assertEquals("close error", e.getCause().getMessage());
+        }
+        assertTrue(error);
+        Mockito.verify(syncClient).close();
+        assertNull(connectionManager.getHttpClient());
+
+        // 之后可以正常地重新初始化
+        connectionManager.init(configuration);
+        assertNotNull(connectionManager.getHttpClient());
+        assertNotSame(realAsyncClient, connectionManager.getHttpAsyncClient());
+        connectionManager.close();
+        realSyncClient.close();
+        realAsyncClient.close();
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Test
+    public void testHttpclientSSLContext() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        HttpclientConnectionManager connectionManager = new HttpclientConnectionManager();
+        connectionManager.init(configuration);
+
+        ForestRequest httpRequest = new ForestRequest(configuration);
+        httpRequest.setProtocol("http");
+        HttpClientContext httpContext = connectionManager.createContext(httpRequest);
+        assertNull(httpContext.getUserToken());
+        // HTTP请求可能被重定向到HTTPS，SSL Socket工厂同样需要从上下文中获取请求
+        assertSame(httpRequest, httpContext.getAttribute(ForestSSLConnectionFactory.FOREST_REQUEST_ATTRIBUTE));
+
+        ForestRequest httpsRequest = new ForestRequest(configuration);
+        httpsRequest.setProtocol("https");
+        HttpClientContext httpsContext = connectionManager.createContext(httpsRequest);
+        assertEquals(SSLContextCache.getCacheKey(httpsRequest), httpsContext.getUserToken());
+        assertSame(httpsRequest, httpsContext.getAttribute(ForestSSLConnectionFactory.FOREST_REQUEST_ATTRIBUTE));
+
+        connectionManager.close();
+    }
+
+}
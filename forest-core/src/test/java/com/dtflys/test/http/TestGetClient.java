@@ -8,10 +8,12 @@ import com.dtflys.test.http.client.GetClient;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -68,6 +70,15 @@ public class TestGetClient extends BaseClientTest {
     }
 
 
+    @Test
+    public void testTextPathGet() {
+        String result = getClient.textPathGet("user");
+        log.info("response: " + result);
+        assertNotNull(result);
+        assertEquals(GetMockServer.EXPECTED, result);
+    }
+
+
     @Test
     public void testTextParamGet() {
         String result = getClient.textParamGet("foo");
@@ -105,6 +116,28 @@ public class TestGetClient extends BaseClientTest {
     }
 
 
+    @Test
+    public void testStreamGet() throws Exception {
+        InputStream in = getClient.streamGet();
+        assertNotNull(in);
+        try {
+            assertEquals(GetMockServer.EXPECTED, IOUtils.toString(in, "UTF-8"));
+        } finally {
+            in.close();
+        }
+    }
+
+
+    @Test
+    public void testVoidGet() {
+        // 响应体被丢弃，连接可以继续被后续请求使用
+        for (int i = 0; i < 3; i++) {
+            getClient.voidGet();
+        }
+        assertEquals(GetMockServer.EXPECTED, getClient.simpleGet());
+    }
+
+
     @Test
     public void testVarParamGet() {
         String result = getClient.varParamGet("foo");
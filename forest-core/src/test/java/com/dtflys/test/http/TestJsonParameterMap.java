@@ -0,0 +1,61 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.body.JsonParameterMap;
+import com.dtflys.forest.converter.json.ForestFastjsonConverter;
+import com.dtflys.forest.converter.json.ForestGsonConverter;
+import com.dtflys.forest.converter.json.ForestJacksonConverter;
+import com.dtflys.forest.converter.json.ForestJsonConverter;
+import com.dtflys.forest.http.NameValueArray;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+
+public class TestJsonParameterMap {
+
+    private final ForestJsonConverter[] converters = {
+            new ForestFastjsonConverter(), new ForestJacksonConverter(), new ForestGsonConverter()
+    };
+
+    @Test
+    public void testSameAsLinkedHashMap() throws Exception {
+        NameValueArray data = new NameValueArray();
+        data.add("name", "中文\"\\");
+        data.add("age", 32);
+        data.add("tags", Arrays.asList("a", "b"));
+        data.add("empty", "");
+        Map<String, Object> expected = new LinkedHashMap<>();
+        for (int i = 0; i < data.size(); i++) {
+            expected.put(data.getName(i), data.getValue(i));
+        }
+        for (ForestJsonConverter converter : converters) {
+            JsonParameterMap map = JsonParameterMap.wrap(converter, data);
+            assertNotNull(map);
+            assertEquals(expected, map);
+            for (String charset : new String[] {"UTF-8", "GBK"}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                converter.writeJson(map, out, charset);
+                assertTrue(converter.getClass().getSimpleName(), Arrays.equals(
+                        converter.convertToJson(expected).getBytes(charset), out.toByteArray()));
+            }
+        }
+    }
+
+    @Test
+    public void testWrapFallback() {
+        ForestJsonConverter converter = converters[0];
+        NameValueArray data = new NameValueArray();
+        data.add("a", 1);
+        data.add("a", 2);
+        assertNull(JsonParameterMap.wrap(converter, data));
+
+        data = new NameValueArray();
+        data.add("{\"a\":1}", null);
+        assertNull(JsonParameterMap.wrap(converter, data));
+    }
+
+}
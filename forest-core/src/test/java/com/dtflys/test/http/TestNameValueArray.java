@@ -0,0 +1,121 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.NameValueArray;
+import com.dtflys.forest.utils.RequestNameValue;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+
+public class TestNameValueArray {
+
+    @Test
+    public void testAddAndPut() {
+        NameValueArray array = new NameValueArray();
+        for (int i = 0; i < 20; i++) {
+            array.add("a", i);
+        }
+        array.add("b", "x");
+        assertEquals(21, array.size());
+        assertEquals(0, array.get("a"));
+        assertEquals(20, array.indexOf("b"));
+
+        array.put("a", "y");
+        assertEquals(2, array.size());
+        assertEquals("a", array.getName(0));
+        assertEquals("y", array.getValue(0));
+        assertEquals("b", array.getName(1));
+
+        array.put("c", null);
+        assertTrue(array.containsName("c"));
+        assertNull(array.get("c"));
+        assertFalse(array.containsName("A"));
+    }
+
+    @Test
+    public void testRemove() {
+        NameValueArray array = new NameValueArray();
+        array.add("a", 1);
+        array.add("b", 2);
+        array.add("a", 3);
+        array.add(null, 4);
+        assertEquals(1, array.remove("a"));
+        assertEquals(2, array.size());
+        assertEquals("b", array.getName(0));
+        assertEquals(4, array.get(null));
+        assertNull(array.remove("a"));
+        array.clear();
+        assertTrue(array.isEmpty());
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        NameValueArray headers = new NameValueArray(true);
+        headers.add("content-type", "text/plain");
+        headers.add("Accept", "text/html");
+        headers.add("accept", "application/json");
+        assertEquals("text/plain", headers.get("Content-Type"));
+        assertEquals("text/plain", headers.remove("CONTENT-TYPE"));
+        assertEquals(2, headers.size());
+        headers.put("ACCEPT", "*/*");
+        assertEquals(1, headers.size());
+        assertEquals("*/*", headers.get("accept"));
+    }
+
+    @Test
+    public void testRequestRepeatedValues() {
+        ForestRequest request = new ForestRequest(ForestConfiguration.configuration());
+        request.addData(new RequestNameValue("id", "1", true));
+        request.addData(new RequestNameValue("id", "2", true));
+        request.addData("name", "foo");
+        request.addData("name", "bar");
+        request.appendData("name", "baz");
+        assertEquals(4, request.getData().size());
+        assertEquals("bar", request.getData().get("name"));
+        assertEquals(4, request.getDataNameValueList().size());
+
+        request.addHeader("Accept", "text/plain");
+        request.addHeader("accept", "text/html");
+        request.appendHeader("Accept", "application/json");
+        request.addHeader("", "ignored");
+        assertEquals(2, request.getHeaderArray().size());
+        assertEquals("text/html", request.getHeaderArray().getValue(0));
+        assertEquals("application/json", request.getHeaderArray().getValue(1));
+    }
+
+    @Test
+    public void testRequestMapView() {
+        ForestRequest request = new ForestRequest(ForestConfiguration.configuration());
+        request.addData("a", 1);
+        request.addData("b", 2);
+        Map<String, Object> data = request.getData();
+        assertEquals(2, data.size());
+        assertEquals(1, data.get("a"));
+        data.put("c", 3);
+        data.put("a", 10);
+        assertEquals(3, request.getDataArray().size());
+        assertEquals(10, request.getDataArray().get("a"));
+        assertEquals("c", request.getDataArray().getName(2));
+
+        Iterator<Map.Entry<String, Object>> iterator = data.entrySet().iterator();
+        assertEquals("a", iterator.next().getKey());
+        iterator.next().setValue(20);
+        assertEquals(20, request.getDataArray().get("b"));
+        iterator.remove();
+        assertFalse(data.containsKey("b"));
+        assertEquals("c", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+
+        request.addHeader("Content-Type", "text/plain");
+        Map<String, Object> headers = request.getHeaders();
+        assertEquals("text/plain", headers.get("content-type"));
+        assertEquals("text/plain", headers.remove("CONTENT-TYPE"));
+        assertTrue(headers.isEmpty());
+        assertEquals(0, request.getHeaderArray().size());
+    }
+
+}
@@ -10,6 +10,9 @@ import org.junit.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertNotNull;
 
 /**
@@ -79,6 +82,17 @@ public class TestPostJsonClient extends BaseClientTest {
         Assert.assertEquals(PostJsonMockServer.EXPECTED, result);
     }
 
+    @Test
+    public void testJsonPostFiltered() {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("username", "foo");
+        user.put("password", "123456");
+        String result = postClient.postJson7(user);
+        log.info("response: " + result);
+        assertNotNull(result);
+        Assert.assertEquals(PostJsonMockServer.EXPECTED, result);
+    }
+
 /*
     @Test
     public void testJsonPost5() {
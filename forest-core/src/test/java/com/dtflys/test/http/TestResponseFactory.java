@@ -6,13 +6,17 @@ import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
+import org.apache.http.entity.InputStreamEntity;
 import com.dtflys.forest.config.ForestConfiguration;
 import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.http.ForestResponse;
 import org.junit.Test;
 
-import static junit.framework.Assert.assertNotNull;
-import static junit.framework.Assert.assertNull;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -35,4 +39,67 @@ public class TestResponseFactory {
         assertNull(response.getContent());
     }
 
+
+    private HttpResponse mockHttpResponse(int statusCode, String content, final AtomicInteger readCount) {
+        HttpResponse httpResponse = mock(HttpResponse.class);
+        StatusLine statusLine = mock(StatusLine.class);
+        when(statusLine.getStatusCode()).thenReturn(statusCode);
+        when(httpResponse.getStatusLine()).thenReturn(statusLine);
+        InputStream in = new ByteArrayInputStream(content.getBytes()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                readCount.incrementAndGet();
+                return super.read(b, off, len);
+            }
+        };
+        when(httpResponse.getEntity()).thenReturn(new InputStreamEntity(in, content.length()));
+        return httpResponse;
+    }
+
+    @Test
+    public void testLazyContent() {
+        ForestRequest request = new ForestRequest(ForestConfiguration.configuration());
+        AtomicInteger readCount = new AtomicInteger();
+        ForestResponse response = new HttpclientForestResponseFactory().createResponse(
+                request, mockHttpResponse(200, "foo", readCount));
+        assertEquals(0, readCount.get());
+        assertFalse(response.isContentAvailable());
+        assertEquals("foo", response.getContent());
+        assertTrue(response.isContentAvailable());
+        int count = readCount.get();
+        assertTrue(count > 0);
+        assertEquals("foo", response.getContent());
+        response.close();
+        assertEquals(count, readCount.get());
+        assertEquals("foo", response.getContent());
+    }
+
+    @Test
+    public void testStreamAndDiscardContent() throws Exception {
+        ForestRequest request = new ForestRequest(ForestConfiguration.configuration());
+        AtomicInteger readCount = new AtomicInteger();
+        ForestResponse response = new HttpclientForestResponseFactory().createResponse(
+                request, mockHttpResponse(200, "foo", readCount));
+        InputStream in = response.getReceivedDataAsInputStream();
+        assertEquals('f', in.read());
+        assertNull(response.getContentBytes());
+
+        response = new HttpclientForestResponseFactory().createResponse(
+                request, mockHttpResponse(200, "bar", readCount));
+        response.close();
+        assertFalse(response.isContentAvailable());
+        assertNull(response.getContent());
+    }
+
+    @Test
+    public void testErrorContentReadEagerly() {
+        ForestRequest request = new ForestRequest(ForestConfiguration.configuration());
+        AtomicInteger readCount = new AtomicInteger();
+        ForestResponse response = new HttpclientForestResponseFactory().createResponse(
+                request, mockHttpResponse(500, "error", readCount));
+        assertTrue(readCount.get() > 0);
+        response.close();
+        assertEquals("error", response.getContent());
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.dtflys.test.http;
+
+import com.dtflys.forest.backend.HttpBackend;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.test.http.client.RetryClient;
+import com.dtflys.test.mock.RetryMockServer;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.verify.VerificationTimes;
+
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static org.mockserver.model.HttpRequest.request;
+
+public class TestRetryClient extends BaseClientTest {
+
+    @Rule
+    public RetryMockServer server = new RetryMockServer(this);
+
+    private static ForestConfiguration configuration;
+
+    private static RetryClient retryClient;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", RetryMockServer.port);
+    }
+
+    public TestRetryClient(HttpBackend backend) {
+        super(backend, configuration);
+        retryClient = configuration.createInstance(RetryClient.class);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        server.initServer();
+    }
+
+    private void verifyRequests(String method, int times) {
+        new MockServerClient("localhost", RetryMockServer.port).verify(
+                request().withPath("/retry/user").withMethod(method),
+                VerificationTimes.exactly(times));
+    }
+
+    @Test
+    public void testRetryAfterServiceUnavailable() {
+        assertEquals(RetryMockServer.EXPECTED, retryClient.simpleRetry());
+        verifyRequests("GET", 2);
+    }
+
+    @Test
+    public void testAsyncRetryAfterServiceUnavailable() throws Exception {
+        assertEquals(RetryMockServer.EXPECTED, retryClient.asyncRetry().get(5, TimeUnit.SECONDS));
+        verifyRequests("GET", 2);
+    }
+
+    @Test
+    public void testNoRetryForUnsafeMethod() {
+        boolean error = false;
+        try {
+            retryClient.postRetry();
+        } catch (ForestRuntimeException e) {
+            error = true;
+        }
+        assertTrue(error);
+        verifyRequests("POST", 1);
+    }
+}
@@ -2,7 +2,9 @@ package com.dtflys.test.http;
 
 import com.dtflys.forest.backend.HttpBackend;
 import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
 import com.dtflys.forest.ssl.SSLKeyStore;
+import com.dtflys.forest.ssl.SSLUtils;
 import com.dtflys.test.mock.GetMockServer;
 import com.github.dreamhead.moco.HttpsCertificate;
 import com.github.dreamhead.moco.HttpsServer;
@@ -13,9 +15,12 @@ import org.junit.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLSocketFactory;
+
 import static com.github.dreamhead.moco.Moco.*;
 import static com.github.dreamhead.moco.Runner.runner;
 import static com.github.dreamhead.moco.HttpsCertificate.certificate;
+import static junit.framework.Assert.*;
 
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
@@ -114,4 +119,22 @@ public class TestSSLClient extends BaseClientTest {
     }
 
 
+    @Test
+    public void testSSLContextCache() {
+        ForestRequest request1 = new ForestRequest(configuration);
+        ForestRequest request2 = new ForestRequest(configuration);
+        ForestRequest keyStoreRequest = new ForestRequest(configuration);
+        keyStoreRequest.setKeyStore(configuration.getKeyStore("ssl_client"));
+
+        SSLSocketFactory factory1 = SSLUtils.getSSLSocketFactory(request1);
+        assertSame(factory1, SSLUtils.getSSLSocketFactory(request2));
+        SSLSocketFactory keyStoreFactory = SSLUtils.getSSLSocketFactory(keyStoreRequest);
+        assertNotSame(factory1, keyStoreFactory);
+        assertSame(keyStoreFactory, SSLUtils.getSSLSocketFactory(keyStoreRequest));
+
+        configuration.getSslContextCache().invalidate("ssl_client");
+        assertNotSame(keyStoreFactory, SSLUtils.getSSLSocketFactory(keyStoreRequest));
+        assertSame(factory1, SSLUtils.getSSLSocketFactory(request1));
+    }
+
 }
@@ -4,6 +4,8 @@ import com.dtflys.forest.exceptions.ForestRuntimeException;
 import com.dtflys.forest.utils.URLUtils;
 import org.junit.Test;
 
+import java.net.URLEncoder;
+
 import static junit.framework.Assert.*;
 
 /**
@@ -71,4 +73,14 @@ public class TestURL {
         assertEquals(expected, newURL);
     }
 
+    @Test
+    public void testEncode() throws Exception {
+        String[] values = {"foo", "a b+c", "x=1&y=2", "中文", "~!@#$%^*()_-.", "\uD83D\uDE00 ok"};
+        for (String value : values) {
+            assertEquals(URLEncoder.encode(value, "UTF-8"), URLUtils.encode(value, "UTF-8"));
+            assertEquals(URLEncoder.encode(value, "GBK"), URLUtils.encode(value, "GBK"));
+        }
+        assertEquals(URLEncoder.encode("中文", "UTF-8"), URLUtils.encode("中文", null));
+    }
+
 }
@@ -11,7 +11,10 @@ import com.dtflys.forest.callback.OnSuccess;
 import com.dtflys.test.http.model.JsonTestUser;
 import com.dtflys.test.model.TestResult;
 
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 
 /**
@@ -50,6 +53,24 @@ public interface GetClient {
     String textParamInPathGet(String username);
 
 
+    @Request(
+            url = "http://localhost:5002/hello/${0}?username=foo",
+            headers = {"Accept:text/plan"}
+    )
+    String textPathGet(String path);
+
+    @Request(
+            url = "http://localhost:${port}/hello/user?username=foo",
+            headers = {"Accept:text/plan"}
+    )
+    InputStream streamGet();
+
+    @Request(
+            url = "http://localhost:${port}/hello/user?username=foo",
+            headers = {"Accept:text/plan"}
+    )
+    void voidGet();
+
     @Request(
             url = "http://localhost:${port}/hello/user",
             headers = {"Accept:text/plan"}
@@ -112,4 +133,45 @@ public interface GetClient {
 
 
 
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            headers = {"Accept:text/plan"}
+    )
+    CompletableFuture<String> asyncGetWithCompletableFuture();
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            dataType = "json",
+            headers = {"Accept:text/plan"}
+    )
+    CompletionStage<Map> asyncGetWithCompletionStage();
+
+    @Request(
+            url = "http://localhost:5000/hello/user",
+            headers = {"Accept:text/plan"},
+            data = "username=${ username.toString() }"
+    )
+    CompletableFuture<String> asyncVarParamGetWithCompletableFuture(@DataVariable("username") String username);
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            headers = {"Accept:text/plan"},
+            callbackExecutor = "sameThread"
+    )
+    CompletableFuture<String> asyncGetWithSameThreadCallback(OnSuccess<String> onSuccess);
+
+    @Request(
+            url = "http://localhost:5000/hello/user?username=foo",
+            headers = {"Accept:text/plan"},
+            callbackExecutor = "testCallback"
+    )
+    CompletableFuture<String> asyncGetWithNamedCallback(OnSuccess<String> onSuccess);
+
+    @Request(
+            url = "http://localhost:5099/hello/user?username=foo",
+            retryCount = 0,
+            headers = {"Accept:text/plan"}
+    )
+    CompletableFuture<String> asyncGetUnreachable(OnError onError);
+
 }
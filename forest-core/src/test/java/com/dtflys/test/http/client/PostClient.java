@@ -8,6 +8,8 @@ import com.dtflys.test.http.model.*;
 import com.dtflys.test.http.model.UserParam;
 import com.dtflys.test.http.model.XmlTestParam;
 
+import java.util.Map;
+
 /**
  * @author gongjun[jun.gong@thebeastshop.com]
  * @since 2017-05-11 16:55
@@ -112,6 +114,13 @@ public interface PostClient {
     )
     String postJson6(@DataObject JsonTestUser user);
 
+    @Request(
+            url = "http://localhost:${port}/json",
+            type = "post",
+            contentType = "application/json"
+    )
+    String postJson7(@DataObject(filter = "json") Map user);
+
 
 
     @Request(
@@ -2,11 +2,33 @@ package com.dtflys.test.http.client;
 
 import com.dtflys.forest.annotation.Request;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface RetryClient {
 
     @Request(
-            url = "http://localhost:${port}/hello/user?username=foo",
-            headers = {"Accept:text/plan"}
+            url = "http://localhost:${port}/retry/user?username=foo",
+            headers = {"Accept:text/plan"},
+            retryCount = 2,
+            retryInterval = 10,
+            maxRetryInterval = 50
     )
     String simpleRetry();
+
+    @Request(
+            url = "http://localhost:${port}/retry/user?username=foo",
+            headers = {"Accept:text/plan"},
+            retryCount = 2,
+            retryInterval = 10,
+            maxRetryInterval = 50
+    )
+    CompletableFuture<String> asyncRetry();
+
+    @Request(
+            url = "http://localhost:${port}/retry/user?username=foo",
+            type = "post",
+            retryCount = 2,
+            retryInterval = 10
+    )
+    String postRetry();
 }
@@ -0,0 +1,138 @@
+package com.dtflys.test.mapping;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.config.VariableScope;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.mapping.MappingVariable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+
+public class TestMappingTemplate {
+
+    private static VariableScope createScope(final ForestConfiguration configuration) {
+        final Map<String, MappingVariable> variables = new HashMap<>();
+        MappingVariable nameVar = new MappingVariable("name", String.class);
+        nameVar.setIndex(0);
+        variables.put("name", nameVar);
+        MappingVariable userVar = new MappingVariable("user", Object.class);
+        userVar.setIndex(0);
+        variables.put("user", userVar);
+        return new VariableScope() {
+            @Override
+            public Object getVariableValue(String name) {
+                return configuration.getVariableValue(name);
+            }
+
+            @Override
+            public MappingVariable getVariable(String name) {
+                return variables.get(name);
+            }
+
+            @Override
+            public ForestConfiguration getConfiguration() {
+                return configuration;
+            }
+        };
+    }
+
+    @Test
+    public void testConstantTemplate() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        MappingTemplate template = new MappingTemplate("http://localhost:8080/hello", createScope(configuration));
+        assertTrue(template.isConstant());
+        String text = template.render(new Object[0]);
+        assertEquals("http://localhost:8080/hello", text);
+        assertSame(text, template.render(new Object[0]));
+    }
+
+    @Test
+    public void testFoldVariables() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("host", "localhost");
+        MappingTemplate template = new MappingTemplate("http://${host}:${port}/hello", createScope(configuration));
+        assertFalse(template.isConstant());
+        assertEquals("http://localhost:/hello", template.render(new Object[0]));
+
+        configuration.setVariableValue("port", 8080);
+        assertEquals("http://localhost:8080/hello", template.render(new Object[0]));
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("host", "127.0.0.1");
+        variables.put("port", 80);
+        configuration.setVariables(variables);
+        assertEquals("http://127.0.0.1:80/hello", template.render(new Object[0]));
+    }
+
+    @Test
+    public void testRenderArguments() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("host", "localhost");
+        MappingTemplate template = new MappingTemplate(
+                "http://${host}/hello/${name}?id=${1}&flag=${true}&list=${2}", createScope(configuration));
+        assertEquals("http://localhost/hello/foo?id=1&flag=true&list=[1,2]",
+                template.render(new Object[] {"foo", 1, Arrays.asList(1, 2)}));
+        assertEquals("http://localhost/hello/bar?id=&flag=true&list=",
+                template.render(new Object[] {"bar", null, null}));
+    }
+
+    @Test
+    public void testRenderProperties() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        MappingTemplate template = new MappingTemplate(
+                "${user.name}:${user.vip}:${user.greet('Hi')}", createScope(configuration));
+        assertEquals("Peter:true:Hi, Peter", template.render(new Object[] {new VipUser("Peter")}));
+        assertEquals("Linda:false:Hello, Linda", template.render(new Object[] {new GuestUser("Linda")}));
+        assertEquals("Marry:true:Hi, Marry", template.render(new Object[] {new VipUser("Marry")}));
+    }
+
+
+    public static class BaseUser {
+
+        private final String name;
+
+        BaseUser(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String greet(String word) {
+            return word + ", " + name;
+        }
+    }
+
+    private static class VipUser extends BaseUser {
+
+        VipUser(String name) {
+            super(name);
+        }
+
+        public boolean isVip() {
+            return true;
+        }
+    }
+
+    private static class GuestUser extends BaseUser {
+
+        GuestUser(String name) {
+            super(name);
+        }
+
+        public boolean isVip() {
+            return false;
+        }
+
+        @Override
+        public String greet(String word) {
+            return super.greet("Hello");
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.dtflys.test.mock;
+
+import org.apache.http.HttpHeaders;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.Header;
+
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class RetryMockServer extends MockServerRule {
+
+    public final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    public final static Integer port = 5016;
+
+    public RetryMockServer(Object target) {
+        super(target, port);
+    }
+
+    public void initServer() {
+        MockServerClient mockClient = new MockServerClient("localhost", port);
+        mockClient.when(
+                request()
+                        .withPath("/retry/user")
+                        .withMethod("GET")
+                        .withHeader(new Header(HttpHeaders.ACCEPT, "text/plan")),
+                Times.once()
+        )
+        .respond(
+                response()
+                        .withStatusCode(503)
+        );
+        mockClient.when(
+                request()
+                        .withPath("/retry/user")
+                        .withMethod("GET")
+                        .withHeader(new Header(HttpHeaders.ACCEPT, "text/plan"))
+        )
+        .respond(
+                response()
+                        .withStatusCode(200)
+                        .withBody(EXPECTED)
+        );
+        mockClient.when(
+                request()
+                        .withPath("/retry/user")
+                        .withMethod("POST")
+        )
+        .respond(
+                response()
+                        .withStatusCode(500)
+        );
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.dtflys.test.request;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.interceptor.Interceptor;
+
+/**
+ * 记录构建好的请求并阻止发送，用于在不发送请求的情况下检查请求内容
+ */
+public class CaptureInterceptor implements Interceptor {
+
+    private final static ThreadLocal<ForestRequest> LAST_REQUEST = new ThreadLocal<>();
+
+    public static ForestRequest getLastRequest() {
+        return LAST_REQUEST.get();
+    }
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        LAST_REQUEST.set(request);
+        return false;
+    }
+
+    @Override
+    public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+    }
+
+    @Override
+    public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+    }
+
+    @Override
+    public void afterExecute(ForestRequest request, ForestResponse response) {
+    }
+}
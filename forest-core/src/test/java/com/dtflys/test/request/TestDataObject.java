@@ -0,0 +1,98 @@
+package com.dtflys.test.request;
+
+import com.dtflys.forest.annotation.DataObject;
+import com.dtflys.forest.annotation.Request;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+
+public class TestDataObject {
+
+    public static class BaseParam {
+
+        private String id = "1";
+
+        public String getId() {
+            return id;
+        }
+
+        protected String getName() {
+            return "base";
+        }
+    }
+
+    public static class UserParam extends BaseParam {
+
+        private boolean active = true;
+
+        private Boolean admin = false;
+
+        private String nickname;
+
+        @Override
+        protected String getName() {
+            return "foo";
+        }
+
+        String getCode() {
+            return "abc";
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Boolean isAdmin() {
+            return admin;
+        }
+
+        public String isNotGetter() {
+            return "x";
+        }
+
+        public String getNickname() {
+            return nickname;
+        }
+
+        public static String getStatic() {
+            return "static";
+        }
+    }
+
+    public interface DataObjectClient {
+
+        @Request(
+                url = "http://localhost/user",
+                interceptor = CaptureInterceptor.class
+        )
+        String send(@DataObject UserParam param);
+    }
+
+    @Test
+    public void testFlattenDataObject() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        DataObjectClient client = configuration.createInstance(DataObjectClient.class);
+        assertNull(client.send(new UserParam()));
+        ForestRequest request = CaptureInterceptor.getLastRequest();
+        Map<String, Object> data = request.getData();
+        // 继承的Getter
+        assertEquals("1", data.get("id"));
+        // 非public的Getter，子类覆盖的方法优先
+        assertEquals("foo", data.get("name"));
+        assertEquals("abc", data.get("code"));
+        // boolean属性的isXxx方法
+        assertEquals(Boolean.TRUE, data.get("active"));
+        assertEquals(Boolean.FALSE, data.get("admin"));
+        // 值为null的属性、静态方法以及返回值不是boolean的isXxx方法不展开
+        assertFalse(data.containsKey("nickname"));
+        assertFalse(data.containsKey("static"));
+        assertFalse(data.containsKey("notGetter"));
+        assertEquals(5, data.size());
+    }
+}
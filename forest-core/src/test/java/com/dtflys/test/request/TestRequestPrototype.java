@@ -0,0 +1,138 @@
+package com.dtflys.test.request;
+
+import com.dtflys.forest.annotation.BaseRequest;
+import com.dtflys.forest.annotation.DataParam;
+import com.dtflys.forest.annotation.Request;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.http.ForestRequest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * 常量模板由请求原型预先解析，含有 ${} 表达式的模板每次调用时重新渲染，两种方式构建的请求应当完全一致
+ */
+public class TestRequestPrototype {
+
+    @BaseRequest(
+            headers = "X-Base: base",
+            interceptor = TraceInterceptor.BaseTraceInterceptor.class
+    )
+    public interface PrototypeClient {
+
+        @Request(
+                url = "http://localhost:5000/hello/user?a=1&b=2",
+                type = "post",
+                headers = {"Accept: text/plain", "X-Token: abc"},
+                data = "username=foo&password=bar",
+                interceptor = {TraceInterceptor.class, CaptureInterceptor.class}
+        )
+        String constant(@DataParam("id") String id);
+
+        @Request(
+                url = "http://127.0.0.1:5001/hello/user?a=1&b=2",
+                type = "post",
+                headers = {"Accept: text/plain", "X-Token: xyz"},
+                data = "username=foo&password=bar",
+                interceptor = {TraceInterceptor.class, CaptureInterceptor.class}
+        )
+        String constantChanged(@DataParam("id") String id);
+
+        @Request(
+                url = "${host}/hello/user?a=${0}&b=2",
+                type = "${method}",
+                headers = {"Accept: text/plain", "X-Token: ${token}"},
+                data = "username=${1}&password=bar",
+                interceptor = {TraceInterceptor.class, CaptureInterceptor.class}
+        )
+        String rendered(String a, String username, @DataParam("id") String id);
+    }
+
+    private ForestRequest send(Runnable call) {
+        TraceInterceptor.getTrace().clear();
+        call.run();
+        ForestRequest request = CaptureInterceptor.getLastRequest();
+        request.addHeader("X-Trace", new ArrayList<>(TraceInterceptor.getTrace()).toString());
+        return request;
+    }
+
+    private static void assertSameRequest(ForestRequest expected, ForestRequest actual) {
+        assertNotSame(expected, actual);
+        assertEquals(expected.getProtocol(), actual.getProtocol());
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getQuery(), actual.getQuery());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getEncode(), actual.getEncode());
+        assertEquals(expected.getContentType(), actual.getContentType());
+        assertEquals(expected.getDataType(), actual.getDataType());
+        assertEquals(expected.getTimeout(), actual.getTimeout());
+        assertEquals(expected.getRetryCount(), actual.getRetryCount());
+        assertEquals(expected.getRequestBody(), actual.getRequestBody());
+        assertEquals(expected.getHeaderArray().toString(), actual.getHeaderArray().toString());
+        assertEquals(expected.getDataArray().toString(), actual.getDataArray().toString());
+        assertEquals(expected.getInterceptorChain().getInterceptorSize(), actual.getInterceptorChain().getInterceptorSize());
+    }
+
+    @Test
+    public void testPrototypeMatchesRenderedRequest() {
+        final ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("host", "http://localhost:5000");
+        configuration.setVariableValue("token", "abc");
+        configuration.setVariableValue("method", "post");
+        final PrototypeClient client = configuration.createInstance(PrototypeClient.class);
+
+        ForestRequest constant = send(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(client.constant("1"));
+            }
+        });
+        ForestRequest rendered = send(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(client.rendered("1", "foo", "1"));
+            }
+        });
+        assertSameRequest(constant, rendered);
+        assertEquals("http://localhost:5000/hello/user", constant.getUrl());
+        assertEquals("abc", constant.getHeaders().get("X-Token"));
+        assertEquals("base", constant.getHeaders().get("X-Base"));
+        assertEquals("[base, trace]", constant.getHeaders().get("X-Trace"));
+        assertEquals("1", constant.getData().get("id"));
+
+        // 修改已构建的请求不影响原型，之后构建的请求不变
+        constant.addHeader("X-Token", "changed");
+        constant.addData("username", "changed");
+        ForestRequest constantAgain = send(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(client.constant("1"));
+            }
+        });
+        assertSameRequest(rendered, constantAgain);
+
+        // 全局变量改变后，渲染的请求使用新的值
+        configuration.setVariableValue("host", "http://127.0.0.1:5001");
+        configuration.setVariableValue("token", "xyz");
+        ForestRequest constantChanged = send(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(client.constantChanged("1"));
+            }
+        });
+        ForestRequest renderedChanged = send(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(client.rendered("1", "foo", "1"));
+            }
+        });
+        assertSameRequest(constantChanged, renderedChanged);
+        assertEquals("http://127.0.0.1:5001/hello/user", renderedChanged.getUrl());
+        assertEquals("xyz", renderedChanged.getHeaders().get("X-Token"));
+    }
+}
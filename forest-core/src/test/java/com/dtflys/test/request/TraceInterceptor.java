@@ -0,0 +1,56 @@
+package com.dtflys.test.request;
+
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.interceptor.Interceptor;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 按执行顺序记录拦截器的名称，用于比较请求中拦截器的顺序
+ */
+public class TraceInterceptor implements Interceptor {
+
+    private final static ThreadLocal<List<String>> TRACE = new ThreadLocal<List<String>>() {
+        @Override
+        protected List<String> initialValue() {
+            return new LinkedList<>();
+        }
+    };
+
+    public static List<String> getTrace() {
+        return TRACE.get();
+    }
+
+    protected String getName() {
+        return "trace";
+    }
+
+    @Override
+    public boolean beforeExecute(ForestRequest request) {
+        TRACE.get().add(getName());
+        return true;
+    }
+
+    @Override
+    public void onSuccess(Object data, ForestRequest request, ForestResponse response) {
+    }
+
+    @Override
+    public void onError(ForestRuntimeException ex, ForestRequest request, ForestResponse response) {
+    }
+
+    @Override
+    public void afterExecute(ForestRequest request, ForestResponse response) {
+    }
+
+    public static class BaseTraceInterceptor extends TraceInterceptor {
+
+        @Override
+        protected String getName() {
+            return "base";
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.dtflys.test.retryer;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.exceptions.ForestRetryException;
+import com.dtflys.forest.http.ForestRequest;
+import com.dtflys.forest.http.ForestResponse;
+import com.dtflys.forest.retryer.DefaultRetryer;
+import com.dtflys.forest.retryer.ExponentialBackoff;
+import com.dtflys.forest.retryer.RetryBudget;
+import com.dtflys.forest.retryer.Retryer;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestRetryer {
+
+    private static ForestResponse response(int statusCode) {
+        ForestResponse response = mock(ForestResponse.class);
+        when(response.getStatusCode()).thenReturn(statusCode);
+        return response;
+    }
+
+    private static ForestRequest request(ForestConfiguration configuration, String type) {
+        ForestRequest request = new ForestRequest(configuration);
+        request.setUrl("http://localhost:8080/hello?a=1");
+        request.setType(type);
+        request.setRetryCount(3);
+        request.setRetryer(new DefaultRetryer(new ExponentialBackoff(10, 100, 2, 0)));
+        return request;
+    }
+
+    @Test
+    public void testExponentialBackoff() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 500, 2, 0);
+        assertEquals(100, backoff.getDelay(1));
+        assertEquals(200, backoff.getDelay(2));
+        assertEquals(400, backoff.getDelay(3));
+        assertEquals(500, backoff.getDelay(4));
+        assertEquals(500, backoff.getDelay(30));
+
+        backoff = new ExponentialBackoff(100, 500);
+        for (int i = 0; i < 100; i++) {
+            long delay = backoff.getDelay(2);
+            assertTrue(delay >= 100 && delay <= 200);
+        }
+    }
+
+    @Test
+    public void testRetryClassification() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        ForestRequest get = request(configuration, "get");
+        ForestRequest post = request(configuration, "post");
+
+        assertEquals(10, get.nextRetryDelay(0, null, new SocketTimeoutException()));
+        assertEquals(20, get.nextRetryDelay(1, null, new SocketTimeoutException()));
+        assertEquals(-1, get.nextRetryDelay(3, null, new SocketTimeoutException()));
+        assertEquals(-1, post.nextRetryDelay(0, null, new SocketTimeoutException()));
+        assertEquals(10, post.nextRetryDelay(0, null, new ConnectException()));
+
+        assertEquals(10, get.nextRetryDelay(0, response(500), null));
+        assertEquals(-1, post.nextRetryDelay(0, response(500), null));
+        assertEquals(10, post.nextRetryDelay(0, response(503), null));
+        assertEquals(10, post.nextRetryDelay(0, response(429), null));
+        assertEquals(-1, get.nextRetryDelay(0, response(404), null));
+
+        get.setRetryCount(0);
+        assertEquals(-1, get.nextRetryDelay(0, response(503), null));
+    }
+
+    @Test
+    public void testRetryBudget() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        String url = "http://localhost:8080/a";
+        assertEquals(2, budget.getAvailableRetries(url));
+        assertTrue(budget.tryAcquire(url));
+        assertTrue(budget.tryAcquire("http://localhost:8080/b?c=d"));
+        assertFalse(budget.tryAcquire(url));
+        assertEquals(1, budget.getExhaustedRetryCount());
+        // 其他路由的预算不受影响
+        assertTrue(budget.tryAcquire("http://localhost:8081/a"));
+
+        budget.recordRequest(url);
+        assertFalse(budget.tryAcquire(url));
+        budget.recordRequest(url);
+        assertTrue(budget.tryAcquire(url));
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest(url);
+        }
+        assertEquals(2, budget.getAvailableRetries(url));
+    }
+
+    @Test
+    public void testRetryBudgetInRetryer() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        configuration.getRetryBudget().setMaxBurst(1);
+        ForestRequest request = request(configuration, "get");
+        assertEquals(10, request.nextRetryDelay(0, response(503), null));
+        assertEquals(-1, request.nextRetryDelay(1, response(503), null));
+        assertEquals(1, configuration.getRetryBudget().getExhaustedRetryCount());
+    }
+    @Test
+    public void testLegacyRetryer() {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        ForestRequest request = request(configuration, "get");
+        // 只实现doRetry的旧重试器：正常返回时立即重试，抛出异常时不再重试
+        request.setRetryer(new Retryer() {
+            @Override
+            public void doRetry(ForestRetryException ex) throws Throwable {
+                if (ex.getCurrentRetryCount() >= 1) {
+                    throw ex.getCause();
+                }
+            }
+        });
+        assertEquals(0, request.nextRetryDelay(0, null, new SocketTimeoutException()));
+        assertEquals(-1, request.nextRetryDelay(1, null, new SocketTimeoutException()));
+
+        // 什么都没有实现的重试器不重试
+        request.setRetryer(new Retryer() {
+        });
+        assertEquals(-1, request.nextRetryDelay(0, null, new SocketTimeoutException()));
+    }
+
+    @Test
+    public void testDefaultRetryerDoRetry() throws Throwable {
+        ForestConfiguration configuration = ForestConfiguration.configuration();
+        ForestRequest request = request(configuration, "get");
+        DefaultRetryer retryer = (DefaultRetryer) request.getRetryer();
+        SocketTimeoutException cause = new SocketTimeoutException();
+        retryer.doRetry(new ForestRetryException(cause, request, null, 3, 0));
+        boolean error = false;
+        try {
+            retryer.doRetry(new ForestRetryException(cause, request, null, 3, 3));
+        } catch (SocketTimeoutException e) {
+            error = true;
+            assertSame(cause, e);
+        }
+        assertTrue(error);
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.dtflys.forest.processor;
+
+import com.dtflys.forest.proxy.ProxyFactory;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成客户端接口实现类的源代码
+ * <p>生成的类在构造时一次性取得每个接口方法对应的ForestMethod，
+ * 调用时直接委托给对应的ForestMethod，不再经过动态代理以及方法查找</p>
+ */
+class ClientSourceGenerator {
+
+    private final static String INDENT = "    ";
+
+    private final Types types;
+
+    private final TypeElement interfaceElement;
+
+    private final String packageName;
+
+    private final String className;
+
+    private final List<ExecutableElement> methods = new ArrayList<>();
+
+    ClientSourceGenerator(ProcessingEnvironment processingEnv, TypeElement interfaceElement) {
+        this.types = processingEnv.getTypeUtils();
+        this.interfaceElement = interfaceElement;
+        this.packageName = processingEnv.getElementUtils().getPackageOf(interfaceElement).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(interfaceElement).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        this.className = simpleBinaryName + ProxyFactory.GENERATED_CLIENT_SUFFIX;
+        for (ExecutableElement method : ElementFilter.methodsIn(interfaceElement.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+                methods.add(method);
+            }
+        }
+    }
+
+    String getQualifiedClassName() {
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    String generate() {
+        String interfaceName = interfaceElement.getQualifiedName().toString();
+        StringBuilder builder = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+        builder.append("/**\n")
+                .append(" * Forest client implementation of {@link ").append(interfaceName).append("}\n")
+                .append(" * <p>Generated by ").append(ForestClientProcessor.class.getName()).append(", do not edit</p>\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(className)
+                .append(" implements ").append(interfaceName)
+                .append(", com.dtflys.forest.proxy.ForestClientProxy {\n\n");
+
+        builder.append(INDENT).append("private final com.dtflys.forest.proxy.InterfaceProxyHandler<")
+                .append(interfaceName).append("> handler;\n\n");
+        for (int i = 0; i < methods.size(); i++) {
+            builder.append(INDENT).append("private final com.dtflys.forest.reflection.ForestMethod method")
+                    .append(i).append(";\n\n");
+        }
+
+        // constructor
+        builder.append(INDENT).append("public ").append(className)
+                .append("(com.dtflys.forest.proxy.InterfaceProxyHandler<").append(interfaceName).append("> handler) {\n");
+        builder.append(INDENT).append(INDENT).append("this.handler = handler;\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            builder.append(INDENT).append(INDENT).append("this.method").append(i)
+                    .append(" = handler.getForestMethod(findInterfaceMethod(\"").append(method.getSimpleName()).append("\"");
+            for (VariableElement parameter : method.getParameters()) {
+                builder.append(", ").append(types.erasure(parameter.asType())).append(".class");
+            }
+            builder.append("));\n");
+        }
+        builder.append(INDENT).append("}\n\n");
+
+        builder.append(INDENT).append("private static java.lang.reflect.Method findInterfaceMethod(java.lang.String name, java.lang.Class... parameterTypes) {\n")
+                .append(INDENT).append(INDENT).append("try {\n")
+                .append(INDENT).append(INDENT).append(INDENT).append("return ").append(interfaceName)
+                .append(".class.getDeclaredMethod(name, parameterTypes);\n")
+                .append(INDENT).append(INDENT).append("} catch (java.lang.NoSuchMethodException e) {\n")
+                .append(INDENT).append(INDENT).append(INDENT)
+                .append("throw new com.dtflys.forest.exceptions.ForestRuntimeException(e);\n")
+                .append(INDENT).append(INDENT).append("}\n")
+                .append(INDENT).append("}\n\n");
+
+        builder.append(INDENT).append("@Override\n")
+                .append(INDENT).append("public com.dtflys.forest.proxy.InterfaceProxyHandler getProxyHandler() {\n")
+                .append(INDENT).append(INDENT).append("return handler;\n")
+                .append(INDENT).append("}\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            builder.append("\n");
+            appendMethod(builder, methods.get(i), i);
+        }
+        builder.append("\n}\n");
+        return builder.toString();
+    }
+
+    private void appendMethod(StringBuilder builder, ExecutableElement method, int index) {
+        builder.append(INDENT).append("@Override\n").append(INDENT).append("public ");
+        List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+        if (!typeParameters.isEmpty()) {
+            builder.append("<");
+            for (int i = 0; i < typeParameters.size(); i++) {
+                TypeParameterElement typeParameter = typeParameters.get(i);
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(typeParameter.getSimpleName());
+                List<? extends TypeMirror> bounds = typeParameter.getBounds();
+                boolean objectBound = bounds.size() == 1 && "java.lang.Object".equals(bounds.get(0).toString());
+                if (!bounds.isEmpty() && !objectBound) {
+                    builder.append(" extends ");
+                    for (int j = 0; j < bounds.size(); j++) {
+                        if (j > 0) {
+                            builder.append(" & ");
+                        }
+                        builder.append(bounds.get(j));
+                    }
+                }
+            }
+            builder.append("> ");
+        }
+        TypeMirror returnType = method.getReturnType();
+        builder.append(returnType).append(" ").append(method.getSimpleName()).append("(");
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            TypeMirror parameterType = parameters.get(i).asType();
+            if (method.isVarArgs() && i == parameters.size() - 1) {
+                builder.append(((ArrayType) parameterType).getComponentType()).append("...");
+            } else {
+                builder.append(parameterType);
+            }
+            builder.append(" arg").append(i);
+        }
+        builder.append(") {\n");
+
+        StringBuilder invocation = new StringBuilder();
+        invocation.append("method").append(index).append(".invoke(new java.lang.Object[] {");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                invocation.append(", ");
+            }
+            invocation.append("arg").append(i);
+        }
+        invocation.append("})");
+
+        builder.append(INDENT).append(INDENT);
+        if (returnType.getKind() == TypeKind.VOID) {
+            builder.append(invocation).append(";\n");
+        } else if (returnType.getKind().isPrimitive()) {
+            String boxedName = types.boxedClass((PrimitiveType) returnType).getQualifiedName().toString();
+            builder.append("return (").append(boxedName).append(") ").append(invocation).append(";\n");
+        } else {
+            builder.append("return (").append(returnType).append(") ").append(invocation).append(";\n");
+        }
+        builder.append(INDENT).append("}\n");
+    }
+
+}
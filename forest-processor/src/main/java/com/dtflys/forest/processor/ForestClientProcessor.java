@@ -0,0 +1,172 @@
+package com.dtflys.forest.processor;
+
+import com.dtflys.forest.annotation.BaseRequest;
+import com.dtflys.forest.annotation.Request;
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.config.VariableScope;
+import com.dtflys.forest.exceptions.ForestRuntimeException;
+import com.dtflys.forest.mapping.MappingTemplate;
+import com.dtflys.forest.mapping.MappingVariable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Forest客户端接口的注解处理器
+ * <p>在编译期校验 {@link Request} 和 {@link BaseRequest} 中的模板语法，
+ * 并为每个客户端接口生成实现类，运行时由 {@link com.dtflys.forest.proxy.ProxyFactory} 自动使用生成的类代替动态代理</p>
+ */
+@SupportedAnnotationTypes({
+        "com.dtflys.forest.annotation.Request",
+        "com.dtflys.forest.annotation.BaseRequest"})
+public class ForestClientProcessor extends AbstractProcessor {
+
+    /**
+     * 校验模板语法时使用的变量作用域，模板解析不依赖任何变量的值
+     */
+    private final static VariableScope PARSE_SCOPE = new VariableScope() {
+        @Override
+        public Object getVariableValue(String name) {
+            return null;
+        }
+
+        @Override
+        public MappingVariable getVariable(String name) {
+            return null;
+        }
+
+        @Override
+        public ForestConfiguration getConfiguration() {
+            return null;
+        }
+    };
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> interfaces = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(BaseRequest.class)) {
+            validateBaseRequest(element, element.getAnnotation(BaseRequest.class));
+            if (element.getKind() == ElementKind.INTERFACE) {
+                interfaces.add((TypeElement) element);
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Request.class)) {
+            validateRequest(element, element.getAnnotation(Request.class));
+            Element enclosing = element.getEnclosingElement();
+            if (enclosing.getKind() == ElementKind.INTERFACE) {
+                interfaces.add((TypeElement) enclosing);
+            }
+        }
+        for (TypeElement interfaceElement : interfaces) {
+            if (isGeneratable(interfaceElement)) {
+                generateClient(interfaceElement);
+            }
+        }
+        return false;
+    }
+
+    private void validateBaseRequest(Element element, BaseRequest baseRequest) {
+        validateTemplate(element, baseRequest.baseURL());
+        for (String header : baseRequest.headers()) {
+            validateTemplate(element, header);
+        }
+    }
+
+    private void validateRequest(Element element, Request request) {
+        validateTemplate(element, request.url());
+        validateTemplate(element, request.type());
+        validateTemplate(element, request.dataType());
+        validateTemplate(element, request.contentType());
+        validateTemplate(element, request.contentEncoding());
+        for (String header : request.headers()) {
+            validateTemplate(element, header);
+        }
+        for (String data : request.data()) {
+            validateTemplate(element, data);
+        }
+    }
+
+    private void validateTemplate(Element element, String template) {
+        if (template == null || template.length() == 0) {
+            return;
+        }
+        try {
+            new MappingTemplate(template, PARSE_SCOPE);
+        } catch (ForestRuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), element);
+        } catch (RuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Template Expression Parse Error: \"" + template + "\"", element);
+        }
+    }
+
+    /**
+     * 判断是否可以为接口生成实现类，不能生成时运行时仍使用动态代理
+     * @param interfaceElement
+     * @return
+     */
+    private boolean isGeneratable(TypeElement interfaceElement) {
+        String reason = null;
+        if (!interfaceElement.getTypeParameters().isEmpty()) {
+            reason = "generic interface";
+        } else if (!interfaceElement.getInterfaces().isEmpty()) {
+            reason = "interface extends other interfaces";
+        } else {
+            for (Element element = interfaceElement; element instanceof TypeElement; element = element.getEnclosingElement()) {
+                if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                    reason = "private interface";
+                    break;
+                }
+            }
+        }
+        if (reason != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Forest client implementation is not generated for " + interfaceElement.getQualifiedName() +
+                            " (" + reason + "), dynamic proxy will be used", interfaceElement);
+            return false;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(interfaceElement.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generateClient(TypeElement interfaceElement) {
+        ClientSourceGenerator generator = new ClientSourceGenerator(processingEnv, interfaceElement);
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(
+                    generator.getQualifiedClassName(), interfaceElement);
+            Writer writer = sourceFile.openWriter();
+            try {
+                writer.write(generator.generate());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot generate Forest client implementation: " + e.getMessage(), interfaceElement);
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.dtflys.test.processor;
+
+import com.dtflys.forest.annotation.BaseRequest;
+import com.dtflys.forest.annotation.DataVariable;
+import com.dtflys.forest.annotation.Request;
+
+import java.util.Map;
+
+@BaseRequest(baseURL = "http://localhost:${port}", headers = {"Accept:text/plain"})
+public interface GeneratedClient {
+
+    @Request(url = "/hello/user?username=${0}")
+    String hello(String username);
+
+    @Request(url = "/hello/user?username=${name}", dataType = "json")
+    Map<String, Object> helloMap(@DataVariable("name") String name);
+
+    @Request(url = "/hello/user?username=${0}")
+    <T> T helloAs(String username, Class<T> type);
+
+    @Request(url = "/hello/user?username=${0}")
+    String helloAll(String username, String... others);
+
+}
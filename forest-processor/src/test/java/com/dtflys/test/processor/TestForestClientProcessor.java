@@ -0,0 +1,66 @@
+package com.dtflys.test.processor;
+
+import com.dtflys.forest.config.ForestConfiguration;
+import com.dtflys.forest.proxy.ForestClientProxy;
+import com.dtflys.forest.proxy.ProxyFactory;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class TestForestClientProcessor {
+
+    private final static String EXPECTED = "{\"status\": \"ok\"}";
+
+    private final static int port = 5020;
+
+    @Rule
+    public MockServerRule server = new MockServerRule(this, port);
+
+    private static ForestConfiguration configuration;
+
+    @BeforeClass
+    public static void prepareClient() {
+        configuration = ForestConfiguration.configuration();
+        configuration.setVariableValue("port", port);
+    }
+
+    @Before
+    public void prepareMockServer() {
+        new MockServerClient("localhost", port).when(
+                request()
+                        .withPath("/hello/user")
+                        .withMethod("GET")
+                        .withQueryStringParameter("username", "foo")
+        ).respond(
+                response()
+                        .withStatusCode(200)
+                        .withBody(EXPECTED)
+        );
+    }
+
+    @Test
+    public void testGeneratedClient() {
+        GeneratedClient client = configuration.createInstance(GeneratedClient.class);
+        assertFalse(Proxy.isProxyClass(client.getClass()));
+        assertEquals(GeneratedClient.class.getName() + ProxyFactory.GENERATED_CLIENT_SUFFIX, client.getClass().getName());
+        assertNotNull(((ForestClientProxy) client).getProxyHandler());
+
+        assertEquals(EXPECTED, client.hello("foo"));
+        assertEquals(EXPECTED, client.helloAll("foo"));
+        assertEquals(EXPECTED, client.helloAs("foo", String.class));
+        Map<String, Object> map = client.helloMap("foo");
+        assertNotNull(map);
+        assertEquals("ok", map.get("status"));
+    }
+
+}
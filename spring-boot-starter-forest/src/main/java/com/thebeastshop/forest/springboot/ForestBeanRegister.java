@@ -59,9 +59,12 @@ public class ForestBeanRegister implements ResourceLoaderAware, BeanPostProcesso
                 .addPropertyValue("backendName", forestConfigurationProperties.getBackend())
                 .addPropertyValue("interceptors", forestConfigurationProperties.getInterceptors())
                 .addPropertyValue("sslProtocol", forestConfigurationProperties.getSslProtocol())
+                .addPropertyValue("sslSessionCacheSize", forestConfigurationProperties.getSslSessionCacheSize())
+                .addPropertyValue("sslSessionTimeout", forestConfigurationProperties.getSslSessionTimeout())
                 .addPropertyValue("variables", forestConfigurationProperties.getVariables())
                 .setLazyInit(false)
-                .setFactoryMethod("configuration");
+                .setFactoryMethod("configuration")
+                .setDestroyMethodName("close");
 
         BeanDefinition interceptorFactoryBeanDefinition = registerInterceptorFactoryBean();
         beanDefinitionBuilder.addPropertyValue("interceptorFactory", interceptorFactoryBeanDefinition);
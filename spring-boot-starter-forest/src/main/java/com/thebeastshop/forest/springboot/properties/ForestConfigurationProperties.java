@@ -53,6 +53,16 @@ public class ForestConfigurationProperties {
      */
     private String sslProtocol = SSLUtils.TLSv1_2;
 
+    /**
+     * size of the SSL session cache, use the JDK default when null
+     */
+    private Integer sslSessionCacheSize;
+
+    /**
+     * timeout in seconds of cached SSL sessions, use the JDK default when null
+     */
+    private Integer sslSessionTimeout;
+
     /**
      * backend of forest: httpclient, okhttp3
      */
@@ -139,6 +149,22 @@ public class ForestConfigurationProperties {
         this.sslProtocol = sslProtocol;
     }
 
+    public Integer getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    public void setSslSessionCacheSize(Integer sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+    }
+
+    public Integer getSslSessionTimeout() {
+        return sslSessionTimeout;
+    }
+
+    public void setSslSessionTimeout(Integer sslSessionTimeout) {
+        this.sslSessionTimeout = sslSessionTimeout;
+    }
+
     public String getBackend() {
         return backend;
     }